@@ -15,14 +15,23 @@ import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BinaryOperator;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public final class Advanced {
+    /**
+     * Holds {@code pi/180} at the most decimal places it was found at, for {@link #toRadians(Number)}.
+     */
+    private static final AtomicReference<PrecisionCache> RADIANS_PER_DEGREE = new AtomicReference<>();
+    /**
+     * Holds {@code 180/pi} at the most decimal places it was found at, for {@link #toDegrees(Number)}.
+     */
+    private static final AtomicReference<PrecisionCache> DEGREES_PER_RADIAN = new AtomicReference<>();
+
     // constants
     /**
      * Gets {@code Euler's Number} as a {@link Number}.
@@ -73,7 +82,7 @@ public final class Advanced {
      * @return  the measurement of the angle {@code angdeg} in radians.
      */
     public static Number toRadians(Number angdeg) {
-        return angdeg.copy().multiply(pi().divide(180));
+        return angdeg.copy().multiply(angleRatio(RADIANS_PER_DEGREE, angdeg.getDecCount(), false));
     }
 
     /**
@@ -85,7 +94,31 @@ public final class Advanced {
      * @return the measurement of the angle {@code angrad} in degrees.
      */
     public static Number toDegrees(Number angrad) {
-        return angrad.copy().multiply(new Number(180).divide(pi()));
+        return angrad.copy().multiply(angleRatio(DEGREES_PER_RADIAN, angrad.getDecCount(), true));
+    }
+
+    /**
+     * Gets {@code pi/180} or {@code 180/pi}, cut off after a count of decimal places.
+     * <br>
+     * Only the ratio at the most decimal places asked for is kept, and fewer places are cut off from it
+     * (see {@link PrecisionCache}).
+     * @param cache The ratio that was already found.
+     * @param places The count of decimal places.
+     * @param degrees {@code true} for {@code 180/pi}, otherwise {@code pi/180}.
+     * @return A copy of the ratio.
+     */
+    private static Number angleRatio(AtomicReference<PrecisionCache> cache, int places, boolean degrees) {
+        int p = Math.max(places, 0);
+        PrecisionCache kept = cache.get();
+        if (kept == null || kept.places < p) {
+            // pi is found a few places past the ratio, so the cut off doesn't reach the kept places
+            Number pi = Constants.PI.asNumber(p + 10);
+            Number ratio = degrees ? new Number(180) : pi;
+            ratio.setDecCount(p);
+            PrecisionCache found = new PrecisionCache(p, ratio.divide(degrees ? pi : new Number(180)));
+            kept = cache.accumulateAndGet(found, (old, now) -> old != null && old.places >= now.places ? old : now);
+        }
+        return kept.toNumber(p);
     }
 
     /**
@@ -99,94 +132,116 @@ public final class Advanced {
         return e().power(to);
     }
 
+    /**
+     * Splits a whole number into its prime factors.
+     * <br>
+     * Small primes are divided out first, and what is left is split with Pollard's rho
+     * (see {@link Factorization}), with big parts split across threads.
+     * <br>
+     * For example:
+     * <pre>
+     * Advanced.primeFactor(new Number(360)); // {{2, 3}, {3, 2}, {5, 1}}
+     * </pre>
+     * @param num The whole number to factor, must be at least one.
+     * @return Every prime factor with the count of times it divides {@code num},
+     * from the least prime up. One has no prime factors.
+     * @throws IllegalArgumentException if {@code num} isn't a whole number from one up.
+     */
     public static Number[][] primeFactor(Number num) {
-        Number cnum = num.copy();
-        Map<String, Number> factors = new HashMap<>();
-        Number factor = new Number(2);
-        while (cnum.symbols("ne", "1")) {
-            if (cnum.mod(factor).symbols("eq", "0")) {
-                if (factors.containsKey(factor.toString())) {
-                    factors.get(factor.toString()).add(1);
-                } else {
-                    factors.put(factor.toString(), new Number(1));
-                }
-            } else {
-                factor.add(1);
-            }
+        return primeFactor(num, true);
+    }
+
+    /**
+     * Splits a whole number into its prime factors.
+     * @param num The whole number to factor, must be at least one.
+     * @param parallel {@code true} to split big parts across threads.
+     * @return Every prime factor with the count of times it divides {@code num},
+     * from the least prime up. One has no prime factors.
+     * @throws IllegalArgumentException if {@code num} isn't a whole number from one up.
+     * @see #primeFactor(Number)
+     */
+    public static Number[][] primeFactor(Number num, boolean parallel) {
+        if (num.isDecimal() || num.signum() <= 0) {
+            throw new IllegalArgumentException("Only whole numbers from 1 up can be split into prime factors: "+num);
         }
         List<Number[]> ret = new ArrayList<>();
-        for (String key : factors.keySet()) {
-            ret.add(new Number[]{new Number(key), factors.get(key)});
+        int[] last = null;
+        for (int[] prime : Factorization.factor(num.magnitude(), parallel)) {
+            if (last != null && Limbs.compare(last, prime) == 0) {
+                ret.getLast()[1].add(1);
+            } else {
+                ret.add(new Number[] {Number.valueOf(1, prime, 0), new Number(1)});
+                last = prime;
+            }
         }
         return ret.toArray(new Number[0][2]);
     }
 
+    /**
+     * Finds the greatest common factor of two numbers.
+     * <br>
+     * Big values use Lehmer's algorithm on their limbs (see {@link GreatestCommonDivisor}),
+     * so most steps don't need a division.
+     * Decimal values are brought to the same count of decimal places first.
+     * @param val1 The first {@link Number}.
+     * @param val2 The second {@link Number}.
+     * @return The greatest common factor, which is never negative.
+     */
     public static Number euclidAlgorithm(Number val1, Number val2) {
-        Number a, b, remainder;
-        if (val1.symbols("ge", val2)) {
-            a = val1.copy();
-            b = val2.copy();
-        } else {
-            a = val2.copy();
-            b = val1.copy();
-        }
-        do {
-            remainder = a.mod(b);
-            a = b;
-            b = remainder;
-        } while (remainder.symbols("ne", "0"));
-        return a;
+        return reduce(new Number[] {val1, val2}, GreatestCommonDivisor::gcd, false);
     }
 
     /**
-     *
+     * Finds the greatest common factor of many numbers.
+     * <br>
+     * The numbers are reduced as a balanced tree, with big branches reduced across threads.
      * @param numbers The {@link Number}s to use.
-     * @return The Greatest Common Factor.
+     * @return The Greatest Common Factor, which is never negative.
+     * @throws OutOfRangeException if fewer than two numbers are given.
      */
     public static Number gcf(Number... numbers) {
         if (numbers.length < 2) {
             throw new OutOfRangeException("There must be at least two provided numbers.");
-        } else if (numbers.length == 2) {
-            return euclidAlgorithm(numbers[0], numbers[1]);
-        }
-        List<Number[]> pairs = new ArrayList<>();
-        int count = 0;
-        int index = 0;
-        for (Number num : numbers) {
-            if (count==0) {
-                pairs.add(new Number[2]);
-                index = pairs.size()-1;
-            }
-            pairs.get(index)[count] = num;
-            count = (count==1?0:1);
-        }
-        if (count==1) {
-            pairs.set(pairs.size()-2, new Number[] {euclidAlgorithm(
-                    pairs.get(pairs.size()-2)[0],
-                    pairs.get(pairs.size()-2)[1]),
-                    pairs.getLast()[0]});
-            pairs.removeLast();
         }
-        List<Number> newNumbers = new ArrayList<>();
-        for (Number[] nums : pairs) {
-            newNumbers.add(euclidAlgorithm(nums[0], nums[1]));
-        }
-        return gcf(newNumbers.toArray(new Number[0]));
+        return reduce(numbers, GreatestCommonDivisor::gcd, true);
     }
 
     /**
-     *
+     * Finds the least common multiple of many numbers.
+     * <br>
+     * Each pair is folded as <code>a/gcf(a, b)*b</code>,
+     * so nothing bigger than the result is made,
+     * and the numbers are reduced as a balanced tree, with big branches reduced across threads.
      * @param numbers The {@link Number}s to use.
-     * @return The Least Common Multiple.
+     * @return The Least Common Multiple, which is never negative.
+     * @throws OutOfRangeException if fewer than two numbers are given.
      */
     public static Number lcm(Number... numbers) {
-        Number gcf = gcf(numbers);
-        Number ret = new Number(1);
+        if (numbers.length < 2) {
+            throw new OutOfRangeException("There must be at least two provided numbers.");
+        }
+        return reduce(numbers, GreatestCommonDivisor::lcm, true);
+    }
+
+    /**
+     * Reduces the magnitudes of numbers, after bringing them to the same count of decimal places.
+     * @param numbers The {@link Number}s to reduce.
+     * @param operator The reduction of two magnitudes.
+     * @param parallel {@code true} to reduce big branches across threads.
+     * @return The reduction, with the common count of decimal places.
+     */
+    private static Number reduce(Number[] numbers, BinaryOperator<int[]> operator, boolean parallel) {
+        int scale = 0;
         for (Number num : numbers) {
-            ret.multiply(num);
+            scale = Math.max(scale, num.scale());
         }
-        ret.divide(gcf);
-        return ret;
+        int[][] magnitudes = new int[numbers.length][];
+        for (int i = 0; i < numbers.length; i++) {
+            int[] magnitude = numbers[i].magnitude();
+            int shift = scale - numbers[i].scale();
+            magnitudes[i] = shift == 0 ? magnitude : Limbs.multiply(magnitude, Limbs.pow10(shift));
+        }
+        return Number.valueOf(1, GreatestCommonDivisor.reduce(magnitudes, operator, parallel), scale);
     }
 
     /**
@@ -196,44 +251,62 @@ public final class Advanced {
      * <br>
      * <code>log<sub>base</sub>value = {@code return}</code>
      * <br><br>
+     * The logarithm is found as <code>ln(value)/ln(base)</code> (see {@link #ln(Number, int)}),
+     * and a logarithm that is a whole number is found exactly.
+     * <br>
      * If the given {@code tolerance} is less than 20
      * then 20 will be added to the {@code tolerance}.
      * @param base Some base of this logarithm.
      * @param value The value to pass to the base.
      * @param tolerance How precise to calculate to, the bigger this number is the more precise the returned number will be.
+     *                  This is the count of decimal places that are found, the rest are cut off.
      * @return The base logarithm of the provided value.
+     * @throws ArithmeticException if {@code base} or {@code value} isn't positive, or if {@code base} is one.
      */
     public static Number log(Number base, Number value, int tolerance) {
         if (tolerance < 20) {
             tolerance += 20;
         }
-        base = base.copy();
-        value = value.copy();
-        Number lower = new Number(value);
-        Number upper = new Number(value);
-        if (value.isNegative()) {
-            upper.multiply(-1);
-        } else {
-            lower.multiply(-1);
-        }
-        Number m = lower.copy().add(upper).divide(2);
-        Number poweredBase = Basic.pow(base, m);
-        int count = 0;
-        while (poweredBase.symbols("ne", value)) {
-            if (count <= tolerance) {
-                if (poweredBase.symbols("lt", value)) {
-                    lower.update(m);
-                } else {
-                    upper.update(m);
-                }
-                m.update(lower.copy().add(upper).divide(2));
-                poweredBase.update(Basic.pow(base, m));
-                count++;
-            } else {
-                break;
-            }
-        }
-        return m;
+        return Logarithm.log(base, value, tolerance);
+    }
+
+    /**
+     * This method gets the logarithm base of a value,
+     * to the {@link Number#getDecCount() decCount} of {@code value} decimal places.
+     * @param base Some base of this logarithm.
+     * @param value The value to pass to the base.
+     * @return The base logarithm of the provided value.
+     * @throws ArithmeticException if {@code base} or {@code value} isn't positive, or if {@code base} is one.
+     * @see #log(Number, Number, int)
+     */
+    public static Number log(Number base, Number value) {
+        return log(base, value, value.getDecCount());
+    }
+
+    /**
+     * Gets the natural logarithm of a value, the power that <i>e</i> is raised to to get it.
+     * <br>
+     * The value is reduced with {@code ln(2)} and {@code ln(10)},
+     * which are kept once they have been found, before a fast series is summed.
+     * @param value The value to get the natural logarithm of.
+     * @param places The count of decimal places to find, the rest are cut off.
+     * @return <code>ln(value)</code>
+     * @throws ArithmeticException if {@code value} isn't positive.
+     */
+    public static Number ln(Number value, int places) {
+        return Logarithm.ln(value, places);
+    }
+
+    /**
+     * Gets the natural logarithm of a value,
+     * to the {@link Number#getDecCount() decCount} of {@code value} decimal places.
+     * @param value The value to get the natural logarithm of.
+     * @return <code>ln(value)</code>
+     * @throws ArithmeticException if {@code value} isn't positive.
+     * @see #ln(Number, int)
+     */
+    public static Number ln(Number value) {
+        return ln(value, value.getDecCount());
     }
 
     public static Number factorial(Number num) {
@@ -1,6 +1,7 @@
 package arlot.math;
 
 import arlot.error.BadNumberValueException;
+import arlot.error.OutOfRangeException;
 
 import java.util.Arrays;
 import java.util.Random;
@@ -13,7 +14,7 @@ public final class Basic {
     private static final char[] ALLOWED = {
             '0','1','2','3','4','5','6','7','8','9', // numbers 0-9
             '.','-','+','/', // non-numbers
-            'x','X','*','e','E'// scientific only
+            'x','X','*','^','e','E'// scientific only
     };
     /**
      * Returns an array of allowed {@link NumericString Numeric values} from zero to nine.
@@ -53,63 +54,22 @@ public final class Basic {
      * Checks if a String value can be translated into a {@link NumericString Numeric value}
      *
      * @param number The String value to check.
-     * @return True if and only if the chars in the String value are
-     * chars in the {@code ALLOWED} variable.
+     * @return True if and only if the String value is a decimal, or a fraction of two decimals,
+     * made of the chars in the {@code ALLOWED} variable as {@link NumericString} describes.
      */
     public static boolean isNumber(String number) {
-        int dotCount = 2;
-        int slashCount = 1;
-        int scientificCount = 2;
-        boolean good = false;
-        for (int i=0; i<number.length(); i++) {
-            for (char c : ALLOWED) {
-                if (number.charAt(i) == c) {
-                    if (c == '/') {
-                        slashCount -= 1;
-                    }
-                    if (c == '.') {
-                        dotCount -= 1;
-                    }
-                    if (c == 'x' || c == 'X' || c == '*' || c == 'e' || c == 'E') {
-                        scientificCount -= 1;
-                    }
-                    good = true;
-                    break;
-                }
-            }
-            if (!good) {
-                break;
-            }
-        }
-        if (slashCount < 0) {
-            good = false;
-        } else if (slashCount == 0) {
-            if (dotCount<0) {
-                good = false;
-            }
-            if (scientificCount<0) {
-                good = false;
-            }
-        } else {
-            if (dotCount<1) {
-                good = false;
-            }
-            if (scientificCount<1) {
-                good = false;
-            }
-        }
-        return good;
+        return NumberScanner.isNumber(number);
     } // end of isNumber
     /**
      * Checks if a StringBuilder value can be translated
      * into a {@link NumericString Numeric value}
      *
      * @param number The StringBuilder value to check.
-     * @return True if and only if the chars in the StringBuilder value are
-     * chars in the {@code ALLOWED} variable.
+     * @return True if and only if the StringBuilder value is a decimal, or a fraction of two decimals,
+     * made of the chars in the {@code ALLOWED} variable as {@link NumericString} describes.
      */
     public static boolean isNumber(StringBuilder number) {
-        return isNumber(number.toString());
+        return NumberScanner.isNumber(number);
     }
     /**
      * Checks if a {@link Numeric} is a {@link NumericString Numeric value}
@@ -130,7 +90,7 @@ public final class Basic {
      * @param argname the name of the argument that caused the exception
      * @return a BadNumberValueException with a detailed message
      */
-    private static BadNumberValueException illegalNumber(String starttype, String argname) {
+    static BadNumberValueException illegalNumber(String starttype, String argname) {
         return new BadNumberValueException("The given `"+starttype+"` to `"+argname+"` is not a `Number`. Must only include "+getAllowedAsString()+".");
     }
 
@@ -276,19 +236,16 @@ public final class Basic {
      * The modulo operation finds the remainder of the division of the
      * {@code modulus} and {@code dividend}, where the
      * {@code dividend} is over the {@code modulus}.
+     * <br>
+     * The quotient is truncated toward zero, so the remainder has the sign of the {@code dividend}.
+     * The remainder is exact, it doesn't depend on the decimal count of the {@code dividend}.
      *
      * @param dividend The {@link Number} to be divided by the {@code modulus}.
      * @param modulus (divisor) The {@link Number} to divide the {@code dividend}.
      * @return The remainder from the division of <code>dividend/modulus</code>
      */
     public static Number modulo(Number dividend, Number modulus) {
-        Number m = dividend.copy();
-        Number ret = dividend.copy();
-        m.divide(modulus);
-        m.floor();
-        m.multiply(modulus);
-        ret.subtract(m);
-        return ret;
+        return dividend.remainder(modulus);
     }
 
     /**
@@ -296,6 +253,14 @@ public final class Basic {
      * <br>
      * This function just casts {@code power(Number)} on a copy of {@code base}.
      * <br>
+     * Whole powers are found by squaring, so only about two multiplications
+     * are done for each bit of {@code to}.
+     * A decimal power is found as <code>e<sup>to*ln(base)</sup></code> (see {@link Logarithm}),
+     * cut off (not rounded) after the {@link Number#getDecCount() decCount} of {@code base} decimal places,
+     * so it costs about the same however many digits {@code to} has, and an exact power is found exactly.
+     * A negative {@code base} has a decimal power <code>p/q</code> only when {@code q} is odd.
+     * A negative power is the reciprocal of the positive one.
+     * <br>
      * For example:
      * <pre>
      * Number base = new Number(2);
@@ -309,56 +274,183 @@ public final class Basic {
      */
     public static Number pow(Number base, Number to) {
         base = base.copy();
-        if (to.equals(new Number())) {
+        if (to.signum() == 0) {
             base.update(new Number(1));
         } else if (to.equals(new Number(1))) {
             return base;
         } else {
-            Number ori;
             if (to.isDecimal()) {
-                Fraction fraction = Fraction.parseFraction(to);
-                base.update(pow(base, fraction.getNumerator()));
-                ori = base.copy();
-                for (Number i=new Number(1); i.symbols("lt", fraction.getDenominator()); i.add("1")) {
-                    base.divide(ori);
+                Number exponent = to.copy().abs();
+                int signum = base.signum();
+                if (signum < 0) {
+                    // x^(p/q) of a negative x is the q-th root of x^p, which is only real for an odd q
+                    Fraction fraction = Fraction.parseFraction(exponent).simplify();
+                    if (!testBit(fraction.getDenominator().magnitude(), 0)) {
+                        throw new ArithmeticException("An even root of a negative number isn't a real number: "+base);
+                    }
+                    signum = testBit(fraction.getNumerator().magnitude(), 0) ? -1 : 1;
                 }
-            } else {
-                ori = base.copy();
-                for (Number i=new Number(1); i.symbols("lt", to); i.add("1")) {
-                    base.multiply(ori);
+                Number power = signum == 0 ? new Number()
+                        : Logarithm.pow(base.copy().abs(), exponent, base.getDecCount());
+                if (signum < 0) {
+                    power = Number.valueOf(-1, power.magnitude(), power.scale());
                 }
+                power.setDecCount(base.getDecCount());
+                base.update(power);
+            } else {
+                base.update(power(base, to.magnitude()));
+            }
+            if (to.isNegative()) {
+                Number one = new Number(1);
+                one.setDecCount(base.getDecCount());
+                base.update(one.divide(base));
             }
         }
         return base;
     }
 
+    /**
+     * Raises a Number to a whole power by squaring.
+     * <br>
+     * The bits of the power are read from the top:
+     * the result is squared for every bit, and multiplied by {@code base} for every set bit.
+     * @param base The Number to raise, which isn't changed.
+     * @param exponent The magnitude of the power.
+     * @return <code>base<sup>exponent</sup></code>.
+     */
+    static Number power(Number base, int[] exponent) {
+        Number ret = new Number(1);
+        for (int bit = Limbs.bitLength(exponent) - 1; bit >= 0; bit--) {
+            ret.multiply(ret);
+            if (testBit(exponent, bit)) {
+                ret.multiply(base);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * The modular power function finds
+     * <code>base<sup>exponent</sup> mod modulus</code>
+     * without ever finding <code>base<sup>exponent</sup></code>.
+     * <br>
+     * The power is found by squaring, and it is reduced by the {@code modulus} after every step,
+     * so no value grows past twice the size of the {@code modulus}.
+     * <br>
+     * For example:
+     * <pre>
+     * System.out.println(Basic.modPow(new Number(4), new Number(13), new Number(497))); // will print out `445`
+     * </pre>
+     * @param base The Number that will multiply itself.
+     * @param exponent The amount of times {@code base} will multiply itself, must not be negative.
+     * @param modulus The Number to reduce by, must be positive.
+     * @return The power, from zero up to but not including the {@code modulus}.
+     * @throws IllegalArgumentException if any of the Numbers isn't whole.
+     * @throws ArithmeticException if the {@code modulus} isn't positive or the {@code exponent} is negative.
+     */
+    public static Number modPow(Number base, Number exponent, Number modulus) {
+        if (base.isDecimal() || exponent.isDecimal() || modulus.isDecimal()) {
+            throw new IllegalArgumentException("The values of modPow must be whole numbers: "+base+", "+exponent+", "+modulus);
+        }
+        if (modulus.signum() <= 0) {
+            throw new ArithmeticException("The modulus of modPow must be positive: "+modulus);
+        }
+        if (exponent.signum() < 0) {
+            throw new ArithmeticException("The exponent of modPow can't be negative: "+exponent);
+        }
+        int[] mod = modulus.magnitude();
+        int[] b = Division.divide(base.magnitude(), mod)[1];
+        if (base.signum() < 0 && !Limbs.isZero(b)) {
+            b = Limbs.subtract(mod, b);
+        }
+        return Number.valueOf(1, modPow(b, exponent.magnitude(), mod), 0);
+    }
+
+    /**
+     * Finds <code>base<sup>exponent</sup> mod modulus</code> on magnitudes,
+     * by squaring and reducing after every step.
+     * @param base The magnitude to raise, below the {@code modulus}.
+     * @param exponent The magnitude of the power.
+     * @param modulus The magnitude to reduce by, must not be zero.
+     * @return The power, below the {@code modulus}.
+     */
+    static int[] modPow(int[] base, int[] exponent, int[] modulus) {
+        int[] ret = Division.divide(Limbs.ONE, modulus)[1];
+        for (int bit = Limbs.bitLength(exponent) - 1; bit >= 0; bit--) {
+            ret = Division.divide(Limbs.multiply(ret, ret), modulus)[1];
+            if (testBit(exponent, bit)) {
+                ret = Division.divide(Limbs.multiply(ret, base), modulus)[1];
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Checks if a bit of a magnitude is set.
+     * @param value The magnitude.
+     * @param bit The index of the bit, from the bottom.
+     * @return {@code true} if the bit is set.
+     */
+    private static boolean testBit(int[] value, int bit) {
+        return (value[bit >>> 5] >>> (bit & 31) & 1) != 0;
+    }
+
     /**
      * This method calculates the
      * <code>n<sup>th</sup> root of x</code> where when another number {@code b} is
      * multiplied by itself {@code n} times, equals {@code a}.
+     * <br>
+     * The root is found with Newton's iteration on whole numbers (see {@link Roots}),
+     * so a root that is exact is always found exactly.
+     * Otherwise it is cut off (not rounded) after the
+     * {@link Number#getDecCount() decCount} of {@code x} decimal places.
+     * <br>
+     * A decimal {@code n} is used as a fraction <code>p/q</code>,
+     * giving the {@code p}<sup>th</sup> root of <code>x<sup>q</sup></code>, and a negative {@code n} gives the reciprocal of the root.
      * @param x The value that <code>b<sup>n</sup></code> equals.
      * @param n The number of times that {@code b} is multiplied to get {@code x}.
      * @return The value of {@code b}
+     * @throws ArithmeticException if {@code n} is zero,
+     * or if {@code x} is negative and {@code n} is even.
+     * @throws OutOfRangeException if {@code n} is too big to be an {@code int}.
      */
     public static Number root(Number x, Number n) {
-        Number base = x.copy();
-        if (base.equals(new Number()) || base.equals(new Number(1))) {
-            base = new Number();
+        if (n.signum() == 0) {
+            throw new ArithmeticException("The zeroth root is undefined.");
+        }
+        Number base;
+        if (n.isDecimal()) {
+            Fraction fraction = Fraction.parseFraction(n.copy().abs());
+            Number power = pow(x, fraction.getDenominator());
+            power.setDecCount(x.getDecCount());
+            base = root(power, fraction.getNumerator());
         } else {
-            Number ori;
-            if (n.isDecimal()) {
-                Fraction fraction = Fraction.parseFraction(n);
-                base = root(base, fraction.getNumerator());
-                ori = base.copy();
-                for (Number i=new Number(1); i.symbols("lt", fraction.getDenominator()); i.add("1")) {
-                    base.multiply(ori);
-                }
+            if (n.compareMagnitude(new Number(Integer.MAX_VALUE)) > 0) {
+                throw new OutOfRangeException("The degree of a root must fit into an int: "+n);
+            }
+            int degree = (int) Math.abs(n.compactValue());
+            if (x.isNegative() && degree % 2 == 0) {
+                throw new ArithmeticException("An even root of a negative number isn't a real number: "+x);
+            }
+            // floor(root(m / 10^s) * 10^p) = floor(root(m * 10^(p*n - s)))
+            int places = Math.max(x.getDecCount(), 0);
+            long shift = (long) places * degree - x.scale();
+            if (shift > Integer.MAX_VALUE) {
+                throw new OutOfRangeException("The root of "+x+" is too precise to be found to "+places+" decimal places.");
+            }
+            int[] y = x.magnitude();
+            if (shift >= 0) {
+                y = Limbs.multiply(y, Limbs.pow10((int) shift));
             } else {
-                ori = base.copy();
-                for (Number i=new Number(1); i.symbols("lt", n); i.add("1")) {
-                    base.divide(ori);
-                }
+                y = Division.divide(y, Limbs.pow10((int) -shift))[0];
             }
+            base = Number.valueOf(x.signum(), Roots.root(y, degree), places);
+        }
+        base.setDecCount(x.getDecCount());
+        if (n.isNegative()) {
+            Number one = new Number(1);
+            one.setDecCount(x.getDecCount());
+            base.update(one.divide(base));
         }
         return base;
     }
@@ -436,58 +528,11 @@ public final class Basic {
      * @param num The StringBuilder representation of the number.
      */
     public static String reorganize(StringBuilder num) {
-        /*if (num.charAt(num.length()-1) == '.') {
-            num.deleteCharAt(num.length()-1);
-        }*/
-        if (num.toString().equals("-0")) {
-            return "0";
-        }
-        num = new StringBuilder(
-                Convert.scientific(num.toString())
-        );
-        StringBuilder ori = new StringBuilder(num.toString());
-        if (!num.toString().startsWith("0.")) {
-            int differ = 0;
-            for (int i=0; i<ori.length(); i++) {
-                if (num.charAt(i-differ) != '0') {
-                    break;
-                }
-                num.deleteCharAt(i-differ);
-                differ += 1;
-            }
-        }
-        boolean removedot = false;
-        if (num.toString().split("\\.").length > 1) {
-            if (num.toString().split("\\.")[1].isEmpty()) {
-                removedot = true;
-            } else {
-                try {
-                    int h = Integer.parseInt(num.toString().split("\\.")[1]);
-                    if (h==0) {
-                        removedot = true;
-                    } else {
-                        int i = num.length()-1;
-                        while (num.charAt(i) == '0') {
-                            //System.out.println(num+" : "+num.length()+" : "+i);
-                            num.deleteCharAt(i);
-                            i -= 1;
-                        }
-                    }
-                } catch (NumberFormatException ignored) {}
-            }
-        } else {
-            removedot = true;
-        }
-        if (removedot) {
-            num = new StringBuilder(num.toString().split("\\.")[0]);
+        String ret = NumberScanner.canonical(num);
+        if (ret == null) {
+            throw illegalNumber("StringBuilder", "num");
         }
-        if (num.isEmpty()) {
-            num.append("0");
-        }
-        if (num.charAt(0) == '.') {
-            num.insert(0, "0");
-        }
-        return num.toString();
+        return ret;
     }
     /**
      * This function removes things that are not needed in a number,
@@ -499,7 +544,11 @@ public final class Basic {
      * @param num The StringBuilder representation of the number.
      */
     public static String reorganize(String num) {
-        return reorganize(new StringBuilder(num));
+        String ret = NumberScanner.canonical(num);
+        if (ret == null) {
+            throw illegalNumber("String", "num");
+        }
+        return ret;
     }
 
     /**
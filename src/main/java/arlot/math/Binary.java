@@ -6,20 +6,30 @@ import java.util.Arrays;
 
 /**
  * Store a binary value.
+ * <br><br>
+ * The bits are packed 64 to a {@code long}, with the lowest bits in the first word,
+ * so the gates work on 64 bits at a time and shifts move whole words.
+ * The string of '0' and '1' characters is only a view of the bits,
+ * which is made when it is asked for.
  */
 public class Binary {
     // properties
     /**
-     * Holds the string representation of this binary value.
+     * Holds the bits of this binary value, the lowest 64 bits first.
+     * The bits at and above {@link #length} are always zero.
      */
-    private StringBuilder bin;
+    private long[] words;
+    /**
+     * Holds the count of bits in this binary value, the leading zeros included.
+     */
+    private int length;
     // constructors
 
     /**
      * Creates an empty binary value.
      */
     public Binary() {
-        bin = new StringBuilder("0000000000000000");
+        this(new long[1], 16);
     }
 
     /**
@@ -27,12 +37,8 @@ public class Binary {
      * @param bin The string representation of a binary value.
      */
     public Binary(String bin) {
-        this.bin = new StringBuilder(bin);
-        if (!isBinary()) {
-            this.bin = new StringBuilder("0000000000000000");
-            throw new BadBinaryValueException("Value provided is not binary: "+bin);
-        }
-        this.bin = new StringBuilder(digit16().toString());
+        parse(bin);
+        pad();
     }
 
     /**
@@ -40,11 +46,18 @@ public class Binary {
      * @param bin The binary instance to make a relative copy of.
      */
     public Binary(Binary bin) {
-        if (!bin.isBinary()) {
-            this.bin = new StringBuilder("0000000000000000");
-            throw new BadBinaryValueException("Value provided is not binary: "+bin);
-        }
-        this.bin = new StringBuilder(bin.digit16().toString());
+        this(bin.words.clone(), bin.length);
+        pad();
+    }
+
+    /**
+     * Creates a binary value from its words.
+     * @param words The bits, the lowest 64 bits first, which are kept and not copied.
+     * @param length The count of bits, the bits at and above it must be zero.
+     */
+    Binary(long[] words, int length) {
+        this.words = words;
+        this.length = length;
     }
 
     /**
@@ -52,27 +65,41 @@ public class Binary {
      * @param bin The binary value to replace this binary value with.
      */
     public void update(String bin) {
-        String old = toString();
-        this.bin = new StringBuilder(bin);
-        if (!isBinary()) {
-            this.bin = new StringBuilder(old);
-            throw new BadBinaryValueException("Value provided is not binary: "+bin);
-        }
-        this.bin = new StringBuilder(digit16().toString());
+        parse(bin);
+        pad();
     }
 
     // methods
 
+    /**
+     * Reads the bits of a string representation of a binary value into this binary value.
+     * <br>
+     * This binary value is only changed if the whole string is binary.
+     * @param bin The string representation of a binary value.
+     * @throws BadBinaryValueException if {@code bin} holds anything other than '0' and '1'.
+     */
+    private void parse(String bin) {
+        int bits = bin.length();
+        long[] parsed = new long[words(bits)];
+        for (int i = 0; i < bits; i++) {
+            char c = bin.charAt(bits - 1 - i);
+            if (c == '1') {
+                parsed[i >>> 6] |= 1L << i;
+            } else if (c != '0') {
+                throw new BadBinaryValueException("Value provided is not binary: "+bin);
+            }
+        }
+        this.words = parsed;
+        this.length = bits;
+    }
+
     /**
      * Checks if the current binary value is binary.
+     * <br>
+     * The bits can only be zero or one, so this is always true.
      * @return True if the binary value is binary.
      */
     protected boolean isBinary() {
-        for (char c : toString().toCharArray()) {
-            if (c != '0' && c != '1') {
-                return false;
-            }
-        }
         return true;
     }
 
@@ -87,17 +114,7 @@ public class Binary {
      * @return A new {@code Binary()}.
      */
     public Binary digit16() {
-        Binary newBin = new Binary(toString());
-        if (length() % 16 != 0) {
-            int length = length();
-            int count = 1;
-            while (length>=16) {
-                count++;
-                length -= 16;
-            }
-            newBin.addZeros((count*16)-length());
-        }
-        return newBin;
+        return new Binary(this);
     }
 
     /**
@@ -105,9 +122,27 @@ public class Binary {
      * @param amount The amount of zeros to add to the binary value.
      */
     public void addZeros(int amount) {
-        char[] zeros = new char[amount];
-        Arrays.fill(zeros, '0');
-        bin.insert(0, zeros);
+        resize(length + amount);
+    }
+
+    /**
+     * Counts the bits that are one.
+     * @return The count of ones in this binary value.
+     */
+    public int bitCount() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Gets the words that hold the bits of this binary value.
+     * @return The bits, the lowest 64 bits first, which must not be changed.
+     */
+    long[] words() {
+        return words;
     }
 
     /**
@@ -116,55 +151,28 @@ public class Binary {
      * @return A new {@code Binary()}.
      */
     public Binary add(Binary binary) {
-        Binary newBinary = new Binary(toString());
-        if (newBinary.length() > binary.length()) {
-            binary.addZeros(newBinary.length()-binary.length());
-        } else if (newBinary.length() < binary.length()) {
-            addZeros(binary.length()-newBinary.length());
-        }
-        StringBuilder newBin = new StringBuilder();
-        char carry;
-        if (newBinary.charAt(newBinary.length()-1)=='1' && binary.charAt(newBinary.length()-1)=='1') {
-            carry = '1';
-            newBin.insert(0, '0');
-        } else if (newBinary.charAt(newBinary.length()-1)=='1' || binary.charAt(newBinary.length()-1)=='1') {
-            carry = '0';
-            newBin.insert(0, '1');
-        } else if (newBinary.charAt(newBinary.length()-1)=='0' && binary.charAt(newBinary.length()-1)=='0') {
-            carry = '0';
-            newBin.insert(0, '0');
-        } else {
-            throw new BadBinaryValueException("One or both binary values have illegal values.");
-        }
-        for (int i=newBinary.length()-1; i>=0; i--) {
-            if (newBinary.charAt(i)=='1' && binary.charAt(i)=='1') {
-                if (carry == '1') {
-                    newBin.insert(0, '1');
-                } else {
-                    newBin.insert(0, '0');
-                }
-                carry = '1';
-            } else if (newBinary.charAt(i)=='1' || binary.charAt(i)=='1') {
-                if (carry == '1') {
-                    newBin.insert(0, '0');
-                } else {
-                    newBin.insert(0, '1');
-                }
-            } else if (newBinary.charAt(i)=='0' && binary.charAt(i)=='0') {
-                if (carry == '1') {
-                    newBin.insert(0, '1');
-                } else {
-                    newBin.insert(0, '0');
-                }
-                carry = '0';
-            } else {
-                throw new BadBinaryValueException("One or both binary values have illegal values.");
+        int width = Math.max(length, binary.length);
+        int n = words(width + 1);
+        long[] sum = new long[n];
+        long carry = 0;
+        for (int i = 0; i < n; i++) {
+            long a = word(i);
+            long b = binary.word(i);
+            long s = a + b;
+            long next = Long.compareUnsigned(s, a) < 0 ? 1 : 0;
+            sum[i] = s + carry;
+            if (sum[i] == 0 && carry != 0) {
+                next = 1;
             }
+            carry = next;
         }
-        if (carry == '1') {
-            newBin.insert(0, '1');
+        Binary newBinary = new Binary(sum, width + 1);
+        if (newBinary.bit(width)) {
+            newBinary.pad();
+        } else {
+            newBinary.resize(width);
         }
-        return new Binary(newBin.toString());
+        return newBinary;
     }
 
     /**
@@ -174,16 +182,11 @@ public class Binary {
      * @return A new {@code Binary()} that is the opposite of the original.
      */
     public Binary not() {
-        Binary newBinary = new Binary(toString());
-        StringBuilder newBin = new StringBuilder();
-        for (int i=newBinary.length()-1; i>=0; i--) {
-            if (newBinary.charAt(i)=='1') {
-                newBin.insert(0, '0');
-            } else {
-                newBin.insert(0, '1');
-            }
+        long[] newBin = new long[words.length];
+        for (int i = 0; i < newBin.length; i++) {
+            newBin[i] = ~words[i];
         }
-        return new Binary(newBin.toString());
+        return masked(newBin, length);
     }
 
     /**
@@ -225,21 +228,12 @@ public class Binary {
      * @return A new {@code Binary()}.
      */
     public Binary and(Binary binary) {
-        Binary newBinary = new Binary(toString());
-        if (newBinary.length() > binary.length()) {
-            binary.addZeros(newBinary.length()-binary.length());
-        } else if (newBinary.length() < binary.length()) {
-            addZeros(binary.length()-newBinary.length());
-        }
-        StringBuilder newBin = new StringBuilder();
-        for (int i=newBinary.length()-1; i>=0; i--) {
-            if (newBinary.charAt(i)=='1' && binary.charAt(i)=='1') {
-                newBin.insert(0, '1');
-            } else {
-                newBin.insert(0, '0');
-            }
+        int width = Math.max(length, binary.length);
+        long[] newBin = new long[words(width)];
+        for (int i = 0; i < newBin.length; i++) {
+            newBin[i] = word(i) & binary.word(i);
         }
-        return new Binary(newBin.toString());
+        return masked(newBin, width);
     }
 
     /**
@@ -280,21 +274,12 @@ public class Binary {
      * @return A new {@code Binary()}.
      */
     public Binary or(Binary binary) {
-        Binary newBinary = new Binary(toString());
-        if (newBinary.length() > binary.length()) {
-            binary.addZeros(newBinary.length()-binary.length());
-        } else if (newBinary.length() < binary.length()) {
-            addZeros(binary.length()-newBinary.length());
-        }
-        StringBuilder newBin = new StringBuilder();
-        for (int i=newBinary.length()-1; i>=0; i--) {
-            if (newBinary.charAt(i)=='1' || binary.charAt(i)=='1') {
-                newBin.insert(0, '1');
-            } else {
-                newBin.insert(0, '0');
-            }
+        int width = Math.max(length, binary.length);
+        long[] newBin = new long[words(width)];
+        for (int i = 0; i < newBin.length; i++) {
+            newBin[i] = word(i) | binary.word(i);
         }
-        return new Binary(newBin.toString());
+        return masked(newBin, width);
     }
 
     /**
@@ -335,24 +320,12 @@ public class Binary {
      * @return A new {@code Binary()}.
      */
     public Binary xor(Binary binary) {
-        Binary newBinary = new Binary(toString());
-        if (newBinary.length() > binary.length()) {
-            binary.addZeros(newBinary.length()-binary.length());
-        } else if (newBinary.length() < binary.length()) {
-            addZeros(binary.length()-newBinary.length());
+        int width = Math.max(length, binary.length);
+        long[] newBin = new long[words(width)];
+        for (int i = 0; i < newBin.length; i++) {
+            newBin[i] = word(i) ^ binary.word(i);
         }
-        StringBuilder newBin = new StringBuilder();
-        for (int i=newBinary.length()-1; i>=0; i--) {
-            if (
-                    (newBinary.charAt(i)=='1' && binary.charAt(i)=='0') ||
-                    (binary.charAt(i)=='1' && newBinary.charAt(i)=='0')
-            ) {
-                newBin.insert(0, '1');
-            } else {
-                newBin.insert(0, '0');
-            }
-        }
-        return new Binary(newBin.toString());
+        return masked(newBin, width);
     }
 
     /**
@@ -392,21 +365,12 @@ public class Binary {
      * @return A new {@code Binary()}.
      */
     public Binary nand(Binary binary) {
-        Binary newBinary = new Binary(toString());
-        if (newBinary.length() > binary.length()) {
-            binary.addZeros(newBinary.length()-binary.length());
-        } else if (newBinary.length() < binary.length()) {
-            addZeros(binary.length()-newBinary.length());
+        int width = Math.max(length, binary.length);
+        long[] newBin = new long[words(width)];
+        for (int i = 0; i < newBin.length; i++) {
+            newBin[i] = ~(word(i) & binary.word(i));
         }
-        StringBuilder newBin = new StringBuilder();
-        for (int i=newBinary.length()-1; i>=0; i--) {
-            if (newBinary.charAt(i)=='1' && binary.charAt(i)=='1') {
-                newBin.insert(0, '0');
-            } else {
-                newBin.insert(0, '1');
-            }
-        }
-        return new Binary(newBin.toString());
+        return masked(newBin, width);
     }
 
     /**
@@ -445,21 +409,12 @@ public class Binary {
      * @return A new {@code Binary()}.
      */
     public Binary nor(Binary binary) {
-        Binary newBinary = new Binary(toString());
-        if (newBinary.length() > binary.length()) {
-            binary.addZeros(newBinary.length()-binary.length());
-        } else if (newBinary.length() < binary.length()) {
-            addZeros(binary.length()-newBinary.length());
-        }
-        StringBuilder newBin = new StringBuilder();
-        for (int i=newBinary.length()-1; i>=0; i--) {
-            if (newBinary.charAt(i)=='0' && binary.charAt(i)=='0') {
-                newBin.insert(0, '1');
-            } else {
-                newBin.insert(0, '0');
-            }
+        int width = Math.max(length, binary.length);
+        long[] newBin = new long[words(width)];
+        for (int i = 0; i < newBin.length; i++) {
+            newBin[i] = ~(word(i) | binary.word(i));
         }
-        return new Binary(newBin.toString());
+        return masked(newBin, width);
     }
 
     /**
@@ -498,24 +453,12 @@ public class Binary {
      * @return A new {@code Binary()}.
      */
     public Binary xnor(Binary binary) {
-        Binary newBinary = new Binary(toString());
-        if (newBinary.length() > binary.length()) {
-            binary.addZeros(newBinary.length()-binary.length());
-        } else if (newBinary.length() < binary.length()) {
-            addZeros(binary.length()-newBinary.length());
-        }
-        StringBuilder newBin = new StringBuilder();
-        for (int i=newBinary.length()-1; i>=0; i--) {
-            if (
-                    (newBinary.charAt(i)=='0' && binary.charAt(i)=='0') ||
-                            (binary.charAt(i)=='1' && newBinary.charAt(i)=='1')
-            ) {
-                newBin.insert(0, '1');
-            } else {
-                newBin.insert(0, '0');
-            }
+        int width = Math.max(length, binary.length);
+        long[] newBin = new long[words(width)];
+        for (int i = 0; i < newBin.length; i++) {
+            newBin[i] = ~(word(i) ^ binary.word(i));
         }
-        return new Binary(newBin.toString());
+        return masked(newBin, width);
     }
 
     /**
@@ -525,13 +468,23 @@ public class Binary {
      */
     public Binary leftShift(int amount) {
         Binary newBin = digit16();
-        if (newBin.length()<amount) {
-            newBin.bin = new StringBuilder("0000000000000000");
-        } else {
-            newBin.bin.delete(0, amount);
-            newBin.bin.repeat("0", amount);
+        if (amount < 0) {
+            throw new IllegalArgumentException("A shift can't be by a negative amount: "+amount);
+        }
+        if (newBin.length<amount) {
+            return new Binary();
+        }
+        long[] shifted = new long[newBin.words.length];
+        int move = amount >>> 6;
+        int bits = amount & 63;
+        for (int i = shifted.length - 1; i >= move; i--) {
+            long word = newBin.words[i - move] << bits;
+            if (bits != 0 && i - move > 0) {
+                word |= newBin.words[i - move - 1] >>> (64 - bits);
+            }
+            shifted[i] = word;
         }
-        return newBin;
+        return masked(shifted, newBin.length);
     }
 
     /**
@@ -541,16 +494,23 @@ public class Binary {
      */
     public Binary rightShift(int amount) {
         Binary newBin = digit16();
-        if (newBin.length()<amount) {
-            newBin.bin = new StringBuilder("0000000000000000");
-        } else {
-            int lastInd = this.length()-1;
-            newBin.bin.delete(lastInd-amount, lastInd);
-            char[] zeros = new char[amount];
-            Arrays.fill(zeros, '0');
-            newBin.bin.insert(0, zeros);
+        if (amount < 0) {
+            throw new IllegalArgumentException("A shift can't be by a negative amount: "+amount);
+        }
+        if (newBin.length<amount) {
+            return new Binary();
         }
-        return newBin;
+        long[] shifted = new long[newBin.words.length];
+        int move = amount >>> 6;
+        int bits = amount & 63;
+        for (int i = 0; i + move < shifted.length; i++) {
+            long word = newBin.words[i + move] >>> bits;
+            if (bits != 0 && i + move + 1 < shifted.length) {
+                word |= newBin.words[i + move + 1] << (64 - bits);
+            }
+            shifted[i] = word;
+        }
+        return new Binary(shifted, newBin.length);
     }
 
     /**
@@ -558,7 +518,7 @@ public class Binary {
      * @return The length of the binary sequence of characters currently represented by this object.
      */
     public int length() {
-        return this.bin.length();
+        return length;
     }
 
     /**
@@ -570,7 +530,10 @@ public class Binary {
      * @return The char value at the specified index.
      */
     public char charAt(int index) {
-        return this.bin.charAt(index);
+        if (index < 0 || index >= length) {
+            throw new StringIndexOutOfBoundsException("index "+index+", length "+length);
+        }
+        return bit(length - 1 - index) ? '1' : '0';
     }
 
     /**
@@ -579,6 +542,81 @@ public class Binary {
      */
     @Override
     public String toString() {
-        return this.bin.toString();
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[length - 1 - i] = (char) ('0' + (int) (words[i >>> 6] >>> i & 1));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Gets a word of this binary value, which is zero past the end.
+     * @param index The index of the word.
+     * @return The word.
+     */
+    private long word(int index) {
+        return index < words.length ? words[index] : 0;
+    }
+
+    /**
+     * Gets a bit of this binary value.
+     * @param index The index of the bit, where zero is the lowest.
+     * @return True if the bit is one.
+     */
+    private boolean bit(int index) {
+        return (word(index >>> 6) >>> index & 1) != 0;
+    }
+
+    /**
+     * Changes the count of bits, cutting off the bits at and above {@code length}.
+     * @param length The new count of bits.
+     */
+    private void resize(int length) {
+        if (words(length) != words.length) {
+            words = Arrays.copyOf(words, words(length));
+        }
+        this.length = length;
+        clearTop();
+    }
+
+    /**
+     * Pads this binary value with leading zeros until its length is a multiple of 16.
+     */
+    private void pad() {
+        if (length % 16 != 0) {
+            resize((length / 16 + 1) * 16);
+        }
+    }
+
+    /**
+     * Zeros the bits at and above {@link #length} in the last word.
+     */
+    private void clearTop() {
+        if ((length & 63) != 0) {
+            words[words.length - 1] &= -1L >>> (64 - (length & 63));
+        } else if (length == 0) {
+            words[0] = 0;
+        }
+    }
+
+    /**
+     * Makes a binary value from words that may have ones at and above {@code length}.
+     * @param words The bits, the lowest 64 bits first.
+     * @param length The count of bits.
+     * @return A new {@code Binary()}.
+     */
+    private static Binary masked(long[] words, int length) {
+        Binary ret = new Binary(words, length);
+        ret.clearTop();
+        return ret;
+    }
+
+    /**
+     * Gets the count of words needed to hold a count of bits.
+     * @param bits The count of bits.
+     * @return The count of words, which is at least one.
+     */
+    private static int words(int bits) {
+        return Math.max(1, (bits + 63) >>> 6);
     }
 }
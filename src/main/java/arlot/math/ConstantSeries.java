@@ -0,0 +1,176 @@
+package arlot.math;
+
+/**
+ * The engine that finds mathematical constants to any count of decimal places.
+ * <br><br>
+ * The series are summed with binary splitting:
+ * the terms of a range are put over one denominator by summing each half
+ * and joining the halves with a few multiplications,
+ * so the sum is made of a few big multiplications instead of many small divisions,
+ * and only one division is done at the end.
+ * <ul>
+ *     <li>&pi; uses the Chudnovsky series,
+ *     <code>1/&pi; = 12 &Sigma; (-1)<sup>k</sup> (6k)! (13591409 + 545140134k) /
+ *     ((3k)! (k!)<sup>3</sup> 640320<sup>3k+3/2</sup>)</code>,
+ *     which gains about 14 digits per term.</li>
+ *     <li><i>e</i> uses <code>&Sigma; 1/k!</code>.</li>
+ *     <li>&phi; is <code>(1 + &radic;5)/2</code>,
+ *     with the square root found with Newton's iteration (see {@link Roots}).</li>
+ * </ul>
+ * Every constant is kept at the highest precision that it was found at in a {@link PrecisionCache},
+ * so a lower precision is only cut off from it.
+ */
+final class ConstantSeries {
+    /**
+     * The extra decimal places found, to cover the rounding of the last division.
+     */
+    private static final int GUARD_DIGITS = 20;
+    /**
+     * <code>640320<sup>3</sup>/24</code>, the part of the Chudnovsky denominator that every term shares.
+     */
+    private static final long C3_OVER_24 = 10_939_058_860_032_000L;
+    /**
+     * The count of decimal digits that each term of the Chudnovsky series gains,
+     * <code>log<sub>10</sub>(640320<sup>3</sup>/1728)</code>.
+     */
+    private static final double DIGITS_PER_TERM = 14.181647462725477;
+
+    private static volatile PrecisionCache pi;
+    private static volatile PrecisionCache e;
+    private static volatile PrecisionCache phi;
+
+    private ConstantSeries() {}
+
+    /**
+     * Finds &pi;.
+     * @param places The count of decimal places to find, the rest are cut off.
+     * @return &pi;.
+     */
+    static Number pi(int places) {
+        PrecisionCache c = pi;
+        if (c == null || c.places < places) {
+            int work = places + GUARD_DIGITS;
+            long terms = (long) (work / DIGITS_PER_TERM) + 2;
+            Split s = chudnovsky(0, terms);
+            // pi = 426880 * sqrt(10005) * Q / T
+            int[] root = Roots.root(Limbs.multiply(Limbs.pow10(2 * work), 10005), 2);
+            int[] top = Limbs.multiply(Limbs.multiply(root, 426880), s.q);
+            int[] value = Division.divide(top, s.t.magnitude())[0];
+            pi = c = new PrecisionCache(places, Number.valueOf(1, cut(value, GUARD_DIGITS), places));
+        }
+        return c.toNumber(places);
+    }
+
+    /**
+     * Finds &tau;, which is <code>2&pi;</code>.
+     * @param places The count of decimal places to find, the rest are cut off.
+     * @return &tau;.
+     */
+    static Number tau(int places) {
+        Number half = pi(places + GUARD_DIGITS);
+        int[] value = Limbs.multiply(Limbs.multiply(half.magnitude(), Limbs.pow10(places + GUARD_DIGITS - half.scale())), 2);
+        return Number.valueOf(1, cut(value, GUARD_DIGITS), places);
+    }
+
+    /**
+     * Finds Euler's number, <i>e</i>.
+     * @param places The count of decimal places to find, the rest are cut off.
+     * @return <i>e</i>.
+     */
+    static Number e(int places) {
+        PrecisionCache c = e;
+        if (c == null || c.places < places) {
+            int work = places + GUARD_DIGITS;
+            // enough terms that the first one left out, 1/n!, is below 10^-work
+            int n = 1;
+            for (double digits = 0; digits <= work; n++) {
+                digits += Math.log10(n);
+            }
+            int[][] pq = factorialSum(0, n);
+            // e = 1 + P/Q
+            int[] scale = Limbs.pow10(work);
+            int[] value = Limbs.add(scale, Division.divide(Limbs.multiply(pq[0], scale), pq[1])[0]);
+            e = c = new PrecisionCache(places, Number.valueOf(1, cut(value, GUARD_DIGITS), places));
+        }
+        return c.toNumber(places);
+    }
+
+    /**
+     * Finds the golden ratio, &phi;.
+     * @param places The count of decimal places to find, the rest are cut off.
+     * @return &phi;.
+     */
+    static Number phi(int places) {
+        PrecisionCache c = phi;
+        if (c == null || c.places < places) {
+            // sqrt(5) is irrational, so floor((10^p + floor(sqrt(5) * 10^p)) / 2) is exactly floor(phi * 10^p)
+            int[] scale = Limbs.pow10(places);
+            int[] root = Roots.root(Limbs.multiply(Limbs.pow10(2 * places), 5), 2);
+            phi = c = new PrecisionCache(places, Number.valueOf(1, Limbs.shiftRight(Limbs.add(scale, root), 1), places));
+        }
+        return c.toNumber(places);
+    }
+
+    /**
+     * Sums the terms of the Chudnovsky series from {@code a} up to {@code b} with binary splitting.
+     * @param a The first term.
+     * @param b The term after the last.
+     * @return The products P and Q and the sum T of the range.
+     */
+    private static Split chudnovsky(long a, long b) {
+        if (b - a == 1) {
+            if (a == 0) {
+                return new Split(Limbs.ONE, Limbs.ONE, new Number(13591409));
+            }
+            int[] p = Limbs.multiply(Limbs.multiply(Limbs.valueOf(6 * a - 5), Limbs.valueOf(2 * a - 1)), Limbs.valueOf(6 * a - 1));
+            int[] q = Limbs.multiply(Limbs.multiply(Limbs.valueOf(a * a), Limbs.valueOf(a)), Limbs.valueOf(C3_OVER_24));
+            int[] t = Limbs.multiply(p, Limbs.valueOf(13591409 + 545140134 * a));
+            return new Split(p, q, Number.valueOf((a & 1) == 0 ? 1 : -1, t, 0));
+        }
+        long m = (a + b) >>> 1;
+        Split left = chudnovsky(a, m);
+        Split right = chudnovsky(m, b);
+        // T = T(a,m) * Q(m,b) + P(a,m) * T(m,b)
+        Number t = left.t.multiply(Number.valueOf(1, right.q, 0))
+                .add(right.t.multiply(Number.valueOf(1, left.p, 0)));
+        return new Split(Limbs.multiply(left.p, right.p), Limbs.multiply(left.q, right.q), t);
+    }
+
+    /**
+     * Sums <code>1/(a+1)! + ... + 1/b!</code>, over <code>a!</code>, with binary splitting.
+     * @param a The term before the first.
+     * @param b The last term.
+     * @return P and Q, where the sum is <code>P/Q</code>.
+     */
+    private static int[][] factorialSum(int a, int b) {
+        if (b - a == 1) {
+            return new int[][] {Limbs.ONE, Limbs.valueOf(b)};
+        }
+        int m = (a + b) >>> 1;
+        int[][] left = factorialSum(a, m);
+        int[][] right = factorialSum(m, b);
+        // P = P(a,m) * Q(m,b) + P(m,b), Q = Q(a,m) * Q(m,b)
+        return new int[][] {
+                Limbs.add(Limbs.multiply(left[0], right[1]), right[0]),
+                Limbs.multiply(left[1], right[1])
+        };
+    }
+
+    /**
+     * Cuts decimal places off of a scaled value.
+     * @param value The value times <code>10<sup>places</sup></code>.
+     * @param places The count of places to cut off.
+     * @return The value, times <code>10<sup>places</sup></code> less.
+     */
+    private static int[] cut(int[] value, int places) {
+        return Division.divide(value, Limbs.pow10(places))[0];
+    }
+
+    /**
+     * The products and the sum of a range of the Chudnovsky series.
+     * @param p The product of the term ratios' numerators.
+     * @param q The product of the term ratios' denominators.
+     * @param t The sum of the terms, over the product of the denominators.
+     */
+    private record Split(int[] p, int[] q, Number t) {}
+}
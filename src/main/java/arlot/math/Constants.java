@@ -1,12 +1,14 @@
 package arlot.math;
 
+import java.util.function.IntFunction;
+
 public enum Constants {
     /**
      * The first 1000 characters of Euler's number as a {@link String}.
      * <br>
      * A transcendental number that is the base of natural logarithms.
      */
-    E("2.7182818284590452353602874713526624977572470936999595749669676277240766303535475945713821785251664274274663919320030599218174135966290435729003342952605956307381323286279434907632338298807531952510190115738341879307021540891499348841675092447614606680822648001684774118537423454424371075390777449920695517027618386062613313845830007520449338265602976067371132007093287091274437470472306969772093101416928368190255151086574637721112523897844250569536967707854499699679468644549059879316368892300987931277361782154249992295763514822082698951936680331825288693984964651058209392398294887933203625094431173012381970684161403970198376793206832823764648042953118023287825098194558153017567173613320698112509961818815930416903515988885193458072738667385894228792284998920868058257492796104841984443634632449684875602336248270419786232090021609902353043699418491463140934317381436405462531520961836908887070167683964243781405927145635490613031072085103837505101157477041718986106873969655212671546889570350354"),
+    E("2.7182818284590452353602874713526624977572470936999595749669676277240766303535475945713821785251664274274663919320030599218174135966290435729003342952605956307381323286279434907632338298807531952510190115738341879307021540891499348841675092447614606680822648001684774118537423454424371075390777449920695517027618386062613313845830007520449338265602976067371132007093287091274437470472306969772093101416928368190255151086574637721112523897844250569536967707854499699679468644549059879316368892300987931277361782154249992295763514822082698951936680331825288693984964651058209392398294887933203625094431173012381970684161403970198376793206832823764648042953118023287825098194558153017567173613320698112509961818815930416903515988885193458072738667385894228792284998920868058257492796104841984443634632449684875602336248270419786232090021609902353043699418491463140934317381436405462531520961836908887070167683964243781405927145635490613031072085103837505101157477041718986106873969655212671546889570350354", ConstantSeries::e),
     /**
      * The first 1000 characters of PI number as a {@link String}.
      * <br>
@@ -14,26 +16,37 @@ public enum Constants {
      * circumference to its diameter.
      * It is also the area of the unit circle.
      */
-    PI("3.141592653589793238462643383279502884197169399375105820974944592307816406286208998628034825342117067982148086513282306647093844609550582231725359408128481117450284102701938521105559644622948954930381964428810975665933446128475648233786783165271201909145648566923460348610454326648213393607260249141273724587006606315588174881520920962829254091715364367892590360011330530548820466521384146951941511609433057270365759591953092186117381932611793105118548074462379962749567351885752724891227938183011949129833673362440656643086021394946395224737190702179860943702770539217176293176752384674818467669405132000568127145263560827785771342757789609173637178721468440901224953430146549585371050792279689258923542019956112129021960864034418159813629774771309960518707211349999998372978049951059731732816096318595024459455346908302642522308253344685035261931188171010003137838752886587533208381420617177669147303598253490428755468731159562863882353787593751957781857780532171226806613001927876611195909216420198"),
+    PI("3.141592653589793238462643383279502884197169399375105820974944592307816406286208998628034825342117067982148086513282306647093844609550582231725359408128481117450284102701938521105559644622948954930381964428810975665933446128475648233786783165271201909145648566923460348610454326648213393607260249141273724587006606315588174881520920962829254091715364367892590360011330530548820466521384146951941511609433057270365759591953092186117381932611793105118548074462379962749567351885752724891227938183011949129833673362440656643086021394946395224737190702179860943702770539217176293176752384674818467669405132000568127145263560827785771342757789609173637178721468440901224953430146549585371050792279689258923542019956112129021960864034418159813629774771309960518707211349999998372978049951059731732816096318595024459455346908302642522308253344685035261931188171010003137838752886587533208381420617177669147303598253490428755468731159562863882353787593751957781857780532171226806613001927876611195909216420198", ConstantSeries::pi),
     /**
      * The first 1000 digits of TAU number as a {@link String}.
      * <br>
      * A transcendental number that is the ratio of a circle's circumference to its radius.
      */
-    TAU("6.28318530717958647692528676655900576839433879875021164194988918461563281257241799725606965068423413596429617302656461329418768921910116446345071881625696223490056820540387704221111928924589790986076392885762195133186689225695129646757356633054240381829129713384692069722090865329642678721452049828254744917401321263117634976304184192565850818343072873578518072002266106109764093304276829390388302321886611454073151918390618437223476386522358621023709614892475992549913470377150544978245587636602389825966734672488131328617204278989279044947438140435972188740554107843435258635350476934963693533881026400113625429052712165557154268551557921834727435744293688180244990686029309917074210158455937851784708403991222425804392172806883631962725954954261992103741442269999999674595609990211946346563219263719004891891069381660528504461650668937007052386237634202000627567750577317506641676284123435533829460719650698085751093746231912572776470757518750391556371556106434245361322600385575322239181843284039"),
+    TAU("6.28318530717958647692528676655900576839433879875021164194988918461563281257241799725606965068423413596429617302656461329418768921910116446345071881625696223490056820540387704221111928924589790986076392885762195133186689225695129646757356633054240381829129713384692069722090865329642678721452049828254744917401321263117634976304184192565850818343072873578518072002266106109764093304276829390388302321886611454073151918390618437223476386522358621023709614892475992549913470377150544978245587636602389825966734672488131328617204278989279044947438140435972188740554107843435258635350476934963693533881026400113625429052712165557154268551557921834727435744293688180244990686029309917074210158455937851784708403991222425804392172806883631962725954954261992103741442269999999674595609990211946346563219263719004891891069381660528504461650668937007052386237634202000627567750577317506641676284123435533829460719650698085751093746231912572776470757518750391556371556106434245361322600385575322239181843284039", ConstantSeries::tau),
     /**
      * The first 1000 digits of PHI, golden ratio, number as a {@link String}.
      */
-    PHI("1.6180339887498948482045868343656381177203091798057628621354486227052604628189024497072072041893911374847540880753868917521266338622235369317931800607667263544333890865959395829056383226613199282902678806752087668925017116962070322210432162695486262963136144381497587012203408058879544547492461856953648644492410443207713449470495658467885098743394422125448770664780915884607499887124007652170575179788341662562494075890697040002812104276217711177780531531714101170466659914669798731761356006708748071013179523689427521948435305678300228785699782977834784587822891109762500302696156170025046433824377648610283831268330372429267526311653392473167111211588186385133162038400522216579128667529465490681131715993432359734949850904094762132229810172610705961164562990981629055520852479035240602017279974717534277759277862561943208275051312181562855122248093947123414517022373580577278616008688382952304592647878017889921990270776903895321968198615143780314997411069260886742962267575605231727775203536139362"),
+    PHI("1.6180339887498948482045868343656381177203091798057628621354486227052604628189024497072072041893911374847540880753868917521266338622235369317931800607667263544333890865959395829056383226613199282902678806752087668925017116962070322210432162695486262963136144381497587012203408058879544547492461856953648644492410443207713449470495658467885098743394422125448770664780915884607499887124007652170575179788341662562494075890697040002812104276217711177780531531714101170466659914669798731761356006708748071013179523689427521948435305678300228785699782977834784587822891109762500302696156170025046433824377648610283831268330372429267526311653392473167111211588186385133162038400522216579128667529465490681131715993432359734949850904094762132229810172610705961164562990981629055520852479035240602017279974717534277759277862561943208275051312181562855122248093947123414517022373580577278616008688382952304592647878017889921990270776903895321968198615143780314997411069260886742962267575605231727775203536139362", ConstantSeries::phi),
     /**
      * The exact value of the Speed of Light, in meters per second, as a {@link String}.
      */
-    SOL("299792458");
+    SOL("299792458", null);
 
     private final String value;
+    /**
+     * Finds this constant to a count of decimal places, or {@code null} if this constant is exact.
+     * <br>
+     * The series keep a constant at the most decimal places it was found at, see {@link ConstantSeries}.
+     */
+    private final IntFunction<Number> series;
+    /**
+     * Holds {@link #value} as a {@link Number}, once it has been asked for.
+     */
+    private volatile Number number;
 
-    Constants(String s) {
+    Constants(String s, IntFunction<Number> series) {
         this.value = s;
+        this.series = series;
     }
 
     /**
@@ -46,9 +59,36 @@ public enum Constants {
 
     /**
      * Gets this constant number as a {@link Number}.
+     * <br>
+     * The {@link #asString() String} is only read once, later calls copy it.
      * @return The {@link Number} representation of this constant number.
      */
     public Number asNumber() {
-        return new Number(value);
+        Number ret = number;
+        if (ret == null) {
+            number = ret = new Number(value);
+        }
+        return ret.copy();
+    }
+
+    /**
+     * Gets this constant number as a {@link Number} with a count of decimal places,
+     * which may be more than the {@link #asString() String} holds.
+     * <br>
+     * The digits past {@code places} are cut off (not rounded), and exact constants are returned whole.
+     * The constant is only found again when more decimal places are asked for than before,
+     * fewer decimal places are cut off from it.
+     * @param places The count of decimal places.
+     * @return The {@link Number} representation of this constant number.
+     * @throws IllegalArgumentException if {@code places} is negative.
+     */
+    public Number asNumber(int places) {
+        if (places < 0) {
+            throw new IllegalArgumentException("A constant can't have a negative count of decimal places: "+places);
+        }
+        if (series == null) {
+            return asNumber();
+        }
+        return series.apply(places);
     }
 }
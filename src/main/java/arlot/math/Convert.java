@@ -1,6 +1,5 @@
 package arlot.math;
 
-import arlot.error.BadBinaryValueException;
 import arlot.error.OutOfRangeException;
 import arlot.error.ValidBaseException;
 
@@ -18,43 +17,56 @@ public final class Convert {
         } else if (base==2) {
             return outBinary(new Binary(num));
         } else {
-            Number number = new Number();
-            int countdown = num.length()+1;
-            boolean notgood;
-            for (int i=0; i<num.length(); i++) {
-                countdown -= 1;
-                notgood = true;
-                for (char c : VALIDCHARS) {
-                    if (num.charAt(i) == c) {
-                        notgood = false;
-                        break;
-                    }
-                }
-                if (notgood) {
-                    throw new OutOfRangeException("Number value given to Convert.toNumber was out of range: "+num);
-                }
-                number.add(
-                        new Number(num.charAt(i)).multiply(
-                                new Number(base).power(Integer.toString(countdown))
-                        )
-                );
+            try {
+                return Number.valueOf(1, Radix.parse(num, 0, num.length(), base), 0);
+            } catch (NumberFormatException e) {
+                throw new OutOfRangeException("Number value given to Convert.toNumber was out of range: "+num);
             }
-            return number;
         }
     }
 
+    /**
+     * Converts the whole part of a Number into a base.
+     * <br>
+     * This is the opposite of {@link #toNumber(String, int)}, with a '-' before negative numbers.
+     * @param num A Number to be converted.
+     * @param base The base to convert to, between 2 and 36.
+     * @return The digits of the whole part of {@code num} in {@code base}, using the letters a-z past 9.
+     */
+    public static String toString(Number num, int base) {
+        if (base < 2 || base > VALIDCHARS.length) {
+            throw new ValidBaseException("The base of Convert.toString must be between 2 and "+VALIDCHARS.length+": "+base);
+        }
+        int[] whole = num.magnitude();
+        if (num.scale() > 0) {
+            whole = Division.divide(whole, Limbs.pow10(num.scale()))[0];
+        }
+        String digits = Radix.toString(whole, base);
+        return num.signum() < 0 && !Limbs.isZero(whole) ? "-"+digits : digits;
+    }
+
     /**
      * Converts a Number into binary.
+     * <br>
+     * Only the whole part of a positive Number is converted,
+     * and {@code num} isn't changed.
      * @param num A Number to be converted into binary.
      * @return A binary representation of the provided Number.
      */
     public static Binary toBinary(Number num) {
-        StringBuilder bin = new StringBuilder();
-        while (num.symbols("gt", "0")) {
-            bin.insert(0, num.mod("2").toString());
-            num.divide("2").floor();
+        if (num.signum() <= 0) {
+            return new Binary("");
         }
-        return new Binary(bin.toString());
+        int[] whole = num.magnitude();
+        if (num.scale() > 0) {
+            whole = Division.divide(whole, Limbs.pow10(num.scale()))[0];
+        }
+        // a value below one has no whole limbs, but a Binary always holds at least one word
+        long[] words = new long[Math.max(1, (whole.length + 1) / 2)];
+        for (int i = 0; i < whole.length; i++) {
+            words[i >>> 1] |= (whole[i] & Limbs.MASK) << (32 * (i & 1));
+        }
+        return new Binary(words, Limbs.bitLength(whole)).digit16();
     } // end of toBinary
 
     /**
@@ -86,20 +98,13 @@ public final class Convert {
      * @return The number that the binary represented.
      */
     public static Number outBinary(Binary bin) {
-        Number num = new Number();
-        int countdown = bin.length()+1;
-        for (int i=0; i<bin.length(); i++) {
-            countdown -= 1;
-            if (bin.charAt(i) != '0' || bin.charAt(i) != '1') {
-                throw new BadBinaryValueException("Value given to Convert.outBinary wasn't binary: "+bin);
-            }
-            num.add(
-                    new Number(bin.charAt(i)).multiply(
-                            new Number(2).power(Integer.toString(countdown))
-                    )
-            );
+        long[] words = bin.words();
+        int[] mag = new int[2 * words.length];
+        for (int i = 0; i < words.length; i++) {
+            mag[2 * i] = (int) words[i];
+            mag[2 * i + 1] = (int) (words[i] >>> 32);
         }
-        return num;
+        return Number.valueOf(1, Limbs.trim(mag, mag.length), 0);
     } // end of outBinary
 
     /**
@@ -0,0 +1,115 @@
+package arlot.math;
+
+/**
+ * The engine that divides the magnitudes of {@link Number}s.
+ * <br><br>
+ * The algorithm used depends on the size of the operands, measured in limbs:
+ * <ul>
+ *     <li>A divisor of one limb is divided out exactly in a single pass.</li>
+ *     <li>When the divisor or the quotient is short,
+ *     Knuth's long division is used (see {@link Limbs#divide(int[], int[])}).</li>
+ *     <li>Otherwise the reciprocal of the divisor is found with Newton's iteration,
+ *     and the quotient is found by multiplying with it,
+ *     one block the size of the divisor at a time.
+ *     This makes division as fast as multiplication (see {@link Multiplication}).</li>
+ * </ul>
+ * Every path gives the exact quotient and remainder.
+ */
+final class Division {
+    /**
+     * The count of limbs that both the divisor and the quotient
+     * must reach before Newton's iteration is used.
+     */
+    static final int NEWTON_THRESHOLD = 400;
+    /**
+     * The count of bits below which a reciprocal is found with long division.
+     */
+    private static final int RECIPROCAL_BASE_BITS = 32 * NEWTON_THRESHOLD;
+    /**
+     * The extra bits kept at each step of Newton's iteration.
+     */
+    private static final int GUARD_BITS = 32;
+
+    private Division() {}
+
+    /**
+     * Divides two magnitudes.
+     * @param a The dividend.
+     * @param b The divisor, must not be zero.
+     * @return An array holding the quotient and then the remainder.
+     * @throws ArithmeticException if {@code b} is zero.
+     */
+    static int[][] divide(int[] a, int[] b) {
+        if (b.length < NEWTON_THRESHOLD || a.length - b.length < NEWTON_THRESHOLD) {
+            return Limbs.divide(a, b);
+        }
+        return newton(a, b);
+    }
+
+    /**
+     * Divides two magnitudes with the reciprocal of the divisor.
+     * <br>
+     * The dividend is read from the top in blocks of as many limbs as the divisor has.
+     * Each block, with the remainder so far in front of it,
+     * is below the divisor times 2<sup>32*blocks</sup>,
+     * so its quotient fits into one block.
+     * @param a The dividend.
+     * @param b The divisor.
+     * @return An array holding the quotient and then the remainder.
+     */
+    private static int[][] newton(int[] a, int[] b) {
+        int block = b.length;
+        int bits = Limbs.bitLength(b);
+        // the reciprocal needs a little more precision than one block of quotient
+        int precision = 32 * block + GUARD_BITS;
+        int shift = precision - bits;
+        // x is about 2^(2*precision) / (b * 2^shift)
+        int[] x = reciprocal(Limbs.shiftLeft(b, shift), precision);
+        int drop = 2 * precision - shift;
+
+        int blocks = (a.length + block - 1) / block;
+        int[] quotient = new int[blocks * block];
+        int[] remainder = Limbs.ZERO;
+        for (int i = blocks - 1; i >= 0; i--) {
+            int[] chunk = Multiplication.slice(a, i * block, (i + 1) * block);
+            int[] u = new int[block + remainder.length];
+            System.arraycopy(chunk, 0, u, 0, chunk.length);
+            System.arraycopy(remainder, 0, u, block, remainder.length);
+            u = Limbs.trim(u, u.length);
+
+            int[] q = Limbs.shiftRight(Limbs.multiply(u, x), drop);
+            int[] product = Limbs.multiply(q, b);
+            while (Limbs.compare(product, u) > 0) {
+                q = Limbs.subtract(q, Limbs.ONE);
+                product = Limbs.subtract(product, b);
+            }
+            remainder = Limbs.subtract(u, product);
+            while (Limbs.compare(remainder, b) >= 0) {
+                q = Limbs.add(q, Limbs.ONE);
+                remainder = Limbs.subtract(remainder, b);
+            }
+            System.arraycopy(q, 0, quotient, i * block, q.length);
+        }
+        return new int[][] {Limbs.trim(quotient, quotient.length), remainder};
+    }
+
+    /**
+     * Finds the reciprocal of a magnitude with Newton's iteration.
+     * <br>
+     * Each step doubles the count of correct bits:
+     * from a reciprocal {@code y} of the top half of {@code d},
+     * the next one is <code>y*2<sup>k-h+1</sup> - d*y<sup>2</sup>/2<sup>2h</sup></code>.
+     * @param d The magnitude, which must have exactly {@code k} bits.
+     * @param k The bit length of {@code d}.
+     * @return A value within a few units of <code>2<sup>2k</sup>/d</code>.
+     */
+    static int[] reciprocal(int[] d, int k) {
+        if (k <= RECIPROCAL_BASE_BITS) {
+            return Limbs.divide(Limbs.shiftLeft(Limbs.ONE, 2 * k), d)[0];
+        }
+        int h = (k >> 1) + GUARD_BITS;
+        int[] y = reciprocal(Limbs.shiftRight(d, k - h), h);
+        int[] correction = Limbs.shiftRight(Limbs.multiply(d, Limbs.multiply(y, y)), 2 * h);
+        return Limbs.subtract(Limbs.shiftLeft(y, k - h + 1), correction);
+    }
+}
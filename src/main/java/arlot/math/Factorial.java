@@ -4,50 +4,100 @@ import arlot.error.NotImplementedException;
 import arlot.error.OutOfRangeException;
 import arlot.error.UpdateDeniedException;
 
-import java.io.BufferedWriter;
+import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 public final class Factorial implements Runnable {
-    public static Number calculateFactorial(Number from) {
-        if (FACTORIALS.containsKey(from.toString())) {
-            return new Number(FACTORIALS.get(from.toString()));
+    /**
+     * The factorials that have already been found.
+     * <br>
+     * It starts with the factorials up to 20, the biggest one that fits into a {@code long}.
+     */
+    private static final FactorialCache CACHE = new FactorialCache();
+    static {
+        long factorial = 1;
+        CACHE.put(0, new Number(1));
+        for (int i = 1; i <= 20; i++) {
+            factorial *= i;
+            CACHE.put(i, new Number(factorial));
         }
+    }
+    /**
+     * The store that factorials are kept in between runs, or {@code null} if there is none.
+     */
+    private static volatile FactorialStore store;
 
-        Factorial factorial = new Factorial(from);
-        factorial.run();
-        try {
-            addFactorial(factorial.getFrom(), factorial.getFactorial());
-        } catch (UpdateDeniedException ignore) {}
-
-        return factorial.getFactorial();
+    public static Number calculateFactorial(Number from) {
+        long n = key(from);
+        if (n < 0) {
+            Factorial factorial = new Factorial(from, true);
+            factorial.run();
+            return factorial.getFactorial();
+        }
+        Number cached = CACHE.get(n);
+        if (cached != null) {
+            return cached;
+        }
+        FactorialStore stored = store;
+        // n! = (n-1)!*n, so the nearest factorial below n is built on
+        Map.Entry<Long, Number> below = CACHE.floor(n);
+        if (stored != null) {
+            try {
+                // the stored factorial is only read when it is nearer than the cached one
+                Long floor = stored.floorKey(n);
+                if (floor != null && (below == null || floor > below.getKey())) {
+                    Number value = stored.get(floor);
+                    if (floor == n) {
+                        CACHE.put(n, value);
+                        return value;
+                    }
+                    below = Map.entry(floor, value);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        Number ret;
+        if (below != null) {
+            ret = below.getValue().multiply(product(new Number(below.getKey() + 1), from, true));
+        } else {
+            Factorial factorial = new Factorial(from, true);
+            factorial.run();
+            ret = factorial.getFactorial();
+        }
+        CACHE.put(n, ret);
+        if (stored != null && n <= FactorialStore.MAX_N) {
+            try {
+                stored.put(n, ret);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return ret;
     }
 
     public static void fillFactorials(Number max) {
         Number factorial = new Number(1);
-        Number ret = new Number();
         Instant start, end;
         for (Number from = new Number(1); from.symbols("le", max); from.add(1)) {
             System.out.println("<-- New factorial ("+from+") -->");
             start = Instant.now();
-            if (FACTORIALS.containsKey(from.toString())) {
-                factorial.update(FACTORIALS.get(from.toString()));
+            Number cached = CACHE.get(from.compactValue());
+            if (cached != null) {
+                factorial.update(cached);
             } else {
                 factorial.multiply(from);
-                try {
-                    addFactorial(from, factorial);
-                } catch (UpdateDeniedException ignore) {}
+                CACHE.put(from.compactValue(), factorial);
             }
             System.out.println(factorial);
             end = Instant.now();
@@ -62,53 +112,103 @@ public final class Factorial implements Runnable {
             throw new OutOfRangeException("The provided factorial calculation is out of bounds of max.");
         }
         fillFactorials(max);
-        return new Number(FACTORIALS.get(get.toString()));
+        return calculateFactorial(get);
     }
 
-    private static final Map<String, String> FACTORIALS = new HashMap<>();
-    static {
-        FACTORIALS.put("0","1");
-        FACTORIALS.put("1","1");
-        FACTORIALS.put("2","2");
-        FACTORIALS.put("3","6");
-        FACTORIALS.put("4","24");
-        FACTORIALS.put("5","120");
-        FACTORIALS.put("6","720");
-        FACTORIALS.put("7","5040");
-        FACTORIALS.put("8","40320");
-        FACTORIALS.put("9","362880");
-        FACTORIALS.put("10","3628800");
-        FACTORIALS.put("11","39916800");
-        FACTORIALS.put("12","479001600");
-        FACTORIALS.put("13","6227020800");
-        FACTORIALS.put("14","87178291200");
-        FACTORIALS.put("15","1307674368000");
-        FACTORIALS.put("16","20922789888000");
-        FACTORIALS.put("17","355687428096000");
-        FACTORIALS.put("18","6402373705728000");
-        FACTORIALS.put("19","121645100408832000");
-        FACTORIALS.put("20","2432902008176640000");
-    }
     public static void addFactorial(Number from, Number factorial) {
-        if (FACTORIALS.containsKey(from.toString())) {
+        long n = key(from);
+        if (n < 0) {
+            throw new OutOfRangeException("Only the factorials of whole numbers from 0 up can be stored.");
+        } else if (CACHE.contains(n)) {
             throw new UpdateDeniedException("Cannot edit already existing factorials.");
         }
-        FACTORIALS.put(from.toString(), factorial.toString());
+        CACHE.put(n, factorial);
     }
     public static String[] getFactorials() {
-        String[] factorials = new String[FACTORIALS.size()];
-        AtomicInteger i = new AtomicInteger(0);
-        FACTORIALS.forEach((from, factorial) -> {
-            factorials[i.get()] = from+":"+factorial;
-            i.set(i.get()+1);
-        });
-        return factorials;
+        return CACHE.entries().stream()
+                .map(entry -> entry.getKey()+":"+entry.getValue())
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Gets the cache of the factorials that have already been found.
+     * @return The shared {@link FactorialCache}.
+     */
+    public static FactorialCache getCache() {
+        return CACHE;
+    }
+
+    /**
+     * Gets the store that factorials are kept in between runs.
+     * @return The {@link FactorialStore}, or {@code null} if there is none.
+     */
+    public static FactorialStore getStore() {
+        return store;
+    }
+
+    /**
+     * Sets the store that factorials are kept in between runs.
+     * <br>
+     * Factorials that aren't cached are looked for in the store,
+     * and every factorial found by {@link #calculateFactorial(Number)} is added to it.
+     * @param store The {@link FactorialStore}, or {@code null} to stop using one.
+     */
+    public static void setStore(FactorialStore store) {
+        Factorial.store = store;
     }
 
+    /**
+     * Opens a {@link FactorialStore} and {@link #setStore(FactorialStore) uses} it.
+     * <br>
+     * A new store is filled with the factorials of the {@code math/factorials.txt} resource,
+     * so that text only has to be read once.
+     * @param directory The directory that holds the store.
+     * @return The store that is now used.
+     * @throws IOException if the store can't be opened or filled.
+     */
+    public static FactorialStore useStore(File directory) throws IOException {
+        FactorialStore opened = new FactorialStore(directory);
+        try {
+            if (opened.isEmpty()) {
+                InputStream resource = Factorial.class.getResourceAsStream("/math/factorials.txt");
+                if (resource != null) {
+                    try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource, StandardCharsets.UTF_8))) {
+                        opened.importText(reader);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            opened.close();
+            throw e;
+        }
+        setStore(opened);
+        return opened;
+    }
+
+    /**
+     * Gets the key that a factorial is cached under.
+     * @param from The number to find the factorial of.
+     * @return {@code from} as a {@code long}, or {@code -1} if it isn't a whole number from 0 up that fits.
+     */
+    private static long key(Number from) {
+        return from.isCompact() && from.signum() >= 0 ? from.compactValue() : -1;
+    }
+
+    /**
+     * The count of factors that a leaf of the product tree multiplies one after another.
+     */
+    private static final int LEAF_SIZE = 64;
+    /**
+     * The count of factors that a branch of the product tree must have
+     * before its halves are split across threads.
+     */
+    private static final int PARALLEL_THRESHOLD = 2048;
+
     private final Number factorial;
     private final Number from;
     private final Number start = new Number(2);
     private boolean ran;
+    private boolean parallel;
 
     public Factorial(Number from) {
         this.from = from.copy();
@@ -127,6 +227,16 @@ public final class Factorial implements Runnable {
         factorial = new Number(1);
         ran = false;
     }
+    /**
+     * Creates a factorial calculation that may be split across threads.
+     * @param from The number to find the factorial of.
+     * @param parallel {@code true} to multiply the halves of the product on the {@link ForkJoinPool#commonPool()}.
+     * @see #setParallel(boolean)
+     */
+    public Factorial(Number from, boolean parallel) {
+        this(from);
+        this.parallel = parallel;
+    }
 
 
     @Override
@@ -138,9 +248,7 @@ public final class Factorial implements Runnable {
             } else if (from.symbols("eq", "2")) {
                 factorial.update(from);
             } else {
-                for (Number i = start.copy(); i.symbols("le", from); i.add(1)) {
-                    factorial.multiply(i);
-                }
+                factorial.multiply(product(start, from, parallel));
                 /*Number n = from.copy();
                 Number i = start.copy();
                 for (;i.symbols("ne",n) && i.symbols("ne", n.copy().subtract(1)); i.add(1)) {
@@ -168,51 +276,100 @@ public final class Factorial implements Runnable {
         return ran;
     }
 
-    // not usable
-    private final static Path factorialFilePath = new File(Advanced.class.getClassLoader().getResource("math/factorials.txt").getFile()).toPath();//"src/main/java/arlot/math/factorials.txt";
+    /**
+     * Sets if this calculation is split across threads when it is {@link #run()}.
+     * <br>
+     * In parallel mode, the halves of big branches of the product tree are
+     * multiplied as separate tasks on the {@link ForkJoinPool#commonPool()}.
+     * Small calculations stay on the calling thread either way.
+     * @param parallel {@code true} to run in parallel.
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
 
-    private static List<String> getFactFile() {
-        try (Stream<String> lines = Files.lines(factorialFilePath)) {
-            return lines.collect(Collectors.toList());
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+    /**
+     * Checks if this calculation is split across threads when it is {@link #run()}.
+     * @return {@code true} if it runs in parallel.
+     */
+    public boolean isParallel() {
+        return parallel;
     }
 
-    private static Number getFactorialFromFile(String num) {
-        List<String> lines = getFactFile();
-        if (lines.size() > Integer.parseInt(num)) {
-            String[] ls;
-            for (String line : lines) {
-                ls = line.split(":");
-                if (num.equals(ls[0])) {
-                    return new Number(ls[1]);
-                }
+    // product tree
+
+    /**
+     * Multiplies every whole number from {@code low} up to {@code high}.
+     * <br>
+     * The range is multiplied as a balanced product tree (binary splitting),
+     * so that the big multiplications are done between numbers of about the same size,
+     * where the faster algorithms of {@link Multiplication} work best.
+     * The factors of two are taken out of every number and put back at the end as one shift.
+     * @param low The first number of the range.
+     * @param high The last number of the range.
+     * @param parallel {@code true} to split big branches across threads.
+     * @return The product of the range, or {@code 1} if the range is empty.
+     * @throws OutOfRangeException if {@code high} doesn't fit into a {@code long}.
+     */
+    static Number product(Number low, Number high, boolean parallel) {
+        if (high.compareTo(low) < 0) {
+            return new Number(1);
+        } else if (!high.isCompact()) {
+            throw new OutOfRangeException("The provided factorial calculation is too large to be calculated.");
+        } else if (low.signum() <= 0) {
+            // the range has zero or negative numbers in it, which is never a factorial
+            NumberAccumulator product = new NumberAccumulator(1);
+            for (long i = low.compactValue(); i <= high.compactValue(); i++) {
+                product.multiply(i);
             }
+            return product.freeze();
         }
-        return null;
+        long first = low.compactValue();
+        long last = high.compactValue();
+        // the count of twos in k! is k minus the count of one bits in k
+        long twos = (last - Long.bitCount(last)) - ((first - 1) - Long.bitCount(first - 1));
+        Product task = new Product(first, last, parallel);
+        int[] odd = parallel && last - first >= PARALLEL_THRESHOLD
+                ? ForkJoinPool.commonPool().invoke(task)
+                : task.compute();
+        return Number.valueOf(1, Limbs.shiftLeft(odd, Math.toIntExact(twos)), 0);
     }
 
-    private static Number[] getClosestFactorial() {
-        List<String> lines = getFactFile();
-        String[] cf = lines.get(lines.size()-2).split(":");
-        return new Number[] {
-                new Number(cf[0]),
-                new Number(cf[1])
-        };
-    }
+    /**
+     * Multiplies the odd parts of a range of numbers as one branch of a product tree.
+     */
+    private static final class Product extends RecursiveTask<int[]> {
+        @java.io.Serial
+        private static final long serialVersionUID = 1L;
 
-    private static void addFactFile(Number num, Number factorial) {
-        List<String> data = getFactFile();
-        String line = num.toString()+":"+factorial.toString();
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(factorialFilePath.toFile(), true))) {
-            if (!data.contains(line)) {
-                writer.newLine(); // To ensure each new line starts on a new line
-                writer.write(line);
-                data.add(line);
+        private final long low;
+        private final long high;
+        private final boolean parallel;
+
+        private Product(long low, long high, boolean parallel) {
+            this.low = low;
+            this.high = high;
+            this.parallel = parallel;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (high - low < LEAF_SIZE) {
+                NumberAccumulator product = new NumberAccumulator(1);
+                for (long i = low; i <= high; i++) {
+                    product.multiply(i >>> Long.numberOfTrailingZeros(i));
+                }
+                return product.freeze().magnitude();
+            }
+            long middle = (low + high) >>> 1;
+            Product left = new Product(low, middle, parallel);
+            Product right = new Product(middle + 1, high, parallel);
+            if (parallel && high - low >= PARALLEL_THRESHOLD) {
+                left.fork();
+                int[] upper = right.compute();
+                return Limbs.multiply(left.join(), upper);
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+            return Limbs.multiply(left.compute(), right.compute());
         }
     }
 }
@@ -0,0 +1,215 @@
+package arlot.math;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread safe cache of factorials, used by {@link Factorial}.
+ * <br><br>
+ * The factorials are stored as {@link Number}s, so a hit doesn't parse anything.
+ * The cache is bounded by the total count of digits that it holds,
+ * once that is passed the least recently used factorials are evicted.
+ * <br>
+ * Since <code>n! = n*(n-1)!</code>, a factorial that isn't stored can be started
+ * from the nearest one below it, see {@link #floor(long)}.
+ */
+public final class FactorialCache {
+    /**
+     * The default count of digits that a cache may hold.
+     */
+    public static final long DEFAULT_MAX_DIGITS = 10_000_000L;
+    /**
+     * log<sub>10</sub>(2), used to estimate the count of digits in a factorial.
+     */
+    private static final double LOG10_2 = Math.log10(2);
+
+    private final long maxDigits;
+    /**
+     * The factorials from the least to the most recently used.
+     */
+    private final LinkedHashMap<Long, Number> recent = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * The same factorials ordered by {@code n}, for finding the nearest one below a request.
+     */
+    private final TreeMap<Long, Number> ordered = new TreeMap<>();
+    private long digits;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a cache that holds at most {@link #DEFAULT_MAX_DIGITS} digits.
+     */
+    public FactorialCache() {
+        this(DEFAULT_MAX_DIGITS);
+    }
+
+    /**
+     * Creates a cache.
+     * @param maxDigits The most digits that the cache may hold at once.
+     * @throws IllegalArgumentException if {@code maxDigits} is negative.
+     */
+    public FactorialCache(long maxDigits) {
+        if (maxDigits < 0) {
+            throw new IllegalArgumentException("The max digits of a cache can't be negative: "+maxDigits);
+        }
+        this.maxDigits = maxDigits;
+    }
+
+    /**
+     * Gets the factorial of {@code n} if it is stored.
+     * <br>
+     * This counts as a hit or a miss in the {@link #statistics()}.
+     * @param n The number to get the factorial of.
+     * @return A copy of the stored factorial, or {@code null} if it isn't stored.
+     */
+    public Number get(long n) {
+        Number ret;
+        synchronized (this) {
+            ret = recent.get(n);
+        }
+        if (ret == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return ret.copy();
+    }
+
+    /**
+     * Finds the stored factorial of the biggest number that is at most {@code n}.
+     * @param n The number to look below.
+     * @return The number and a copy of its factorial, or {@code null} if nothing at or below {@code n} is stored.
+     */
+    public Map.Entry<Long, Number> floor(long n) {
+        Map.Entry<Long, Number> ret;
+        synchronized (this) {
+            ret = ordered.floorEntry(n);
+            if (ret != null) {
+                recent.get(ret.getKey()); // marks it as recently used
+            }
+        }
+        return ret == null ? null : Map.entry(ret.getKey(), ret.getValue().copy());
+    }
+
+    /**
+     * Checks if the factorial of {@code n} is stored, without counting it in the {@link #statistics()}.
+     * @param n The number to check.
+     * @return {@code true} if the factorial is stored.
+     */
+    public synchronized boolean contains(long n) {
+        return recent.containsKey(n);
+    }
+
+    /**
+     * Stores the factorial of {@code n}.
+     * <br>
+     * If it is already stored, the stored factorial is kept.
+     * A factorial that is bigger than the whole cache isn't stored.
+     * @param n The number that the factorial is of.
+     * @param factorial The factorial of {@code n}.
+     * @return {@code true} if the factorial was stored.
+     */
+    public boolean put(long n, Number factorial) {
+        long weight = weight(factorial);
+        if (weight > maxDigits) {
+            return false;
+        }
+        Number value = factorial.copy();
+        synchronized (this) {
+            if (recent.containsKey(n)) {
+                return false;
+            }
+            recent.put(n, value);
+            ordered.put(n, value);
+            digits += weight;
+            Iterator<Map.Entry<Long, Number>> eldest = recent.entrySet().iterator();
+            while (digits > maxDigits && eldest.hasNext()) {
+                Map.Entry<Long, Number> entry = eldest.next();
+                eldest.remove();
+                ordered.remove(entry.getKey());
+                digits -= weight(entry.getValue());
+                evictions.increment();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes every stored factorial, the {@link #statistics()} are kept.
+     */
+    public synchronized void clear() {
+        recent.clear();
+        ordered.clear();
+        digits = 0;
+    }
+
+    /**
+     * Gets every stored factorial, ordered by {@code n}.
+     * @return The numbers and copies of their factorials.
+     */
+    public List<Map.Entry<Long, Number>> entries() {
+        List<Map.Entry<Long, Number>> ret;
+        synchronized (this) {
+            ret = new ArrayList<>(ordered.entrySet());
+        }
+        ret.replaceAll(entry -> Map.entry(entry.getKey(), entry.getValue().copy()));
+        return ret;
+    }
+
+    /**
+     * Gets the most digits that this cache may hold at once.
+     * @return The max count of digits.
+     */
+    public long getMaxDigits() {
+        return maxDigits;
+    }
+
+    /**
+     * Gets how this cache has been used.
+     * @return The current {@link CacheStats}.
+     */
+    public CacheStats statistics() {
+        int size;
+        long held;
+        synchronized (this) {
+            size = recent.size();
+            held = digits;
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size, held);
+    }
+
+    /**
+     * Estimates the count of digits in a factorial from its bit length.
+     * @param factorial The factorial.
+     * @return The estimated count of digits.
+     */
+    private static long weight(Number factorial) {
+        return (long) (Limbs.bitLength(factorial.magnitude()) * LOG10_2) + 1;
+    }
+
+    /**
+     * How a {@link FactorialCache} has been used.
+     * @param hits The count of {@link FactorialCache#get(long) gets} that found a stored factorial.
+     * @param misses The count of {@link FactorialCache#get(long) gets} that didn't.
+     * @param evictions The count of factorials removed to stay within the max digits.
+     * @param size The count of factorials stored now.
+     * @param digits The estimated count of digits stored now.
+     */
+    public record CacheStats(long hits, long misses, long evictions, int size, long digits) {
+        /**
+         * Gets the share of {@link FactorialCache#get(long) gets} that were hits.
+         * @return The hit rate, from {@code 0} to {@code 1}.
+         */
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+}
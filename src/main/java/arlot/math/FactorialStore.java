@@ -0,0 +1,369 @@
+package arlot.math;
+
+import arlot.data.file.AccessFileChannel;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * A persistent store of factorials, used by {@link Factorial}
+ * so that factorials found before a restart don't have to be found again.
+ * <br><br>
+ * A store is a directory holding two files:
+ * <ul>
+ *     <li>{@value #DATA_FILE}, the factorials themselves.
+ *     Each factorial is split into <code>odd*2<sup>twos</sup></code>
+ *     and only the limbs of the odd part are written, as little endian {@code int}s.
+ *     Records are only ever appended.</li>
+ *     <li>{@value #INDEX_FILE}, a header followed by one fixed size entry per {@code n},
+ *     holding where the record of {@code n!} starts, its count of limbs, and its count of twos.
+ *     An entry with no limbs means that {@code n!} isn't stored.
+ *     The header holds the count of entries in use, one more than the biggest {@code n} stored.</li>
+ * </ul>
+ * The index has an entry for every {@code n} up to the biggest one stored,
+ * so only factorials of up to {@link #MAX_N} are stored, which holds the index to 16 MB.
+ * Both files are read through memory mapped {@link AccessFileChannel}s,
+ * so finding a factorial is a single look into the index and a single copy out of the data.
+ * The numbers that are stored are also kept in memory, read from the index when the store is opened,
+ * so finding the nearest stored factorial below a number doesn't read the index at all.
+ * <br>
+ * A record is written before the entry that points to it, and the entry before the count in the header,
+ * so a store that was stopped part way through a {@link #put(long, Number)}
+ * holds every factorial that was stored before it.
+ */
+public final class FactorialStore implements Closeable {
+    /**
+     * The name of the file that holds the factorials.
+     */
+    public static final String DATA_FILE = "factorials.dat";
+    /**
+     * The name of the file that holds the offset index.
+     */
+    public static final String INDEX_FILE = "factorials.idx";
+    /**
+     * The biggest number whose factorial can be stored.
+     */
+    public static final long MAX_N = (1 << 20) - 1;
+
+    /**
+     * The first bytes of every index file, {@code "FACT"}.
+     */
+    private static final int MAGIC = 0x46414354;
+    /**
+     * The version of the index, version 1 didn't keep the count of entries in use in the header.
+     */
+    private static final int VERSION = 2;
+    /**
+     * The size of the index header: the magic, the version and the count of entries in use as a {@code long}.
+     */
+    private static final int HEADER = 16;
+    /**
+     * The size of an index entry: the offset as a {@code long},
+     * then the count of limbs and the count of twos as {@code int}s.
+     */
+    private static final int ENTRY = 16;
+
+    private final File directory;
+    private final Mapping index;
+    private final Mapping data;
+    /**
+     * The numbers whose factorials are stored.
+     */
+    private final TreeSet<Long> stored = new TreeSet<>();
+    /**
+     * Where the next record is written, the end of the last record.
+     */
+    private long end;
+    /**
+     * The count of index entries in use, one more than the biggest number stored.
+     */
+    private long slots;
+
+    /**
+     * Opens the store in a directory, creating it if it doesn't exist.
+     * @param directory The directory that holds the store.
+     * @throws IOException if the store can't be opened,
+     * or if the directory holds an index that isn't of a factorial store.
+     */
+    public FactorialStore(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Couldn't create the factorial store: "+directory);
+        }
+        this.directory = directory;
+        this.index = new Mapping(new AccessFileChannel(new File(directory, INDEX_FILE)));
+        this.data = new Mapping(new AccessFileChannel(new File(directory, DATA_FILE)));
+        try {
+            if (index.channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putLong(0).flip();
+                write(index.channel, header, 0);
+            } else if (index.channel.size() < HEADER
+                    || index.view(0, HEADER).getInt(0) != MAGIC) {
+                throw new IOException("Not a factorial store: "+directory);
+            }
+            int version = index.view(0, HEADER).getInt(4);
+            if (version == 1) {
+                slots = (index.channel.size() - HEADER) / ENTRY;
+            } else if (version == VERSION) {
+                // entries past the count were cut off part way through a put, and aren't stored
+                slots = index.view(0, HEADER).getLong(8);
+            } else {
+                throw new IOException("Unsupported factorial store version: "+version);
+            }
+            slots = Math.min(slots, MAX_N + 1);
+            for (long n = 0; n < slots; n++) {
+                ByteBuffer entry = index.view(HEADER + n * ENTRY, ENTRY);
+                int limbs = entry.getInt(8);
+                if (limbs != 0) {
+                    stored.add(n);
+                    end = Math.max(end, entry.getLong(0) + (long) limbs * Integer.BYTES);
+                }
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the directory that holds this store.
+     * @return The directory.
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Checks if nothing is stored.
+     * @return {@code true} if no factorial has been stored.
+     * @throws IOException if the store can't be read.
+     */
+    public synchronized boolean isEmpty() throws IOException {
+        return stored.isEmpty();
+    }
+
+    /**
+     * Gets the factorial of {@code n} if it is stored.
+     * @param n The number to get the factorial of.
+     * @return The factorial, or {@code null} if it isn't stored.
+     * @throws IOException if the store can't be read.
+     */
+    public synchronized Number get(long n) throws IOException {
+        ByteBuffer entry = entry(n);
+        return entry == null ? null : read(entry);
+    }
+
+    /**
+     * Checks if the factorial of {@code n} is stored.
+     * @param n The number to check.
+     * @return {@code true} if the factorial is stored.
+     * @throws IOException if the store can't be read.
+     */
+    public synchronized boolean contains(long n) throws IOException {
+        return stored.contains(n);
+    }
+
+    /**
+     * Finds the biggest number that is at most {@code n} whose factorial is stored,
+     * without reading the factorial.
+     * @param n The number to look below.
+     * @return The number, or {@code null} if nothing at or below {@code n} is stored.
+     */
+    public synchronized Long floorKey(long n) {
+        return stored.floor(n);
+    }
+
+    /**
+     * Finds the stored factorial of the biggest number that is at most {@code n}.
+     * @param n The number to look below.
+     * @return The number and its factorial, or {@code null} if nothing at or below {@code n} is stored.
+     * @throws IOException if the store can't be read.
+     */
+    public synchronized Map.Entry<Long, Number> floor(long n) throws IOException {
+        Long below = stored.floor(n);
+        return below == null ? null : Map.entry(below, read(entry(below)));
+    }
+
+    /**
+     * Stores the factorial of {@code n}.
+     * <br>
+     * If it is already stored, the stored factorial is kept.
+     * @param n The number that the factorial is of.
+     * @param factorial The factorial of {@code n}.
+     * @return {@code true} if the factorial was stored.
+     * @throws IllegalArgumentException if {@code n} is negative or bigger than {@link #MAX_N},
+     * or if {@code factorial} isn't a positive whole number.
+     * @throws IOException if the store can't be written.
+     */
+    public synchronized boolean put(long n, Number factorial) throws IOException {
+        if (n < 0) {
+            throw new IllegalArgumentException("Factorials of negative numbers can't be stored: "+n);
+        } else if (n > MAX_N) {
+            throw new IllegalArgumentException("Factorials past "+MAX_N+" can't be stored: "+n);
+        }
+        if (factorial.signum() <= 0 || factorial.scale() != 0) {
+            throw new IllegalArgumentException("A factorial must be a positive whole number: "+factorial);
+        }
+        if (stored.contains(n)) {
+            return false;
+        }
+        int[] magnitude = factorial.magnitude();
+        int twos = trailingZeros(magnitude);
+        int[] odd = Limbs.shiftRight(magnitude, twos);
+
+        long offset = end;
+        ByteBuffer record = ByteBuffer.allocate(odd.length * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        record.asIntBuffer().put(odd);
+        write(data.channel, record, offset);
+        end = offset + (long) odd.length * Integer.BYTES;
+
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY).order(ByteOrder.LITTLE_ENDIAN);
+        entry.putLong(offset).putInt(odd.length).putInt(twos).flip();
+        write(index.channel, entry, HEADER + n * ENTRY);
+        if (n >= slots) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putLong(n + 1).flip();
+            write(index.channel, header, 0);
+            slots = n + 1;
+        }
+        stored.add(n);
+        return true;
+    }
+
+    /**
+     * Stores the factorials of a text with one {@code n:n!} pair on each line,
+     * like the {@code math/factorials.txt} resource.
+     * <br>
+     * Blank lines are skipped, and factorials that are already stored are kept.
+     * @param reader The text to read.
+     * @return The count of factorials that were stored.
+     * @throws IllegalArgumentException if a line isn't a {@code n:n!} pair.
+     * @throws IOException if the text can't be read or the store can't be written.
+     */
+    public int importText(BufferedReader reader) throws IOException {
+        int count = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            int split = line.indexOf(':');
+            if (split < 0) {
+                throw new IllegalArgumentException("Not a factorial pair: "+line);
+            }
+            long n = Long.parseLong(line.substring(0, split).strip());
+            if (put(n, new Number(line.substring(split + 1).strip()))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Closes the files of this store.
+     * @throws IOException if a file can't be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            index.close();
+        } finally {
+            data.close();
+        }
+    }
+
+    /**
+     * Finds the index entry of {@code n}.
+     * @param n The number to find.
+     * @return The entry, or {@code null} if {@code n!} isn't stored.
+     */
+    private ByteBuffer entry(long n) throws IOException {
+        return stored.contains(n) ? index.view(HEADER + n * ENTRY, ENTRY) : null;
+    }
+
+    /**
+     * Reads the factorial that an index entry points to.
+     * @param entry The entry.
+     * @return The factorial.
+     */
+    private Number read(ByteBuffer entry) throws IOException {
+        long offset = entry.getLong(0);
+        int limbs = entry.getInt(8);
+        int twos = entry.getInt(12);
+        int[] odd = new int[limbs];
+        IntBuffer record = data.view(offset, limbs * Integer.BYTES).asIntBuffer();
+        record.get(odd);
+        return Number.trusted(1, Limbs.shiftLeft(odd, twos), 0);
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Counts the zero bits at the bottom of a magnitude that isn't zero.
+     * @param value The magnitude.
+     * @return The count of zero bits.
+     */
+    private static int trailingZeros(int[] value) {
+        int i = 0;
+        while (value[i] == 0) {
+            i++;
+        }
+        return 32 * i + Integer.numberOfTrailingZeros(value[i]);
+    }
+
+    /**
+     * A file and the memory mapped view of it.
+     * <br>
+     * The whole file is mapped at once, and mapped again once it has grown past the view.
+     * Reads never grow the file, it only grows when a record or an entry is written.
+     * A file too big to be mapped at once has each region mapped when it is read.
+     */
+    private static final class Mapping implements Closeable {
+        private final AccessFileChannel channel;
+        private MappedByteBuffer buffer;
+
+        private Mapping(AccessFileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Gets a little endian view of a region of the file.
+         * @param position Where the region starts.
+         * @param size The size of the region.
+         * @return The view, positioned at the start of the region.
+         */
+        private ByteBuffer view(long position, int size) throws IOException {
+            if (buffer == null || position + size > buffer.capacity()) {
+                long length = channel.size();
+                if (position + size > length) {
+                    throw new IOException("The factorial store is cut short at "+length+" bytes.");
+                }
+                if (length > Integer.MAX_VALUE) {
+                    return channel.map(FileChannel.MapMode.READ_ONLY, position, size)
+                            .order(ByteOrder.LITTLE_ENDIAN);
+                }
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            }
+            return buffer.slice((int) position, size).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        @Override
+        public void close() throws IOException {
+            buffer = null;
+            channel.close();
+        }
+    }
+}
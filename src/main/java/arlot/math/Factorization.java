@@ -0,0 +1,596 @@
+package arlot.math;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The engine that splits the magnitudes of {@link Number}s into their prime factors.
+ * <br><br>
+ * The factors are found in three steps:
+ * <ul>
+ *     <li>Trial division by the primes below {@value #TRIAL_LIMIT},
+ *     which are sieved once on a 2*3*5 wheel.</li>
+ *     <li>A Miller-Rabin check of what is left, with the primes up to 41 as bases.
+ *     This is exact below about 3.3*10<sup>24</sup>, and only probable above it.</li>
+ *     <li>Pollard's rho, with Brent's cycle finding, splits what is left and isn't prime.
+ *     The two parts are independent, so big ones can be split on separate threads.</li>
+ * </ul>
+ * Values below 2<sup>62</sup> are worked on as {@code long}s in Montgomery form,
+ * and bigger ones as fixed-length limbs in Montgomery form,
+ * so a step of rho is a few multiplications without any division.
+ */
+final class Factorization {
+    /**
+     * The bound of the primes that are divided out before anything else is tried.
+     */
+    static final int TRIAL_LIMIT = 1 << 16;
+    /**
+     * The count of bits a value must pass before its two parts are split on separate threads.
+     */
+    private static final int PARALLEL_BITS = 64;
+    /**
+     * The steps of rho taken between the checks for a common factor.
+     */
+    private static final int BATCH = 128;
+    /**
+     * The bases used by Miller-Rabin, every prime up to 41.
+     */
+    private static final int[] BASES = {2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41};
+    /**
+     * The gaps between the numbers that are coprime to 30, starting from 7.
+     */
+    private static final int[] WHEEL = {4, 2, 4, 2, 4, 6, 2, 6};
+    /**
+     * The primes from 7 up to {@link #TRIAL_LIMIT}.
+     */
+    private static final int[] PRIMES = sieve();
+
+    private Factorization() {}
+
+    /**
+     * Splits a magnitude into its prime factors.
+     * @param n The magnitude, must be at least one.
+     * @param parallel {@code true} to split big cofactors across threads.
+     * @return Every prime factor as many times as it divides {@code n}, from the least up.
+     */
+    static List<int[]> factor(int[] n, boolean parallel) {
+        List<int[]> ret = new ArrayList<>();
+        int[] rest = n;
+        for (int p : new int[] {2, 3, 5}) {
+            rest = divideOut(rest, p, ret);
+        }
+        boolean proven = false;
+        for (int p : PRIMES) {
+            if (Limbs.bitLength(rest) < 63 && (long) p * p > toLong(rest)) {
+                proven = true;
+                break;
+            }
+            rest = divideOut(rest, p, ret);
+        }
+        if (Limbs.compare(rest, Limbs.ONE) > 0) {
+            // without a factor below 2^16, anything below 2^32 is prime
+            if (proven || Limbs.bitLength(rest) <= 32) {
+                ret.add(rest);
+            } else {
+                ret.addAll(new Split(rest, parallel).invoke());
+            }
+        }
+        ret.sort(Limbs::compare);
+        return ret;
+    }
+
+    /**
+     * Divides a prime out of a magnitude as many times as it goes.
+     * @param n The magnitude.
+     * @param p The prime.
+     * @param factors The list to add a {@code p} to for every time it goes.
+     * @return What is left of {@code n}.
+     */
+    private static int[] divideOut(int[] n, int p, List<int[]> factors) {
+        while (!Limbs.isZero(n) && Limbs.divide(n, p, null) == 0) {
+            int[] q = new int[n.length];
+            Limbs.divide(n, p, q);
+            n = Limbs.trim(q, q.length);
+            factors.add(Limbs.valueOf(p));
+        }
+        return n;
+    }
+
+    /**
+     * Sieves the primes from 7 up to {@link #TRIAL_LIMIT}, only looking at the numbers on the wheel.
+     * @return The primes.
+     */
+    private static int[] sieve() {
+        boolean[] composite = new boolean[TRIAL_LIMIT];
+        int[] primes = new int[TRIAL_LIMIT / 4];
+        int count = 0;
+        for (int i = 7, w = 0; i < TRIAL_LIMIT; i += WHEEL[w], w = (w + 1) & 7) {
+            if (!composite[i]) {
+                primes[count++] = i;
+                for (long j = (long) i * i; j < TRIAL_LIMIT; j += 2L * i) {
+                    composite[(int) j] = true;
+                }
+            }
+        }
+        int[] ret = new int[count];
+        System.arraycopy(primes, 0, ret, 0, count);
+        return ret;
+    }
+
+    /**
+     * Splits a cofactor without small factors into its primes,
+     * running the splits of big parts on separate threads.
+     */
+    private static final class Split extends RecursiveTask<List<int[]>> {
+        @java.io.Serial
+        private static final long serialVersionUID = 1L;
+
+        private final int[] n;
+        private final boolean parallel;
+
+        private Split(int[] n, boolean parallel) {
+            this.n = n;
+            this.parallel = parallel;
+        }
+
+        @Override
+        protected List<int[]> compute() {
+            List<int[]> ret = new ArrayList<>();
+            if (isProbablePrime(n)) {
+                ret.add(n);
+                return ret;
+            }
+            int[] d = findFactor(n);
+            Split left = new Split(d, parallel);
+            Split right = new Split(Division.divide(n, d)[0], parallel);
+            if (parallel && Limbs.bitLength(n) > PARALLEL_BITS) {
+                left.fork();
+                ret.addAll(right.compute());
+                ret.addAll(left.join());
+            } else {
+                ret.addAll(left.compute());
+                ret.addAll(right.compute());
+            }
+            return ret;
+        }
+    }
+
+    // primality
+
+    /**
+     * Checks if an odd magnitude above {@link #TRIAL_LIMIT} is prime with Miller-Rabin.
+     * @param n The magnitude.
+     * @return {@code true} if {@code n} is prime, or for values past about 3.3*10<sup>24</sup>, probably prime.
+     */
+    static boolean isProbablePrime(int[] n) {
+        if (Limbs.bitLength(n) < 62) {
+            return isPrime(toLong(n));
+        }
+        LimbMontgomery m = new LimbMontgomery(n);
+        int[] nMinusOne = Limbs.subtract(n, Limbs.ONE);
+        int s = trailingZeros(nMinusOne);
+        int[] d = Limbs.shiftRight(nMinusOne, s);
+        // -1 in Montgomery form
+        int[] minusOne = m.zero();
+        m.subtract(minusOne, m.one, minusOne);
+        for (int base : BASES) {
+            int[] x = m.pow(m.from(Limbs.valueOf(base)), d);
+            if (Arrays.equals(x, m.one) || Arrays.equals(x, minusOne)) {
+                continue;
+            }
+            boolean composite = true;
+            for (int i = 1; i < s && composite; i++) {
+                m.multiply(x, x, x);
+                composite = !Arrays.equals(x, minusOne);
+            }
+            if (composite) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if an odd {@code long} above {@link #TRIAL_LIMIT} is prime with Miller-Rabin,
+     * which is exact at this size.
+     * @param n The value, below 2<sup>62</sup>.
+     * @return {@code true} if {@code n} is prime.
+     */
+    private static boolean isPrime(long n) {
+        Montgomery m = new Montgomery(n);
+        long minusOne = n - m.one;
+        int s = Long.numberOfTrailingZeros(n - 1);
+        long d = (n - 1) >>> s;
+        for (int base : BASES) {
+            long x = m.pow(m.from(base), d);
+            if (x == m.one || x == minusOne) {
+                continue;
+            }
+            boolean composite = true;
+            for (int i = 1; i < s && composite; i++) {
+                x = m.multiply(x, x);
+                composite = x != minusOne;
+            }
+            if (composite) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // splitting
+
+    /**
+     * Finds a factor of a composite magnitude that has no small factors.
+     * @param n The magnitude.
+     * @return A factor of {@code n} that is neither one nor {@code n}.
+     */
+    private static int[] findFactor(int[] n) {
+        int[] root = Roots.root(n, 2);
+        if (Limbs.compare(Limbs.multiply(root, root), n) == 0) {
+            // rho is slow to split squares
+            return root;
+        }
+        if (Limbs.bitLength(n) < 62) {
+            long value = toLong(n);
+            Montgomery m = new Montgomery(value);
+            for (long c = 1; ; c++) {
+                long g = brent(m, c);
+                if (g != value) {
+                    return Limbs.valueOf(g);
+                }
+            }
+        }
+        LimbMontgomery m = new LimbMontgomery(n);
+        for (int c = 1; ; c++) {
+            int[] g = brent(m, m.from(Limbs.valueOf(c)));
+            if (Limbs.compare(g, n) != 0) {
+                return g;
+            }
+        }
+    }
+
+    /**
+     * Looks for a factor with Pollard's rho on <code>y = y<sup>2</sup> + c</code>, with Brent's cycle finding.
+     * @param m The Montgomery form of the value to split.
+     * @param c The constant of the map.
+     * @return A factor, which is the value itself when this constant didn't split it.
+     */
+    private static long brent(Montgomery m, long c) {
+        long n = m.n;
+        long x, ys, y = 2, q = m.one, g = 1;
+        ys = x = y;
+        for (long r = 1; g == 1; r <<= 1) {
+            x = y;
+            for (long i = 0; i < r; i++) {
+                y = m.step(y, c);
+            }
+            for (long k = 0; k < r && g == 1; k += BATCH) {
+                ys = y;
+                for (long i = Math.min(BATCH, r - k); i > 0; i--) {
+                    y = m.step(y, c);
+                    q = m.multiply(q, Math.abs(x - y));
+                }
+                g = GreatestCommonDivisor.gcd(q, n);
+            }
+        }
+        if (g == n) {
+            // the batch went past the factor, so it is walked again one step at a time
+            do {
+                ys = m.step(ys, c);
+                g = GreatestCommonDivisor.gcd(Math.abs(x - ys), n);
+            } while (g == 1);
+        }
+        return g;
+    }
+
+    /**
+     * Looks for a factor with Pollard's rho on <code>y = y<sup>2</sup> + c</code>, with Brent's cycle finding.
+     * @param m The Montgomery form of the magnitude to split.
+     * @param c The constant of the map, in Montgomery form.
+     * @return A factor, which is the magnitude itself when this constant didn't split it.
+     */
+    private static int[] brent(LimbMontgomery m, int[] c) {
+        int[] n = m.modulus;
+        int[] y = m.from(Limbs.valueOf(2)), x = y.clone(), ys = y.clone(), q = m.one.clone(), d = m.zero();
+        int[] g = Limbs.ONE;
+        for (long r = 1; Limbs.compare(g, Limbs.ONE) == 0; r <<= 1) {
+            System.arraycopy(y, 0, x, 0, y.length);
+            for (long i = 0; i < r; i++) {
+                m.step(y, c, y);
+            }
+            for (long k = 0; k < r && Limbs.compare(g, Limbs.ONE) == 0; k += BATCH) {
+                System.arraycopy(y, 0, ys, 0, y.length);
+                for (long i = Math.min(BATCH, r - k); i > 0; i--) {
+                    m.step(y, c, y);
+                    m.subtract(x, y, d);
+                    m.multiply(q, d, q);
+                }
+                // the factor 2^(32k) of the Montgomery form is coprime to n, so it doesn't change the gcd
+                g = GreatestCommonDivisor.gcd(Limbs.trim(q.clone(), q.length), n);
+            }
+        }
+        if (Limbs.compare(g, n) == 0) {
+            // the batch went past the factor, so it is walked again one step at a time
+            do {
+                m.step(ys, c, ys);
+                m.subtract(x, ys, d);
+                g = GreatestCommonDivisor.gcd(Limbs.trim(d.clone(), d.length), n);
+            } while (Limbs.compare(g, Limbs.ONE) == 0);
+        }
+        return g;
+    }
+
+    // helpers
+
+    private static int trailingZeros(int[] value) {
+        int i = 0;
+        while (value[i] == 0) {
+            i++;
+        }
+        return 32 * i + Integer.numberOfTrailingZeros(value[i]);
+    }
+
+    private static long toLong(int[] value) {
+        long ret = 0;
+        for (int i = value.length - 1; i >= 0; i--) {
+            ret = ret << 32 | (value[i] & 0xFFFFFFFFL);
+        }
+        return ret;
+    }
+
+    /**
+     * Multiplication modulo an odd {@code long} in Montgomery form,
+     * where a value {@code a} is held as <code>a*2<sup>64</sup> mod n</code>.
+     */
+    private static final class Montgomery {
+        private final long n;
+        /**
+         * <code>-n<sup>-1</sup> mod 2<sup>64</sup></code>.
+         */
+        private final long negInverse;
+        /**
+         * One in Montgomery form, <code>2<sup>64</sup> mod n</code>.
+         */
+        private final long one;
+        /**
+         * <code>2<sup>128</sup> mod n</code>, for bringing values into Montgomery form.
+         */
+        private final long r2;
+
+        /**
+         * @param n The odd modulus, below 2<sup>62</sup>.
+         */
+        private Montgomery(long n) {
+            this.n = n;
+            // each step doubles the correct low bits, odd n is its own inverse to 3 bits
+            long inverse = n;
+            for (int i = 0; i < 5; i++) {
+                inverse *= 2 - n * inverse;
+            }
+            this.negInverse = -inverse;
+            this.one = Long.remainderUnsigned(-n, n);
+            long r = one;
+            for (int i = 0; i < 64; i++) {
+                r <<= 1;
+                if (r >= n) {
+                    r -= n;
+                }
+            }
+            this.r2 = r;
+        }
+
+        private long from(long a) {
+            return multiply(a % n, r2);
+        }
+
+        /**
+         * Multiplies two values in Montgomery form.
+         * @param a The first value, below {@code n}.
+         * @param b The second value, below {@code n}.
+         * @return <code>a*b*2<sup>-64</sup> mod n</code>.
+         */
+        private long multiply(long a, long b) {
+            long low = a * b;
+            long high = Math.unsignedMultiplyHigh(a, b);
+            long m = low * negInverse;
+            // low + m*n is a multiple of 2^64, which carries out unless low is zero
+            long t = high + Math.unsignedMultiplyHigh(m, n) + (low != 0 ? 1 : 0);
+            return t >= n ? t - n : t;
+        }
+
+        private long pow(long a, long e) {
+            long ret = one;
+            for (int bit = 63 - Long.numberOfLeadingZeros(e); bit >= 0; bit--) {
+                ret = multiply(ret, ret);
+                if ((e >>> bit & 1) != 0) {
+                    ret = multiply(ret, a);
+                }
+            }
+            return ret;
+        }
+
+        private long step(long y, long c) {
+            long t = multiply(y, y) + c;
+            return t >= n ? t - n : t;
+        }
+    }
+
+    /**
+     * Multiplication modulo an odd magnitude in Montgomery form,
+     * where a value {@code a} is held as <code>a*2<sup>32k</sup> mod n</code> in exactly {@code k} limbs,
+     * the count of limbs of {@code n}.
+     * <br>
+     * Each product is reduced a limb at a time as it is summed (coarsely integrated operand scanning),
+     * so a step of rho or Miller-Rabin is one pass of multiplications without any division.
+     */
+    private static final class LimbMontgomery {
+        private final int[] modulus;
+        /**
+         * <code>-n<sup>-1</sup> mod 2<sup>32</sup></code>.
+         */
+        private final int negInverse;
+        /**
+         * One in Montgomery form, <code>2<sup>32k</sup> mod n</code>.
+         */
+        private final int[] one;
+        /**
+         * The sum that each product is reduced in, so that a step allocates nothing.
+         * This is why a {@code LimbMontgomery} is only ever used by one thread.
+         */
+        private final int[] scratch;
+
+        /**
+         * @param n The odd modulus, in at least two limbs.
+         */
+        private LimbMontgomery(int[] n) {
+            this.modulus = n;
+            // each step doubles the correct low bits, odd n is its own inverse to 3 bits
+            int inverse = n[0];
+            for (int i = 0; i < 4; i++) {
+                inverse *= 2 - n[0] * inverse;
+            }
+            this.negInverse = -inverse;
+            this.scratch = new int[n.length + 2];
+            this.one = from(Limbs.ONE);
+        }
+
+        private int[] zero() {
+            return new int[modulus.length];
+        }
+
+        /**
+         * Brings a magnitude into Montgomery form, which takes a division, so it is only done for constants.
+         * @param a The magnitude.
+         * @return <code>a*2<sup>32k</sup> mod n</code>, in {@code k} limbs.
+         */
+        private int[] from(int[] a) {
+            int[] ret = zero();
+            int[] rem = Division.divide(Limbs.shiftLeft(a, 32 * modulus.length), modulus)[1];
+            System.arraycopy(rem, 0, ret, 0, rem.length);
+            return ret;
+        }
+
+        /**
+         * Multiplies two values in Montgomery form.
+         * @param a The first value, below {@code n}.
+         * @param b The second value, below {@code n}.
+         * @param out Where <code>a*b*2<sup>-32k</sup> mod n</code> is put, which may be {@code a} or {@code b}.
+         */
+        private void multiply(int[] a, int[] b, int[] out) {
+            int k = modulus.length;
+            int[] t = scratch;
+            Arrays.fill(t, 0);
+            for (int i = 0; i < k; i++) {
+                long ai = a[i] & Limbs.MASK;
+                long carry = 0;
+                for (int j = 0; j < k; j++) {
+                    long sum = (t[j] & Limbs.MASK) + ai * (b[j] & Limbs.MASK) + carry;
+                    t[j] = (int) sum;
+                    carry = sum >>> 32;
+                }
+                long sum = (t[k] & Limbs.MASK) + carry;
+                t[k] = (int) sum;
+                t[k+1] = (int) (sum >>> 32);
+                // adding m*n clears the low limb, which is then shifted off
+                long m = (t[0] * negInverse) & Limbs.MASK;
+                carry = ((t[0] & Limbs.MASK) + m * (modulus[0] & Limbs.MASK)) >>> 32;
+                for (int j = 1; j < k; j++) {
+                    sum = (t[j] & Limbs.MASK) + m * (modulus[j] & Limbs.MASK) + carry;
+                    t[j-1] = (int) sum;
+                    carry = sum >>> 32;
+                }
+                sum = (t[k] & Limbs.MASK) + carry;
+                t[k-1] = (int) sum;
+                t[k] = t[k+1] + (int) (sum >>> 32);
+                t[k+1] = 0;
+            }
+            System.arraycopy(t, 0, out, 0, k);
+            if (t[k] != 0 || compare(out, modulus) >= 0) {
+                subtractInPlace(out, modulus);
+            }
+        }
+
+        /**
+         * Raises a value in Montgomery form to a power.
+         * @param a The value, in Montgomery form.
+         * @param e The magnitude of the power.
+         * @return <code>a<sup>e</sup></code>, in Montgomery form.
+         */
+        private int[] pow(int[] a, int[] e) {
+            int[] ret = one.clone();
+            for (int bit = Limbs.bitLength(e) - 1; bit >= 0; bit--) {
+                multiply(ret, ret, ret);
+                if ((e[bit >>> 5] >>> (bit & 31) & 1) != 0) {
+                    multiply(ret, a, ret);
+                }
+            }
+            return ret;
+        }
+
+        /**
+         * Takes a step of rho, <code>y<sup>2</sup> + c</code>, in Montgomery form.
+         * @param out Where the step is put, which may be {@code y}.
+         */
+        private void step(int[] y, int[] c, int[] out) {
+            multiply(y, y, out);
+            long carry = 0;
+            for (int i = 0; i < out.length; i++) {
+                long sum = (out[i] & Limbs.MASK) + (c[i] & Limbs.MASK) + carry;
+                out[i] = (int) sum;
+                carry = sum >>> 32;
+            }
+            if (carry != 0 || compare(out, modulus) >= 0) {
+                subtractInPlace(out, modulus);
+            }
+        }
+
+        /**
+         * Subtracts two values below {@code n}.
+         * @param out Where <code>a - b mod n</code> is put, which may be {@code a} or {@code b}.
+         */
+        private void subtract(int[] a, int[] b, int[] out) {
+            long borrow = 0;
+            for (int i = 0; i < out.length; i++) {
+                long diff = (a[i] & Limbs.MASK) - (b[i] & Limbs.MASK) - borrow;
+                out[i] = (int) diff;
+                borrow = diff >>> 63;
+            }
+            if (borrow != 0) {
+                // borrowed past the top, so n is added back, which carries out again
+                long carry = 0;
+                for (int i = 0; i < out.length; i++) {
+                    long sum = (out[i] & Limbs.MASK) + (modulus[i] & Limbs.MASK) + carry;
+                    out[i] = (int) sum;
+                    carry = sum >>> 32;
+                }
+            }
+        }
+
+        /**
+         * Compares two values of {@code k} limbs.
+         */
+        private static int compare(int[] a, int[] b) {
+            for (int i = a.length - 1; i >= 0; i--) {
+                if (a[i] != b[i]) {
+                    return Integer.compareUnsigned(a[i], b[i]);
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * Subtracts {@code b} from {@code a} in place, wrapping around below zero.
+         */
+        private static void subtractInPlace(int[] a, int[] b) {
+            long borrow = 0;
+            for (int i = 0; i < a.length; i++) {
+                long diff = (a[i] & Limbs.MASK) - (b[i] & Limbs.MASK) - borrow;
+                a[i] = (int) diff;
+                borrow = diff >>> 63;
+            }
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package arlot.math;
+
+/**
+ * The engine that turns the magnitudes of {@link Number}s into {@code double}s and {@code float}s and back.
+ * <br><br>
+ * A value is turned into a {@code double} or a {@code float} with exactly one rounding:
+ * the magnitude is divided by its power of ten with enough bits left over
+ * to tell which way the last bit goes, and the rest of the division is kept as a sticky bit,
+ * so the result is always the nearest one, with ties going to the even one.
+ * <br>
+ * A {@code double} or a {@code float} is turned into the shortest decimal that rounds back to it,
+ * the same decimal that {@link Double#toString(double)} and {@link Float#toString(float)} write.
+ * The leading digits of the binary value, and of the midpoints to its neighbours, are found first.
+ * Then the value is cut down to two digits, three digits and so on,
+ * trying the decimals on either side of it, until one of them lies between the midpoints,
+ * which means that it rounds back to the binary value. When both do, the nearer one is used.
+ */
+final class FloatingPoint {
+    /**
+     * The layout of a {@code double}.
+     */
+    static final Format DOUBLE = new Format(53, -1022, 1023, 17, 22);
+    /**
+     * The layout of a {@code float}.
+     */
+    static final Format FLOAT = new Format(24, -126, 127, 9, 10);
+    /**
+     * The count of leading digits that the shortest decimal is cut from,
+     * which is one more than any binary value needs.
+     */
+    private static final int LEAD_DIGITS = 18;
+    /**
+     * <code>log<sub>2</sub>(10)</code>.
+     */
+    private static final double LOG2_10 = 3.321928094887362;
+    /**
+     * The powers of ten that are exact as a {@code double}.
+     */
+    private static final double[] DOUBLE_POW10 = new double[DOUBLE.exactPowers + 1];
+    static {
+        DOUBLE_POW10[0] = 1;
+        for (int i = 1; i < DOUBLE_POW10.length; i++) {
+            DOUBLE_POW10[i] = DOUBLE_POW10[i - 1] * 10;
+        }
+    }
+
+    private FloatingPoint() {}
+
+    /**
+     * The layout of a binary floating point type.
+     * @param precision The count of bits in a value, including the hidden bit.
+     * @param minExponent The exponent of the smallest value that isn't subnormal.
+     * @param maxExponent The exponent of the biggest value.
+     * @param maxDigits The most decimal digits that any value needs to round back to itself.
+     * @param exactPowers The biggest power of ten that the type holds exactly.
+     */
+    record Format(int precision, int minExponent, int maxExponent, int maxDigits, int exactPowers) {}
+
+    /**
+     * Rounds a value to the nearest value of a binary type.
+     * @param signum The sign of the value.
+     * @param magnitude The magnitude of the value.
+     * @param scale The count of decimal places in {@code magnitude}, which may be negative.
+     * @param format The type to round to.
+     * @return The rounded value, which is a {@code float} widened to a {@code double} for {@link #FLOAT}.
+     */
+    static double toDouble(int signum, int[] magnitude, long scale, Format format) {
+        if (Limbs.isZero(magnitude)) {
+            return 0;
+        }
+        int length = Limbs.bitLength(magnitude);
+        if (scale < 0) {
+            // a value past the biggest one can't be pulled back by its magnitude
+            if (-scale > format.maxExponent) {
+                return signum * Double.POSITIVE_INFINITY;
+            }
+            magnitude = Limbs.multiply(magnitude, Limbs.pow10((int) -scale));
+            length = Limbs.bitLength(magnitude);
+            scale = 0;
+        }
+        if (length <= format.precision && scale <= format.exactPowers) {
+            // both the magnitude and the power are exact, so one division rounds once
+            long value = toLong(magnitude);
+            if (format == FLOAT) {
+                return signum * ((float) value / (float) DOUBLE_POW10[(int) scale]);
+            }
+            return signum * (value / DOUBLE_POW10[(int) scale]);
+        }
+        if (scale == 0) {
+            return signum * round(magnitude, false, 0, format);
+        }
+        // the exponent of the value is within one of this
+        double top = length - scale * LOG2_10;
+        if (top > format.maxExponent + 2) {
+            return signum * Double.POSITIVE_INFINITY;
+        } else if (top < format.minExponent - format.precision - 2) {
+            return signum * 0.0;
+        }
+        // enough bits are taken off the top of the quotient to round it, and two more
+        long shift = Math.max(0, format.precision + 3 - (long) Math.floor(top));
+        int[][] qr = Division.divide(Limbs.shiftLeft(magnitude, (int) shift), Limbs.pow10((int) scale));
+        return signum * round(qr[0], !Limbs.isZero(qr[1]), -shift, format);
+    }
+
+    /**
+     * Rounds a binary value to the nearest value of a binary type, with ties going to the even one.
+     * @param value The bits of the value.
+     * @param inexact {@code true} if the value is a bit more than {@code value},
+     *                which needs {@code value} to hold at least two bits more than the type.
+     * @param exponent The power of two that {@code value} is multiplied by.
+     * @param format The type to round to.
+     * @return The rounded value, which isn't negative.
+     */
+    private static double round(int[] value, boolean inexact, long exponent, Format format) {
+        int length = Limbs.bitLength(value);
+        long top = length - 1 + exponent;
+        if (top > format.maxExponent) {
+            return Double.POSITIVE_INFINITY;
+        }
+        // a subnormal value has fewer bits
+        long keep = format.precision - Math.max(0, format.minExponent - top);
+        if (keep < 0) {
+            return 0;
+        }
+        int shift = (int) (length - keep);
+        long bits;
+        if (shift <= 0) {
+            bits = toLong(value) << -shift;
+        } else {
+            bits = toLong(Limbs.shiftRight(value, shift));
+            boolean half = testBit(value, shift - 1);
+            if (half && (inexact || (bits & 1) == 1 || anyBelow(value, shift - 1))) {
+                bits++;
+            }
+        }
+        // the bits fit the type, so moving them is exact
+        double ret = Math.scalb((double) bits, (int) (exponent + shift));
+        return format == FLOAT ? (float) ret : ret;
+    }
+
+    /**
+     * Finds the shortest decimal that rounds back to a binary value.
+     * @param value The value, which must be finite.
+     * @param format The type of the value, a {@code float} is given as its widened {@code double}.
+     * @return The decimal.
+     */
+    static Number shortest(double value, Format format) {
+        if (value == 0) {
+            return new Number();
+        }
+        int signum = value < 0 ? -1 : 1;
+        double target = Math.abs(value);
+        if (target < Math.scalb(1.0, format.precision) && target == Math.rint(target)) {
+            // every whole number up to here is a value of its own, so no fewer digits round to it
+            return decimal(signum, (long) target, 0);
+        }
+        int fractionBits = format.precision - 1;
+        long bits = format == FLOAT ? Float.floatToRawIntBits((float) target) : Double.doubleToRawLongBits(target);
+        int biased = (int) (bits >>> fractionBits);
+        long fraction = bits & ((1L << fractionBits) - 1);
+        // the value is mantissa * 2^exponent
+        int bottom = format.minExponent - fractionBits;
+        long mantissa = biased == 0 ? fraction : fraction | 1L << fractionBits;
+        int exponent = biased == 0 ? bottom : bottom + biased - 1;
+        // the decimals that round to the value lie between the midpoints to its neighbours,
+        // and on the midpoints only when the mantissa is even;
+        // they are found in quarters of the last bit, since the lower neighbour is closer at a power of two
+        boolean closerBelow = fraction == 0 && biased > 1;
+        boolean even = (mantissa & 1) == 0;
+        long center = mantissa << 2;
+        long below = center - (closerBelow ? 1 : 2);
+        long above = center + 2;
+        exponent -= 2;
+        // the values are read in units of 10^unit, which leaves the value 18 or 19 digits
+        int unit = (int) Math.floor(Math.log10(target)) - (LEAD_DIGITS - 1);
+        long[] lead = scaled(center, exponent, unit);
+        if (lead[0] < Limbs.LONG_POW10[LEAD_DIGITS - 1]) {
+            lead = scaled(center, exponent, --unit);
+        }
+        long[] low = scaled(below, exponent, unit);
+        long[] high = scaled(above, exponent, unit);
+        int digits = lead[0] < Limbs.LONG_POW10[LEAD_DIGITS] ? LEAD_DIGITS : LEAD_DIGITS + 1;
+        boolean sticky = lead[1] != 0;
+        // a single digit is weighed against two digits, like Double.toString does
+        for (int length = 2; length <= format.maxDigits; length++) {
+            long step = Limbs.LONG_POW10[digits - length];
+            long down = lead[0] / step;
+            long rest = lead[0] % step;
+            int scale = length - digits - unit;
+            if (rest == 0 && !sticky) {
+                return decimal(signum, down, scale);
+            }
+            long up = down + 1;
+            boolean downs = inside(down * step, low, high, even);
+            boolean ups = inside(up * step, low, high, even);
+            if (downs && ups) {
+                long twice = 2 * rest;
+                boolean nearerUp = twice > step || twice == step && (sticky || (down & 1) == 1);
+                return decimal(signum, nearerUp ? up : down, scale);
+            } else if (downs || ups) {
+                return decimal(signum, downs ? down : up, scale);
+            }
+        }
+        throw new ArithmeticException("No decimal rounds back to "+value);
+    }
+
+    /**
+     * Finds <code>value * 2<sup>exponent</sup> / 10<sup>unit</sup></code>, cut off.
+     * @return The cut off value, and {@code 1} if anything was cut off or {@code 0} if not.
+     */
+    private static long[] scaled(long value, int exponent, int unit) {
+        if (unit <= 0 && -unit < Limbs.LONG_POW10.length && exponent < 0) {
+            // the product fits into 128 bits, which are shifted down to the value
+            long power = Limbs.LONG_POW10[-unit];
+            long high = Math.unsignedMultiplyHigh(value, power);
+            long low = value * power;
+            int shift = -exponent;
+            if (shift >= 128) {
+                return new long[] {0, high | low};
+            } else if (shift >= 64) {
+                return new long[] {high >>> (shift - 64), low | high << (128 - shift)};
+            }
+            return new long[] {low >>> shift | high << (64 - shift), low << (64 - shift)};
+        }
+        int[] top = Limbs.valueOf(value);
+        if (unit < 0) {
+            top = Limbs.multiply(top, Limbs.pow10(-unit));
+        }
+        if (exponent > 0) {
+            top = Limbs.shiftLeft(top, exponent);
+        }
+        if (unit <= 0) {
+            if (exponent >= 0) {
+                return new long[] {toLong(top), 0};
+            }
+            // only a shift, so the bits that are shifted out are what is cut off
+            return new long[] {toLong(Limbs.shiftRight(top, -exponent)), anyBelow(top, -exponent) ? 1 : 0};
+        }
+        int[] bottom = Limbs.pow10(unit);
+        if (exponent < 0) {
+            bottom = Limbs.shiftLeft(bottom, -exponent);
+        }
+        int[][] qr = Division.divide(top, bottom);
+        return new long[] {toLong(qr[0]), Limbs.isZero(qr[1]) ? 0 : 1};
+    }
+
+    /**
+     * Checks if a decimal, in the units of {@link #scaled(long, int, int)},
+     * lies between the midpoints to the neighbours of a binary value.
+     */
+    private static boolean inside(long decimal, long[] low, long[] high, boolean even) {
+        boolean aboveLow = decimal > low[0] || decimal == low[0] && low[1] == 0 && even;
+        boolean belowHigh = decimal < high[0] || decimal == high[0] && (high[1] != 0 || even);
+        return aboveLow && belowHigh;
+    }
+
+    /**
+     * Creates a {@code Number} from digits and a scale that may be negative.
+     */
+    private static Number decimal(int signum, long digits, int scale) {
+        int[] magnitude = Limbs.valueOf(digits);
+        if (scale < 0) {
+            magnitude = Limbs.multiply(magnitude, Limbs.pow10(-scale));
+            scale = 0;
+        }
+        return Number.valueOf(signum, magnitude, scale);
+    }
+
+    /**
+     * Gets the value of a magnitude of at most 64 bits.
+     */
+    private static long toLong(int[] value) {
+        long ret = 0;
+        for (int i = value.length - 1; i >= 0; i--) {
+            ret = ret << 32 | (value[i] & Limbs.MASK);
+        }
+        return ret;
+    }
+
+    /**
+     * Checks if a bit of a magnitude is set.
+     */
+    private static boolean testBit(int[] value, int bit) {
+        int limb = bit >>> 5;
+        return limb < value.length && (value[limb] >>> (bit & 31) & 1) != 0;
+    }
+
+    /**
+     * Checks if any bit of a magnitude below a bit is set.
+     */
+    private static boolean anyBelow(int[] value, int bit) {
+        int limb = bit >>> 5;
+        for (int i = 0; i < limb && i < value.length; i++) {
+            if (value[i] != 0) {
+                return true;
+            }
+        }
+        return limb < value.length && (value[limb] & ((1 << (bit & 31)) - 1)) != 0;
+    }
+}
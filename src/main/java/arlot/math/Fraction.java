@@ -27,12 +27,8 @@ public final class Fraction extends Numeric implements Cloneable, Serializable {
      * @return A fraction.
      */
     public static Fraction parseFraction(Number num) {
-        Number top = num.copy();
-        Number bottom = new Number(1);
-        while (top.toString().contains(".")) {
-            top.multiply(10);
-            bottom.multiply(10);
-        }
+        Number top = Number.valueOf(num.signum(), num.magnitude(), 0);
+        Number bottom = Number.valueOf(1, Limbs.pow10(num.scale()), 0);
         return new Fraction(top, bottom);
     }
 
@@ -71,6 +67,14 @@ public final class Fraction extends Numeric implements Cloneable, Serializable {
      * This is the stored negative value of this {@code Fraction}.
      */
     private boolean negative = false;
+    /**
+     * This is whether this {@code Fraction} waits to be simplified until it is looked at.
+     */
+    private boolean lazy = false;
+    /**
+     * This is whether this {@code Fraction} may not be in its lowest terms, only used when {@link #lazy}.
+     */
+    private boolean unsimplified = false;
 
     // constructors
     public Fraction(Number numerator, Number denominator) {
@@ -89,6 +93,8 @@ public final class Fraction extends Numeric implements Cloneable, Serializable {
         this.numerator = fraction.numerator.copy();
         this.denominator = fraction.denominator.copy();
         this.negative = fraction.negative;
+        this.lazy = fraction.lazy;
+        this.unsimplified = fraction.unsimplified;
         removeDecimals();
     }
     public Fraction(String fraction) {
@@ -104,20 +110,64 @@ public final class Fraction extends Numeric implements Cloneable, Serializable {
     /**
      * Returns the {@link #numerator} that makes up the
      * fractional part of the {@code Fraction}.
+     * <br>
+     * A {@link #isLazy() lazy} {@code Fraction} is simplified first.
      * @return The {@link #numerator}.
      */
     public Number getNumerator() {
+        observe();
         return numerator;
     }
     /**
      * Returns the {@link #denominator} that makes up the
      * fractional part of the {@code Fraction}.
+     * <br>
+     * A {@link #isLazy() lazy} {@code Fraction} is simplified first.
      * @return The {@link #denominator}.
      */
     public Number getDenominator() {
+        observe();
         return denominator;
     }
 
+    /**
+     * Checks if this {@code Fraction} is lazy.
+     * @return true if this {@code Fraction} waits to be simplified until it is looked at.
+     * @see #setLazy(boolean)
+     */
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * Sets if this {@code Fraction} is lazy.
+     * <br>
+     * A lazy {@code Fraction} doesn't find any common factors while it is added to or subtracted from,
+     * it only keeps its {@link #numerator} and {@link #denominator} whole.
+     * It is simplified once, when it is looked at
+     * ({@link #getNumerator()}, {@link #getDenominator()}, {@link #toString()} or {@link #toNumber()}).
+     * This makes a chain of arithmetic only pay for one {@link #simplify()} at its end.
+     * @param lazy true to wait to simplify until this {@code Fraction} is looked at.
+     * @return Itself.
+     */
+    public Fraction setLazy(boolean lazy) {
+        if (!lazy) {
+            observe();
+        }
+        this.lazy = lazy;
+        return this;
+    }
+
+    /**
+     * Simplifies this {@code Fraction} if it is {@link #isLazy() lazy} and may not be in its lowest terms.
+     */
+    private void observe() {
+        if (lazy && unsimplified) {
+            unsimplified = false;
+            simplify();
+        }
+    }
+
     /**
      *
      * @return true if this {@code Fraction} is negative, otherwise false.
@@ -147,7 +197,7 @@ public final class Fraction extends Numeric implements Cloneable, Serializable {
      */
     public void removeDecimals() {
         Fraction nume, deno;
-        if (numerator.toString().contains(".") || denominator.toString().contains(".")) {
+        if (numerator.isDecimal() || denominator.isDecimal()) {
             nume = parseFraction(numerator);
             deno = parseFraction(denominator);
 
@@ -164,15 +214,50 @@ public final class Fraction extends Numeric implements Cloneable, Serializable {
      */
     public Fraction simplify() {
         removeDecimals();
-        if (denominator.symbols("eq", "0") && numerator.symbols("ne", "0")) {
+        if (denominator.signum() == 0 && numerator.signum() != 0) {
             throw new ArithmeticException("A fraction cannot have a denominator of zero when the numerator isn't zero");
         }
-        Number gcf = Advanced.gcf(numerator, denominator);
-        numerator.divide(gcf);
-        denominator.divide(gcf);
+        int[] gcf = GreatestCommonDivisor.gcd(numerator.magnitude(), denominator.magnitude());
+        if (Limbs.compare(gcf, Limbs.ONE) > 0) {
+            numerator.update(Number.valueOf(1, Division.divide(numerator.magnitude(), gcf)[0], 0));
+            denominator.update(Number.valueOf(1, Division.divide(denominator.magnitude(), gcf)[0], 0));
+        }
+        unsimplified = false;
         return this;
     }
 
+    /**
+     * Multiplies this {@code Fraction} by <code>top/bottom</code>,
+     * cancelling the common factors across the two fractions before multiplying.
+     * <br>
+     * With <code>a/b * c/d</code>, {@code gcd(a, d)} and {@code gcd(c, b)} are divided out first,
+     * so the products are as small as they can be,
+     * and two fractions in their lowest terms give a product in its lowest terms.
+     * @param top The whole numerator to multiply by, not negative.
+     * @param bottom The whole denominator to multiply by, not negative.
+     */
+    private void crossMultiply(Number top, Number bottom) {
+        int[] a = numerator.magnitude();
+        int[] b = denominator.magnitude();
+        int[] c = top.magnitude();
+        int[] d = bottom.magnitude();
+        int[] ad = GreatestCommonDivisor.gcd(a, d);
+        if (Limbs.compare(ad, Limbs.ONE) > 0) {
+            a = Division.divide(a, ad)[0];
+            d = Division.divide(d, ad)[0];
+        }
+        int[] cb = GreatestCommonDivisor.gcd(c, b);
+        if (Limbs.compare(cb, Limbs.ONE) > 0) {
+            c = Division.divide(c, cb)[0];
+            b = Division.divide(b, cb)[0];
+        }
+        numerator.update(Number.valueOf(1, Limbs.multiply(a, c), 0));
+        denominator.update(Number.valueOf(1, Limbs.multiply(b, d), 0));
+        if (numerator.signum() == 0) {
+            negative = false;
+        }
+    }
+
     private Fraction mathSet(Fraction fraction) {
         Objects.requireNonNull(fraction);
         fraction = fraction.copy();
@@ -207,6 +292,15 @@ public final class Fraction extends Numeric implements Cloneable, Serializable {
         } else if (fraction.isNegative()) {
             fraction.negative = false;
             subtract(fraction);
+        } else if (lazy) {
+            // a/b + c/d = (a*d + c*b)/(b*d), the common factors are found when it is looked at
+            if (denominator.compareTo(fraction.denominator) == 0) {
+                numerator.add(fraction.numerator);
+            } else {
+                numerator.multiply(fraction.denominator).add(fraction.numerator.copy().multiply(denominator));
+                denominator.multiply(fraction.denominator);
+            }
+            unsimplified = true;
         } else {
             if (denominator.equals(fraction.getDenominator())) {
                 numerator.add(fraction.getNumerator());
@@ -238,7 +332,8 @@ public final class Fraction extends Numeric implements Cloneable, Serializable {
             negative = false;
             fraction.negative = false;
             subtract(fraction);
-            negative = true;
+            // -a - -b = -(a - b)
+            negative = !negative && numerator.signum() != 0;
         } else if (isNegative()) {
             negative = false;
             fraction.add(this);
@@ -249,7 +344,16 @@ public final class Fraction extends Numeric implements Cloneable, Serializable {
             fraction.negative = false;
             add(fraction);
         } else {
-            if (denominator.equals(fraction.getDenominator())) {
+            if (lazy) {
+                // a/b - c/d = (a*d - c*b)/(b*d), the common factors are found when it is looked at
+                if (denominator.compareTo(fraction.denominator) == 0) {
+                    numerator.subtract(fraction.numerator);
+                } else {
+                    numerator.multiply(fraction.denominator).subtract(fraction.numerator.copy().multiply(denominator));
+                    denominator.multiply(fraction.denominator);
+                }
+                unsimplified = true;
+            } else if (denominator.equals(fraction.getDenominator())) {
                 numerator.subtract(fraction.getNumerator());
             } else {
                 if (fraction.getDenominator().symbols("eq", "1")) {
@@ -259,6 +363,8 @@ public final class Fraction extends Numeric implements Cloneable, Serializable {
                     numerator.subtract(fraction.getNumerator());
                 }
             }
+            // a bigger fraction was taken away
+            negativeCheck();
         }
         return this;
     }
@@ -275,8 +381,8 @@ public final class Fraction extends Numeric implements Cloneable, Serializable {
     }
     public Fraction multiply(Fraction fraction) {
         fraction = mathSet(fraction);
-        numerator.multiply(fraction.getNumerator());
-        denominator.multiply(fraction.getDenominator());
+        negative = negative != fraction.negative;
+        crossMultiply(fraction.numerator, fraction.denominator);
         return this;
     }
 
@@ -292,8 +398,11 @@ public final class Fraction extends Numeric implements Cloneable, Serializable {
     }
     public Fraction divide(Fraction fraction) {
         fraction = mathSet(fraction);
-        numerator.multiply(fraction.getDenominator());
-        denominator.multiply(fraction.getNumerator());
+        if (fraction.numerator.signum() == 0) {
+            throw new ArithmeticException(" / by zero");
+        }
+        negative = negative != fraction.negative;
+        crossMultiply(fraction.denominator, fraction.numerator);
         return this;
     }
 
@@ -312,6 +421,7 @@ public final class Fraction extends Numeric implements Cloneable, Serializable {
      */
     @Override
     public Number toNumber() {
+        observe();
         Number num = numerator.copy();
         num.divide(denominator);
         if (isNegative()) {
@@ -328,6 +438,7 @@ public final class Fraction extends Numeric implements Cloneable, Serializable {
      */
     @Override
     public String toString() {
+        observe();
         String ret = "";
         if (isNegative()) {
             ret += "-";
@@ -344,6 +455,8 @@ public final class Fraction extends Numeric implements Cloneable, Serializable {
     public Fraction copy() {
         Fraction fraction = new Fraction(numerator, denominator);
         fraction.negative = negative;
+        fraction.lazy = lazy;
+        fraction.unsimplified = unsimplified;
         return fraction;
     }
 
@@ -0,0 +1,191 @@
+package arlot.math;
+
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * The engine that finds the greatest common divisors and least common multiples
+ * of the magnitudes of {@link Number}s.
+ * <br><br>
+ * Big values use Lehmer's algorithm: the steps of Euclid's algorithm are
+ * found from the top 62 bits of the values alone, and then applied to the whole values at once,
+ * so most steps cost a few multiplications by a {@code long} instead of a division.
+ * Once both values fit into a {@code long}, the binary algorithm finishes with shifts and subtractions.
+ * <br>
+ * Many values are reduced as a balanced tree,
+ * whose branches can be reduced on separate threads.
+ */
+final class GreatestCommonDivisor {
+    /**
+     * The count of values a branch must have before its halves are reduced on separate threads.
+     */
+    static final int PARALLEL_THRESHOLD = 1024;
+    /**
+     * The count of values below which a branch is reduced in a loop.
+     */
+    private static final int LEAF_SIZE = 16;
+
+    private GreatestCommonDivisor() {}
+
+    /**
+     * Finds the greatest common divisor of two magnitudes.
+     * @param a The first magnitude.
+     * @param b The second magnitude.
+     * @return The greatest common divisor, which is the other value if one is zero.
+     */
+    static int[] gcd(int[] a, int[] b) {
+        if (Limbs.compare(a, b) < 0) {
+            int[] t = a;
+            a = b;
+            b = t;
+        }
+        // a >= b from here on
+        while (Limbs.bitLength(a) > 63) {
+            if (Limbs.isZero(b)) {
+                return a;
+            }
+            int shift = Limbs.bitLength(a) - 62;
+            long ah = toLong(Limbs.shiftRight(a, shift));
+            long bh = toLong(Limbs.shiftRight(b, shift));
+            // the quotients are only taken while they are certain, see Knuth's algorithm L
+            long x = 1, y = 0, z = 0, w = 1;
+            while (bh + z > 0 && bh + w > 0) {
+                long q = (ah + x) / (bh + z);
+                if (q != (ah + y) / (bh + w)) {
+                    break;
+                }
+                long t = x - q * z;
+                x = z;
+                z = t;
+                t = y - q * w;
+                y = w;
+                w = t;
+                t = ah - q * bh;
+                ah = bh;
+                bh = t;
+            }
+            if (y == 0) {
+                // no step was certain, so one step is taken in full
+                int[] r = Division.divide(a, b)[1];
+                a = b;
+                b = r;
+            } else {
+                int[] na = combine(a, x, b, y);
+                b = combine(a, z, b, w);
+                a = na;
+            }
+        }
+        return Limbs.valueOf(gcd(toLong(a), toLong(b)));
+    }
+
+    /**
+     * Finds the least common multiple of two magnitudes,
+     * as <code>a/gcd(a, b)*b</code> so that nothing bigger than the result is made.
+     * @param a The first magnitude.
+     * @param b The second magnitude.
+     * @return The least common multiple, which is zero if either value is zero.
+     */
+    static int[] lcm(int[] a, int[] b) {
+        if (Limbs.isZero(a) || Limbs.isZero(b)) {
+            return Limbs.ZERO;
+        }
+        return Limbs.multiply(Division.divide(a, gcd(a, b))[0], b);
+    }
+
+    /**
+     * Reduces many magnitudes to one as a balanced tree.
+     * @param values The magnitudes, there must be at least one.
+     * @param operator The reduction, {@link #gcd(int[], int[])} or {@link #lcm(int[], int[])}.
+     * @param parallel {@code true} to reduce big branches across threads.
+     * @return The reduction of every value.
+     */
+    static int[] reduce(int[][] values, BinaryOperator<int[]> operator, boolean parallel) {
+        return new Reduction(values, 0, values.length, operator, parallel).invoke();
+    }
+
+    /**
+     * Finds <code>x*a + y*b</code>, which is known not to be negative.
+     */
+    private static int[] combine(int[] a, long x, int[] b, long y) {
+        int[] ax = Limbs.multiply(a, Limbs.valueOf(Math.abs(x)));
+        int[] by = Limbs.multiply(b, Limbs.valueOf(Math.abs(y)));
+        if ((x >= 0) == (y >= 0)) {
+            return Limbs.add(ax, by);
+        }
+        return x >= 0 ? Limbs.subtract(ax, by) : Limbs.subtract(by, ax);
+    }
+
+    /**
+     * Finds the greatest common divisor of two values that aren't negative, with the binary algorithm.
+     * @param a The first value.
+     * @param b The second value.
+     * @return The greatest common divisor, which is the other value if one is zero.
+     */
+    static long gcd(long a, long b) {
+        if (a == 0 || b == 0) {
+            return a | b;
+        }
+        int shift = Long.numberOfTrailingZeros(a | b);
+        a >>>= Long.numberOfTrailingZeros(a);
+        while (b != 0) {
+            b >>>= Long.numberOfTrailingZeros(b);
+            if (a > b) {
+                long t = a;
+                a = b;
+                b = t;
+            }
+            b -= a;
+        }
+        return a << shift;
+    }
+
+    private static long toLong(int[] value) {
+        long ret = 0;
+        for (int i = value.length - 1; i >= 0; i--) {
+            ret = ret << 32 | (value[i] & 0xFFFFFFFFL);
+        }
+        return ret;
+    }
+
+    /**
+     * Reduces a range of magnitudes, splitting big ranges in half.
+     */
+    private static final class Reduction extends RecursiveTask<int[]> {
+        @java.io.Serial
+        private static final long serialVersionUID = 1L;
+
+        private final int[][] values;
+        private final int from;
+        private final int to;
+        private final transient BinaryOperator<int[]> operator;
+        private final boolean parallel;
+
+        private Reduction(int[][] values, int from, int to, BinaryOperator<int[]> operator, boolean parallel) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+            this.operator = operator;
+            this.parallel = parallel;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= LEAF_SIZE) {
+                int[] ret = values[from];
+                for (int i = from + 1; i < to; i++) {
+                    ret = operator.apply(ret, values[i]);
+                }
+                return ret;
+            }
+            int middle = (from + to) >>> 1;
+            Reduction left = new Reduction(values, from, middle, operator, parallel);
+            Reduction right = new Reduction(values, middle, to, operator, parallel);
+            if (parallel && to - from >= PARALLEL_THRESHOLD) {
+                left.fork();
+                int[] upper = right.compute();
+                return operator.apply(left.join(), upper);
+            }
+            return operator.apply(left.compute(), right.compute());
+        }
+    }
+}
@@ -0,0 +1,503 @@
+package arlot.math;
+
+import java.math.BigInteger;
+
+/**
+ * Unsigned arithmetic over magnitudes that are stored as little-endian
+ * {@code int} limbs, where each limb is a base 2<sup>32</sup> digit.
+ * <br>
+ * This is the working layer underneath {@link Number}.
+ * Every magnitude given to or returned from these methods is normalized,
+ * meaning that its most significant limb is never zero and zero itself
+ * is the empty array.
+ * <br>
+ * None of these methods modify the arrays that are passed to them,
+ * a new array is always returned when the value changes.
+ */
+final class Limbs {
+    /**
+     * Masks an {@code int} limb into its unsigned {@code long} value.
+     */
+    static final long MASK = 0xFFFFFFFFL;
+    /**
+     * The magnitude of zero.
+     */
+    static final int[] ZERO = new int[0];
+    /**
+     * The magnitude of one.
+     */
+    static final int[] ONE = {1};
+    /**
+     * The largest power of ten that fits into one limb.
+     */
+    static final int DECIMAL_BASE = 1_000_000_000;
+    /**
+     * The count of decimal digits held by {@link #DECIMAL_BASE}.
+     */
+    static final int DECIMAL_DIGITS = 9;
+    /**
+     * The powers of ten that fit into an {@code int}.
+     */
+    static final int[] INT_POW10 = {
+            1, 10, 100, 1_000, 10_000, 100_000,
+            1_000_000, 10_000_000, 100_000_000, 1_000_000_000
+    };
+    /**
+     * The powers of ten that fit into a {@code long}.
+     */
+    static final long[] LONG_POW10 = new long[19];
+    static {
+        LONG_POW10[0] = 1;
+        for (int i = 1; i < LONG_POW10.length; i++) {
+            LONG_POW10[i] = LONG_POW10[i-1] * 10;
+        }
+    }
+    /**
+     * The first powers of ten as magnitudes,
+     * which reach past every power of ten that a {@code double} needs (see {@link FloatingPoint}).
+     */
+    private static final int[][] POW10 = new int[344][];
+    static {
+        POW10[0] = ONE;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = multiply(POW10[i-1], 10);
+        }
+    }
+
+    private Limbs() {}
+
+    // creation
+
+    /**
+     * Creates a magnitude from an unsigned {@code long} value.
+     * @param value The value, read as unsigned.
+     * @return The magnitude of {@code value}.
+     */
+    static int[] valueOf(long value) {
+        if (value == 0) {
+            return ZERO;
+        }
+        int high = (int) (value >>> 32);
+        if (high == 0) {
+            return new int[] {(int) value};
+        }
+        return new int[] {(int) value, high};
+    }
+
+    /**
+     * Removes the zero limbs from the most significant end of a magnitude.
+     * @param value The limbs to trim.
+     * @param length The count of limbs in {@code value} that are in use.
+     * @return {@code value} if it is already trimmed, otherwise a trimmed copy.
+     */
+    static int[] trim(int[] value, int length) {
+        while (length > 0 && value[length-1] == 0) {
+            length--;
+        }
+        if (length == value.length) {
+            return value;
+        } else if (length == 0) {
+            return ZERO;
+        }
+        int[] ret = new int[length];
+        System.arraycopy(value, 0, ret, 0, length);
+        return ret;
+    }
+
+    /**
+     * Gets {@code 10}<sup>{@code n}</sup> as a magnitude.
+     * @param n The exponent, must not be negative.
+     * @return The magnitude of {@code 10}<sup>{@code n}</sup>.
+     */
+    static int[] pow10(int n) {
+        if (n < POW10.length) {
+            return POW10[n];
+        }
+        int[] half = pow10(n / 2);
+        int[] ret = multiply(half, half);
+        if ((n & 1) == 1) {
+            ret = multiply(ret, 10);
+        }
+        return ret;
+    }
+
+    // checks
+
+    /**
+     * Checks if a magnitude is zero.
+     * @param value The magnitude to check.
+     * @return {@code true} if {@code value} is zero.
+     */
+    static boolean isZero(int[] value) {
+        return value.length == 0;
+    }
+
+    /**
+     * Compares two magnitudes.
+     * @param a The first magnitude.
+     * @param b The second magnitude.
+     * @return A negative number, zero or a positive number
+     * as {@code a} is less than, equal to or greater than {@code b}.
+     */
+    static int compare(int[] a, int[] b) {
+        if (a.length != b.length) {
+            return a.length < b.length ? -1 : 1;
+        }
+        for (int i = a.length-1; i >= 0; i--) {
+            if (a[i] != b[i]) {
+                return Integer.compareUnsigned(a[i], b[i]);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the count of bits needed to hold a magnitude.
+     * @param value The magnitude.
+     * @return The bit length of {@code value}.
+     */
+    static int bitLength(int[] value) {
+        if (value.length == 0) {
+            return 0;
+        }
+        return (value.length << 5) - Integer.numberOfLeadingZeros(value[value.length-1]);
+    }
+
+    // add and subtract
+
+    /**
+     * Adds two magnitudes.
+     * @param a The first magnitude.
+     * @param b The second magnitude.
+     * @return The sum of {@code a} and {@code b}.
+     */
+    static int[] add(int[] a, int[] b) {
+        if (a.length < b.length) {
+            int[] t = a;
+            a = b;
+            b = t;
+        }
+        if (b.length == 0) {
+            return a;
+        }
+        int[] ret = new int[a.length+1];
+        long carry = 0;
+        int i = 0;
+        for (; i < b.length; i++) {
+            long sum = (a[i] & MASK) + (b[i] & MASK) + carry;
+            ret[i] = (int) sum;
+            carry = sum >>> 32;
+        }
+        for (; i < a.length; i++) {
+            long sum = (a[i] & MASK) + carry;
+            ret[i] = (int) sum;
+            carry = sum >>> 32;
+        }
+        ret[i] = (int) carry;
+        return trim(ret, ret.length);
+    }
+
+    /**
+     * Subtracts a magnitude from a magnitude that is not smaller than it.
+     * @param a The magnitude to subtract from.
+     * @param b The magnitude to subtract, must not be greater than {@code a}.
+     * @return The difference of {@code a} and {@code b}.
+     */
+    static int[] subtract(int[] a, int[] b) {
+        if (b.length == 0) {
+            return a;
+        }
+        int[] ret = new int[a.length];
+        long borrow = 0;
+        int i = 0;
+        for (; i < b.length; i++) {
+            long diff = (a[i] & MASK) - (b[i] & MASK) - borrow;
+            ret[i] = (int) diff;
+            borrow = diff >>> 63;
+        }
+        for (; i < a.length; i++) {
+            long diff = (a[i] & MASK) - borrow;
+            ret[i] = (int) diff;
+            borrow = diff >>> 63;
+        }
+        return trim(ret, ret.length);
+    }
+
+    // multiply
+
+    /**
+     * Multiplies a magnitude by an unsigned {@code int}.
+     * @param a The magnitude.
+     * @param m The unsigned multiplier.
+     * @return The product of {@code a} and {@code m}.
+     */
+    static int[] multiply(int[] a, int m) {
+        if (a.length == 0 || m == 0) {
+            return ZERO;
+        }
+        long mul = m & MASK;
+        int[] ret = new int[a.length+1];
+        long carry = 0;
+        for (int i = 0; i < a.length; i++) {
+            long product = (a[i] & MASK) * mul + carry;
+            ret[i] = (int) product;
+            carry = product >>> 32;
+        }
+        ret[a.length] = (int) carry;
+        return trim(ret, ret.length);
+    }
+
+    /**
+     * Multiplies two magnitudes.
+     * @param a The first magnitude.
+     * @param b The second magnitude.
+     * @return The product of {@code a} and {@code b}.
+     * @see Multiplication
+     */
+    static int[] multiply(int[] a, int[] b) {
+        return Multiplication.multiply(a, b);
+    }
+
+    // divide
+
+    /**
+     * Divides a magnitude by an unsigned {@code int}.
+     * @param a The magnitude to divide.
+     * @param d The unsigned divisor, must not be zero.
+     * @param quotient An array at least as long as {@code a} that the
+     *                 quotient limbs are written into, may be {@code null}
+     *                 when only the remainder is wanted.
+     * @return The remainder, as an unsigned value.
+     */
+    static long divide(int[] a, int d, int[] quotient) {
+        long div = d & MASK;
+        long rem = 0;
+        for (int i = a.length-1; i >= 0; i--) {
+            long cur = (rem << 32) | (a[i] & MASK);
+            long q = Long.divideUnsigned(cur, div);
+            rem = cur - q * div;
+            if (quotient != null) {
+                quotient[i] = (int) q;
+            }
+        }
+        return rem;
+    }
+
+    /**
+     * Divides two magnitudes.
+     * <br>
+     * This uses Knuth's long division (Algorithm D),
+     * working on a whole limb at a time.
+     * @param a The dividend.
+     * @param b The divisor, must not be zero.
+     * @return An array holding the quotient and then the remainder.
+     */
+    static int[][] divide(int[] a, int[] b) {
+        if (b.length == 0) {
+            throw new ArithmeticException(" / by zero");
+        }
+        if (compare(a, b) < 0) {
+            return new int[][] {ZERO, a};
+        }
+        if (b.length == 1) {
+            int[] q = new int[a.length];
+            long r = divide(a, b[0], q);
+            return new int[][] {trim(q, q.length), valueOf(r)};
+        }
+        int n = b.length;
+        int m = a.length - n;
+        int shift = Integer.numberOfLeadingZeros(b[n-1]);
+        int[] v = shiftLimbs(b, shift, n);
+        int[] u = shiftLimbs(a, shift, a.length+1);
+        int[] q = new int[m+1];
+        long vTop = v[n-1] & MASK;
+        long vNext = v[n-2] & MASK;
+        for (int j = m; j >= 0; j--) {
+            long num = ((u[j+n] & MASK) << 32) | (u[j+n-1] & MASK);
+            long qhat = Long.divideUnsigned(num, vTop);
+            long rhat = num - qhat * vTop;
+            while (qhat > MASK
+                    || Long.compareUnsigned(qhat * vNext, (rhat << 32) | (u[j+n-2] & MASK)) > 0) {
+                qhat--;
+                rhat += vTop;
+                if (rhat > MASK) {
+                    break;
+                }
+            }
+            long carry = 0;
+            long borrow = 0;
+            for (int i = 0; i < n; i++) {
+                long product = qhat * (v[i] & MASK) + carry;
+                carry = product >>> 32;
+                long diff = (u[i+j] & MASK) - (product & MASK) - borrow;
+                u[i+j] = (int) diff;
+                borrow = diff >>> 63;
+            }
+            long diff = (u[j+n] & MASK) - carry - borrow;
+            u[j+n] = (int) diff;
+            if (diff < 0) {
+                qhat--;
+                long c = 0;
+                for (int i = 0; i < n; i++) {
+                    long sum = (u[i+j] & MASK) + (v[i] & MASK) + c;
+                    u[i+j] = (int) sum;
+                    c = sum >>> 32;
+                }
+                u[j+n] += (int) c;
+            }
+            q[j] = (int) qhat;
+        }
+        int[] r = new int[n];
+        for (int i = 0; i < n; i++) {
+            r[i] = shift == 0 ? u[i] : (u[i] >>> shift) | (u[i+1] << (32-shift));
+        }
+        return new int[][] {trim(q, q.length), trim(r, r.length)};
+    }
+
+    /**
+     * Shifts a magnitude to the left by less than one limb,
+     * into an array of a set size.
+     */
+    private static int[] shiftLimbs(int[] a, int shift, int length) {
+        int[] ret = new int[length];
+        if (shift == 0) {
+            System.arraycopy(a, 0, ret, 0, a.length);
+            return ret;
+        }
+        int carry = 0;
+        for (int i = 0; i < a.length; i++) {
+            ret[i] = (a[i] << shift) | carry;
+            carry = a[i] >>> (32-shift);
+        }
+        if (a.length < length) {
+            ret[a.length] = carry;
+        }
+        return ret;
+    }
+
+    // shifts
+
+    /**
+     * Shifts a magnitude to the left.
+     * @param a The magnitude.
+     * @param bits The amount of bits to shift by, must not be negative.
+     * @return {@code a} times 2<sup>{@code bits}</sup>.
+     */
+    static int[] shiftLeft(int[] a, int bits) {
+        if (a.length == 0 || bits == 0) {
+            return a;
+        }
+        int words = bits >>> 5;
+        int shift = bits & 31;
+        int[] ret = new int[a.length+words+1];
+        if (shift == 0) {
+            System.arraycopy(a, 0, ret, words, a.length);
+        } else {
+            int carry = 0;
+            for (int i = 0; i < a.length; i++) {
+                ret[i+words] = (a[i] << shift) | carry;
+                carry = a[i] >>> (32-shift);
+            }
+            ret[a.length+words] = carry;
+        }
+        return trim(ret, ret.length);
+    }
+
+    /**
+     * Shifts a magnitude to the right, dropping the bits that fall off.
+     * @param a The magnitude.
+     * @param bits The amount of bits to shift by, must not be negative.
+     * @return {@code a} divided by 2<sup>{@code bits}</sup>, rounded down.
+     */
+    static int[] shiftRight(int[] a, int bits) {
+        if (a.length == 0 || bits == 0) {
+            return a;
+        }
+        int words = bits >>> 5;
+        int shift = bits & 31;
+        if (words >= a.length) {
+            return ZERO;
+        }
+        int[] ret = new int[a.length-words];
+        for (int i = 0; i < ret.length; i++) {
+            int low = a[i+words] >>> shift;
+            int high = (shift == 0 || i+words+1 >= a.length) ? 0 : a[i+words+1] << (32-shift);
+            ret[i] = low | high;
+        }
+        return trim(ret, ret.length);
+    }
+
+    // decimal conversion
+
+    /**
+     * Reads the decimal digits in a range of a {@link CharSequence} as a magnitude.
+     * <br>
+     * Any dot (.) inside the range is skipped,
+     * which allows the digits of a decimal number to be read as one whole number.
+     * @param digits The characters to read.
+     * @param start The index to start at (inclusive).
+     * @param end The index to end at (exclusive).
+     * @return The magnitude of the read digits.
+     * @throws NumberFormatException if the range holds anything other than digits and dots.
+     */
+    static int[] parse(CharSequence digits, int start, int end) {
+        int[] ret = ZERO;
+        int from = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || digits.charAt(i) == '.') {
+                int[] part = Radix.parse(digits, from, i, 10);
+                ret = from == start ? part : add(multiply(ret, pow10(i - from)), part);
+                from = i + 1;
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Writes a magnitude out as decimal digits.
+     * @param value The magnitude.
+     * @return The decimal digits of {@code value}, without any leading zeros.
+     */
+    static String toDecimalString(int[] value) {
+        return Radix.toString(value, 10);
+    }
+
+    // java.math
+
+    /**
+     * Creates a magnitude from the absolute value of a {@link BigInteger}.
+     * @param value The value.
+     * @return The magnitude of {@code value}.
+     */
+    static int[] valueOf(BigInteger value) {
+        // the bytes are big-endian two's complement, with a leading sign byte if needed
+        byte[] bytes = value.abs().toByteArray();
+        int[] ret = new int[(bytes.length + 3) / 4];
+        for (int i = 0; i < bytes.length; i++) {
+            int at = bytes.length - 1 - i;
+            ret[i >>> 2] |= (bytes[at] & 0xFF) << ((i & 3) << 3);
+        }
+        return trim(ret, ret.length);
+    }
+
+    /**
+     * Creates a {@link BigInteger} from a sign and a magnitude.
+     * @param signum The sign of the value.
+     * @param value The magnitude.
+     * @return The {@link BigInteger} of the value.
+     */
+    static BigInteger toBigInteger(int signum, int[] value) {
+        if (value.length == 0) {
+            return BigInteger.ZERO;
+        }
+        byte[] bytes = new byte[value.length << 2];
+        for (int i = 0; i < value.length; i++) {
+            int at = bytes.length - 4 - (i << 2);
+            bytes[at] = (byte) (value[i] >>> 24);
+            bytes[at + 1] = (byte) (value[i] >>> 16);
+            bytes[at + 2] = (byte) (value[i] >>> 8);
+            bytes[at + 3] = (byte) value[i];
+        }
+        return new BigInteger(signum, bytes);
+    }
+}
@@ -0,0 +1,355 @@
+package arlot.math;
+
+/**
+ * The engine that finds the logarithms of {@link Number}s.
+ * <br><br>
+ * Values are worked on in fixed point, as a magnitude over <code>2<sup>bits</sup></code>.
+ * The natural logarithm of <code>m/10<sup>s</sup></code> is reduced to
+ * <code>ln(y) + k*ln(2) - s*ln(10)</code>, where <code>y = m/2<sup>k</sup></code> is from 1 up to 2.
+ * {@code y} is brought closer to 1 by taking its square root a few times,
+ * then <code>ln(y) = 2*atanh((y-1)/(y+1))</code> is summed as a series,
+ * which gains more than twice as many bits per term as square roots were taken.
+ * <br>
+ * <br>
+ * A power with a decimal exponent is <code>e<sup>y</sup></code>, where <code>y = exponent*ln(base)</code>.
+ * {@code y} is split into <code>n*ln(2) + r</code>, with {@code r} from 0 up to {@code ln(2)},
+ * and <code>e<sup>r</sup></code> is summed as a series after halving {@code r} a few times,
+ * then squared back, so the power is <code>e<sup>r</sup>*2<sup>n</sup></code>.
+ * <br>
+ * {@code ln(2)} and {@code ln(10)} are found from Machin-like sums of {@code atanh(1/k)},
+ * which only need division by small numbers.
+ * They are kept at the highest precision that they were found at,
+ * so a lower precision is only a shift.
+ */
+final class Logarithm {
+    /**
+     * The extra bits kept while working, to cover the rounding of every step.
+     */
+    private static final int GUARD_BITS = 64;
+    /**
+     * log<sub>2</sub>(10), for turning decimal places into bits.
+     */
+    private static final double LOG2_10 = Math.log(10) / Math.log(2);
+
+    private static volatile Constant ln2;
+    private static volatile Constant ln10;
+
+    private Logarithm() {}
+
+    /**
+     * Finds the natural logarithm of a positive {@code Number}.
+     * @param value The {@code Number}.
+     * @param places The count of decimal places to find, the rest are cut off.
+     * @return <code>ln(value)</code>.
+     * @throws ArithmeticException if {@code value} isn't positive.
+     */
+    static Number ln(Number value, int places) {
+        int bits = bits(places);
+        Fixed ln = lnFixed(value, bits + guard(value));
+        return ln.toNumber(bits + guard(value), places);
+    }
+
+    /**
+     * Finds the logarithm of a positive {@code Number} in a base.
+     * <br>
+     * When the logarithm is a whole number, it is found exactly.
+     * @param base The base, must be positive and not one.
+     * @param value The {@code Number}.
+     * @param places The count of decimal places to find, the rest are cut off.
+     * @return <code>log<sub>base</sub>(value)</code>.
+     * @throws ArithmeticException if {@code base} or {@code value} isn't positive, or if {@code base} is one.
+     */
+    static Number log(Number base, Number value, int places) {
+        if (base.signum() > 0 && base.compareTo(1) == 0) {
+            throw new ArithmeticException("A logarithm can't have a base of one.");
+        }
+        int bits = bits(places);
+        int work = bits + Math.max(guard(base), guard(value));
+        Fixed lb = lnFixed(base, work);
+        // a base near one has a small logarithm, which loses bits when divided by
+        int deficit = work - Limbs.bitLength(lb.magnitude);
+        if (deficit > 0) {
+            work += deficit;
+            lb = lnFixed(base, work);
+        }
+        Fixed lv = lnFixed(value, work);
+        int[] quotient = Division.divide(Limbs.shiftLeft(lv.magnitude, work), lb.magnitude)[0];
+        Fixed ret = new Fixed(lv.signum * lb.signum, quotient);
+
+        // a whole logarithm is checked exactly, so it isn't cut off just below itself
+        int[] nearest = Limbs.shiftRight(Limbs.add(quotient, Limbs.shiftLeft(Limbs.ONE, work - 1)), work);
+        int[] distance = Limbs.compare(Limbs.shiftLeft(nearest, work), quotient) >= 0
+                ? Limbs.subtract(Limbs.shiftLeft(nearest, work), quotient)
+                : Limbs.subtract(quotient, Limbs.shiftLeft(nearest, work));
+        if (Limbs.bitLength(distance) < work / 2 && Limbs.bitLength(nearest) < 32) {
+            Number power = Basic.power(base, nearest);
+            Number target = value;
+            if (ret.signum < 0) {
+                target = value.copy().multiply(power);
+                power = new Number(1);
+            }
+            if (power.compareTo(target) == 0) {
+                return Number.valueOf(ret.signum, nearest, 0);
+            }
+        }
+        return ret.toNumber(work, places);
+    }
+
+    /**
+     * Raises a positive {@code Number} to a decimal power.
+     * <br>
+     * The power is found with enough bits that it can only be a little off when it is within
+     * <code>2<sup>-32</sup></code> of the edge of its last decimal place,
+     * and only then is it checked exactly, as <code>base<sup>p</sup></code> against
+     * <code>power<sup>q</sup></code> for the exponent <code>p/q</code>.
+     * So the cost doesn't grow with the count of digits in the exponent, and an exact power is found exactly.
+     * @param base The base, must be positive.
+     * @param exponent The exponent, must not be negative.
+     * @param places The count of decimal places to find, the rest are cut off.
+     * @return <code>base<sup>exponent</sup></code>.
+     * @throws ArithmeticException if the power is too big to be found.
+     */
+    static Number pow(Number base, Number exponent, int places) {
+        places = Math.max(places, 0);
+        double lb = log2(base);
+        // the power is about 2^estimate, which sets how many bits are needed in front of the point
+        double estimate = lb == 0 ? 0 : exponent.doubleValue() * lb;
+        if (!(Math.abs(estimate) < Integer.MAX_VALUE / 4.0)) {
+            throw new ArithmeticException("The power is too big to be found: "+base+"^"+exponent);
+        }
+        int top = (int) Math.max(0, Math.ceil(estimate)) + 2;
+        int[] m = exponent.magnitude();
+        while (true) {
+            // n*ln(2) is taken off, which loses as many bits as n has
+            int bits = bits(places) + top + 33 - Integer.numberOfLeadingZeros((int) Math.abs(estimate) + 2);
+            // ln(base) is found with as many more bits as the exponent has in front of the point
+            int work = bits + Math.max(0, Limbs.bitLength(m) - (int) (exponent.scale() * LOG2_10)) + guard(base);
+            Fixed ln = lnFixed(base, work);
+            int[] y = Division.divide(Limbs.multiply(ln.magnitude, m), Limbs.pow10(exponent.scale()))[0];
+            y = Limbs.shiftRight(y, work - bits);
+            // y = n*ln(2) + r, with r from 0 up to ln(2)
+            int[] ln2 = ln2(bits);
+            int[][] qr = Division.divide(y, ln2);
+            long n = Limbs.isZero(qr[0]) ? 0 : qr[0][0] & Limbs.MASK;
+            int[] r = qr[1];
+            if (ln.signum < 0) {
+                n = -n;
+                if (!Limbs.isZero(r)) {
+                    n--;
+                    r = Limbs.subtract(ln2, r);
+                }
+            }
+            if (n + 2 > top) {
+                top = (int) n + 2;
+                continue;
+            }
+            // the power over 10^-places, which is scaled over 2^shift
+            int[] scaled = Limbs.multiply(expReduced(r, bits), Limbs.pow10(places));
+            int shift = (int) (bits - n);
+            int[] ret = Limbs.shiftRight(scaled, shift);
+            int[] nearest = Limbs.shiftRight(Limbs.add(scaled, Limbs.shiftLeft(Limbs.ONE, shift - 1)), shift);
+            int[] edge = Limbs.shiftLeft(nearest, shift);
+            int[] distance = Limbs.compare(edge, scaled) >= 0 ? Limbs.subtract(edge, scaled) : Limbs.subtract(scaled, edge);
+            if (Limbs.bitLength(distance) < shift - 32 && !Limbs.isZero(nearest)) {
+                // the power is at or just below the edge, which only base^p against edge^q can tell
+                Fraction fraction = Fraction.parseFraction(exponent).simplify();
+                Number power = Basic.power(base, fraction.getNumerator().magnitude());
+                Number bound = Basic.power(Number.valueOf(1, nearest, places), fraction.getDenominator().magnitude());
+                ret = power.compareTo(bound) >= 0 ? nearest : Limbs.subtract(nearest, Limbs.ONE);
+            }
+            return Number.valueOf(1, ret, places);
+        }
+    }
+
+    /**
+     * Finds <code>e<sup>r</sup></code> in fixed point, for {@code r} from 0 up to {@code ln(2)}.
+     * @param r The value over <code>2<sup>bits</sup></code>.
+     * @param bits The count of bits after the point.
+     * @return <code>e<sup>r</sup></code> over <code>2<sup>bits</sup></code>.
+     */
+    private static int[] expReduced(int[] r, int bits) {
+        // each halving of r is squared back at the end, which doubles the error each time
+        int halvings = (int) Math.sqrt(bits);
+        int work = bits + 2 * halvings + GUARD_BITS;
+        int[] x = Limbs.shiftLeft(r, work - bits - halvings);
+        int[] sum = Limbs.shiftLeft(Limbs.ONE, work);
+        int[] term = sum;
+        for (int i = 1; ; i++) {
+            term = divide(Limbs.shiftRight(Limbs.multiply(term, x), work), i);
+            if (Limbs.isZero(term)) {
+                break;
+            }
+            sum = Limbs.add(sum, term);
+        }
+        for (int i = 0; i < halvings; i++) {
+            sum = Limbs.shiftRight(Limbs.multiply(sum, sum), work);
+        }
+        return Limbs.shiftRight(sum, work - bits);
+    }
+
+    /**
+     * Estimates <code>log<sub>2</sub></code> of a positive {@code Number} from its top bits.
+     * @param value The {@code Number}.
+     * @return The estimate.
+     */
+    private static double log2(Number value) {
+        int[] m = value.magnitude();
+        int k = Limbs.bitLength(m);
+        int[] top = k > 53 ? Limbs.shiftRight(m, k - 53) : m;
+        double lead = FloatingPoint.toDouble(1, top, 0, FloatingPoint.DOUBLE);
+        return Math.log(lead) / Math.log(2) + Math.max(0, k - 53) - value.scale() * LOG2_10;
+    }
+
+    /**
+     * Finds the natural logarithm of a positive {@code Number} in fixed point.
+     * @param value The {@code Number}.
+     * @param bits The count of bits after the point.
+     * @return <code>ln(value)</code> over <code>2<sup>bits</sup></code>.
+     */
+    private static Fixed lnFixed(Number value, int bits) {
+        if (value.signum() <= 0) {
+            throw new ArithmeticException("Only the logarithms of positive numbers are real: "+value);
+        }
+        int[] m = value.magnitude();
+        int k = Limbs.bitLength(m) - 1;
+        // y = m / 2^k, from 1 up to 2
+        int[] y = k <= bits ? Limbs.shiftLeft(m, bits - k) : Limbs.shiftRight(m, k - bits);
+        int[] positive = Limbs.add(lnReduced(y, bits), Limbs.multiply(ln2(bits), k));
+        int[] negative = Limbs.multiply(ln10(bits), value.scale());
+        int comparison = Limbs.compare(positive, negative);
+        if (comparison >= 0) {
+            return new Fixed(comparison == 0 ? 0 : 1, Limbs.subtract(positive, negative));
+        }
+        return new Fixed(-1, Limbs.subtract(negative, positive));
+    }
+
+    /**
+     * Finds the natural logarithm of a fixed point value from 1 up to 2.
+     * @param y The value over <code>2<sup>bits</sup></code>.
+     * @param bits The count of bits after the point.
+     * @return <code>ln(y)</code> over <code>2<sup>bits</sup></code>.
+     */
+    private static int[] lnReduced(int[] y, int bits) {
+        // each square root halves the logarithm, which is doubled back at the end
+        int roots = (int) Math.sqrt(bits / 32.0);
+        int work = bits + roots + GUARD_BITS;
+        int[] one = Limbs.shiftLeft(Limbs.ONE, work);
+        y = Limbs.shiftLeft(y, work - bits);
+        for (int i = 0; i < roots; i++) {
+            y = Roots.root(Limbs.shiftLeft(y, work), 2);
+        }
+        // ln(y) = 2*atanh(z), where z = (y-1)/(y+1)
+        int[] z = Division.divide(Limbs.shiftLeft(Limbs.subtract(y, one), work), Limbs.add(y, one))[0];
+        int[] z2 = Limbs.shiftRight(Limbs.multiply(z, z), work);
+        int[] sum = z;
+        int[] term = z;
+        for (int i = 3; ; i += 2) {
+            term = Limbs.shiftRight(Limbs.multiply(term, z2), work);
+            if (Limbs.isZero(term)) {
+                break;
+            }
+            sum = Limbs.add(sum, divide(term, i));
+        }
+        return Limbs.shiftRight(sum, work - bits - roots - 1);
+    }
+
+    /**
+     * Gets {@code ln(2)} in fixed point, finding it if it hasn't been found to that precision.
+     * @param bits The count of bits after the point.
+     * @return {@code ln(2)} over <code>2<sup>bits</sup></code>.
+     */
+    static int[] ln2(int bits) {
+        Constant c = ln2;
+        if (c == null || c.bits < bits) {
+            int work = bits + GUARD_BITS;
+            // ln(2) = 18*atanh(1/26) - 2*atanh(1/4801) + 8*atanh(1/8749)
+            int[] sum = Limbs.add(Limbs.multiply(atanhInverse(26, work), 18), Limbs.multiply(atanhInverse(8749, work), 8));
+            sum = Limbs.subtract(sum, Limbs.multiply(atanhInverse(4801, work), 2));
+            ln2 = c = new Constant(bits, Limbs.shiftRight(sum, GUARD_BITS));
+        }
+        return Limbs.shiftRight(c.value, c.bits - bits);
+    }
+
+    /**
+     * Gets {@code ln(10)} in fixed point, finding it if it hasn't been found to that precision.
+     * @param bits The count of bits after the point.
+     * @return {@code ln(10)} over <code>2<sup>bits</sup></code>.
+     */
+    static int[] ln10(int bits) {
+        Constant c = ln10;
+        if (c == null || c.bits < bits) {
+            int work = bits + GUARD_BITS;
+            // ln(10) = 3*ln(2) + ln(5/4), and ln(5/4) = 2*atanh(1/9)
+            int[] sum = Limbs.add(Limbs.multiply(ln2(work), 3), Limbs.multiply(atanhInverse(9, work), 2));
+            ln10 = c = new Constant(bits, Limbs.shiftRight(sum, GUARD_BITS));
+        }
+        return Limbs.shiftRight(c.value, c.bits - bits);
+    }
+
+    /**
+     * Sums <code>atanh(1/k) = 1/k + 1/(3k<sup>3</sup>) + 1/(5k<sup>5</sup>) + ...</code> in fixed point.
+     * @param k The inverse of the argument, below <code>2<sup>16</sup></code>.
+     * @param bits The count of bits after the point.
+     * @return {@code atanh(1/k)} over <code>2<sup>bits</sup></code>.
+     */
+    private static int[] atanhInverse(int k, int bits) {
+        int[] power = divide(Limbs.shiftLeft(Limbs.ONE, bits), k);
+        int[] sum = power;
+        for (int i = 3; ; i += 2) {
+            power = divide(power, k * k);
+            if (Limbs.isZero(power)) {
+                return sum;
+            }
+            sum = Limbs.add(sum, divide(power, i));
+        }
+    }
+
+    /**
+     * Gets the count of bits that a count of decimal places needs.
+     * @param places The count of decimal places.
+     * @return The count of bits.
+     */
+    private static int bits(int places) {
+        return (int) Math.ceil(Math.max(places, 0) * LOG2_10) + GUARD_BITS;
+    }
+
+    /**
+     * Gets the extra bits needed for the multiples of {@code ln(2)} and {@code ln(10)} in a logarithm.
+     * @param value The value that the logarithm is of.
+     * @return The count of bits.
+     */
+    private static int guard(Number value) {
+        return 33 - Integer.numberOfLeadingZeros(Limbs.bitLength(value.magnitude()) + value.scale());
+    }
+
+    private static int[] divide(int[] a, int d) {
+        int[] q = new int[a.length];
+        Limbs.divide(a, d, q);
+        return Limbs.trim(q, q.length);
+    }
+
+    /**
+     * A constant in fixed point.
+     * @param bits The count of bits after the point.
+     * @param value The constant over <code>2<sup>bits</sup></code>.
+     */
+    private record Constant(int bits, int[] value) {}
+
+    /**
+     * A signed value in fixed point.
+     * @param signum The sign of the value.
+     * @param magnitude The magnitude of the value.
+     */
+    private record Fixed(int signum, int[] magnitude) {
+        /**
+         * Turns this value into a {@code Number}, cutting off the decimal places past {@code places}.
+         * @param bits The count of bits after the point.
+         * @param places The count of decimal places to keep.
+         * @return The {@code Number}.
+         */
+        Number toNumber(int bits, int places) {
+            int[] decimal = Limbs.shiftRight(Limbs.multiply(magnitude, Limbs.pow10(places)), bits);
+            return Number.valueOf(signum, decimal, places);
+        }
+    }
+}
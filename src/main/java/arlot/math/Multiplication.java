@@ -0,0 +1,383 @@
+package arlot.math;
+
+/**
+ * The engine that multiplies the magnitudes of {@link Number}s.
+ * <br><br>
+ * The algorithm used depends on the size of the operands, measured in limbs
+ * (one limb is 32 bits, or a bit more than 9 decimal digits):
+ * <ul>
+ *     <li>Below the {@link #getKaratsubaThreshold() Karatsuba threshold}
+ *     the schoolbook method is used.</li>
+ *     <li>From the Karatsuba threshold up to the
+ *     {@link #getToomCookThreshold() Toom-Cook threshold}
+ *     Karatsuba multiplication is used.</li>
+ *     <li>From the Toom-Cook threshold up to the
+ *     {@link #getNttThreshold() NTT threshold}
+ *     Toom-Cook 3-way multiplication is used.</li>
+ *     <li>From the NTT threshold upwards a number-theoretic transform is used
+ *     (see {@link NumberTheoreticTransform}).</li>
+ * </ul>
+ * The thresholds are tunable, as the best values depend on the machine running them.
+ */
+public final class Multiplication {
+    /**
+     * The default count of limbs where Karatsuba multiplication takes over.
+     */
+    public static final int DEFAULT_KARATSUBA_THRESHOLD = 80;
+    /**
+     * The default count of limbs where Toom-Cook 3-way multiplication takes over.
+     */
+    public static final int DEFAULT_TOOM_COOK_THRESHOLD = 240;
+    /**
+     * The default count of limbs where the number-theoretic transform takes over,
+     * about 308000 decimal digits.
+     * <br>
+     * This is where the transform was measured to pass Toom-Cook 3-way multiplication:
+     * the transform is cut into 16-bit pieces and run modulo three primes,
+     * so below about 28000 limbs (270000 digits) Toom-Cook is faster,
+     * often by twice at ten thousand limbs.
+     * The transform lengths are powers of two,
+     * so it does best just below {@code 2^k/4} limbs, and this threshold sits under 2<sup>15</sup>.
+     */
+    public static final int DEFAULT_NTT_THRESHOLD = 32000;
+
+    private static volatile int karatsubaThreshold = DEFAULT_KARATSUBA_THRESHOLD;
+    private static volatile int toomCookThreshold = DEFAULT_TOOM_COOK_THRESHOLD;
+    private static volatile int nttThreshold = DEFAULT_NTT_THRESHOLD;
+
+    private Multiplication() {}
+
+    // thresholds
+
+    /**
+     * Gets the count of limbs that both operands must reach
+     * before Karatsuba multiplication is used.
+     * @return The Karatsuba threshold.
+     */
+    public static int getKaratsubaThreshold() {
+        return karatsubaThreshold;
+    }
+
+    /**
+     * Sets the count of limbs that both operands must reach
+     * before Karatsuba multiplication is used.
+     * @param limbs The new threshold, must be at least 2.
+     * @return The old threshold.
+     * @throws IllegalArgumentException if {@code limbs} is less than 2.
+     */
+    public static int setKaratsubaThreshold(int limbs) {
+        if (limbs < 2) {
+            throw new IllegalArgumentException("The Karatsuba threshold must be at least 2: "+limbs);
+        }
+        int old = karatsubaThreshold;
+        karatsubaThreshold = limbs;
+        return old;
+    }
+
+    /**
+     * Gets the count of limbs that both operands must reach
+     * before Toom-Cook 3-way multiplication is used.
+     * @return The Toom-Cook threshold.
+     */
+    public static int getToomCookThreshold() {
+        return toomCookThreshold;
+    }
+
+    /**
+     * Sets the count of limbs that both operands must reach
+     * before Toom-Cook 3-way multiplication is used.
+     * @param limbs The new threshold, must be at least 3.
+     * @return The old threshold.
+     * @throws IllegalArgumentException if {@code limbs} is less than 3.
+     */
+    public static int setToomCookThreshold(int limbs) {
+        if (limbs < 3) {
+            throw new IllegalArgumentException("The Toom-Cook threshold must be at least 3: "+limbs);
+        }
+        int old = toomCookThreshold;
+        toomCookThreshold = limbs;
+        return old;
+    }
+
+    /**
+     * Gets the count of limbs that both operands must reach
+     * before the number-theoretic transform is used.
+     * @return The NTT threshold.
+     */
+    public static int getNttThreshold() {
+        return nttThreshold;
+    }
+
+    /**
+     * Sets the count of limbs that both operands must reach
+     * before the number-theoretic transform is used.
+     * @param limbs The new threshold, must be at least 1.
+     * @return The old threshold.
+     * @throws IllegalArgumentException if {@code limbs} is less than 1.
+     */
+    public static int setNttThreshold(int limbs) {
+        if (limbs < 1) {
+            throw new IllegalArgumentException("The NTT threshold must be at least 1: "+limbs);
+        }
+        int old = nttThreshold;
+        nttThreshold = limbs;
+        return old;
+    }
+
+    // engine
+
+    /**
+     * Multiplies two magnitudes, picking the algorithm based on their sizes.
+     * @param a The first magnitude.
+     * @param b The second magnitude.
+     * @return The product of {@code a} and {@code b}.
+     */
+    static int[] multiply(int[] a, int[] b) {
+        if (a.length < b.length) {
+            int[] t = a;
+            a = b;
+            b = t;
+        }
+        // from here on a is the longer operand
+        if (b.length >= nttThreshold && NumberTheoreticTransform.supports(a, b)) {
+            return NumberTheoreticTransform.multiply(a, b);
+        } else if (b.length < karatsubaThreshold) {
+            return schoolbook(a, b);
+        } else if (b.length * 2 <= a.length) {
+            return unbalanced(a, b);
+        } else if (b.length < toomCookThreshold) {
+            return karatsuba(a, b);
+        }
+        return toomCook3(a, b);
+    }
+
+    /**
+     * Multiplies two magnitudes with the schoolbook method.
+     * @param a The first magnitude.
+     * @param b The second magnitude.
+     * @return The product of {@code a} and {@code b}.
+     */
+    static int[] schoolbook(int[] a, int[] b) {
+        if (a.length == 0 || b.length == 0) {
+            return Limbs.ZERO;
+        }
+        if (a.length == 1) {
+            return Limbs.multiply(b, a[0]);
+        } else if (b.length == 1) {
+            return Limbs.multiply(a, b[0]);
+        }
+        int[] ret = new int[a.length+b.length];
+        for (int i = 0; i < a.length; i++) {
+            long ai = a[i] & Limbs.MASK;
+            long carry = 0;
+            for (int j = 0; j < b.length; j++) {
+                long product = ai * (b[j] & Limbs.MASK) + (ret[i+j] & Limbs.MASK) + carry;
+                ret[i+j] = (int) product;
+                carry = product >>> 32;
+            }
+            ret[i+b.length] = (int) carry;
+        }
+        return Limbs.trim(ret, ret.length);
+    }
+
+    /**
+     * Multiplies a long magnitude by one that is at most half its size,
+     * by cutting the long one into blocks the size of the short one.
+     * @param a The longer magnitude.
+     * @param b The shorter magnitude.
+     * @return The product of {@code a} and {@code b}.
+     */
+    private static int[] unbalanced(int[] a, int[] b) {
+        int block = b.length;
+        int[] ret = new int[a.length+b.length+1];
+        for (int from = 0; from < a.length; from += block) {
+            int[] part = multiply(slice(a, from, Math.min(from+block, a.length)), b);
+            addInto(ret, part, from);
+        }
+        return Limbs.trim(ret, ret.length);
+    }
+
+    /**
+     * Multiplies two magnitudes of similar size with Karatsuba multiplication.
+     * @param a The first magnitude.
+     * @param b The second magnitude.
+     * @return The product of {@code a} and {@code b}.
+     */
+    private static int[] karatsuba(int[] a, int[] b) {
+        int half = (Math.max(a.length, b.length)+1) / 2;
+        int[] a0 = slice(a, 0, half);
+        int[] a1 = slice(a, half, a.length);
+        int[] b0 = slice(b, 0, half);
+        int[] b1 = slice(b, half, b.length);
+
+        int[] z0 = multiply(a0, b0);
+        int[] z2 = multiply(a1, b1);
+        // (a0 + a1)(b0 + b1) - z0 - z2 = a0*b1 + a1*b0
+        int[] z1 = Limbs.subtract(
+                Limbs.subtract(multiply(Limbs.add(a0, a1), Limbs.add(b0, b1)), z0),
+                z2
+        );
+
+        int[] ret = new int[a.length+b.length+1];
+        addInto(ret, z0, 0);
+        addInto(ret, z1, half);
+        addInto(ret, z2, half*2);
+        return Limbs.trim(ret, ret.length);
+    }
+
+    /**
+     * Multiplies two magnitudes of similar size with Toom-Cook 3-way multiplication,
+     * using the evaluation points 0, 1, -1, -2 and infinity
+     * and Bodrato's interpolation sequence.
+     * @param a The first magnitude.
+     * @param b The second magnitude.
+     * @return The product of {@code a} and {@code b}.
+     */
+    private static int[] toomCook3(int[] a, int[] b) {
+        int third = (Math.max(a.length, b.length)+2) / 3;
+        int[] a0 = slice(a, 0, third);
+        int[] a1 = slice(a, third, third*2);
+        int[] a2 = slice(a, third*2, a.length);
+        int[] b0 = slice(b, 0, third);
+        int[] b1 = slice(b, third, third*2);
+        int[] b2 = slice(b, third*2, b.length);
+
+        // evaluate both polynomials
+        Signed da0 = new Signed(a0);
+        Signed db0 = new Signed(b0);
+        Signed ta = new Signed(Limbs.add(a0, a2));
+        Signed tb = new Signed(Limbs.add(b0, b2));
+        Signed da1 = ta.add(new Signed(a1));
+        Signed db1 = tb.add(new Signed(b1));
+        Signed dam1 = ta.subtract(new Signed(a1));
+        Signed dbm1 = tb.subtract(new Signed(b1));
+        Signed dam2 = dam1.add(new Signed(a2)).shiftLeft(1).subtract(da0);
+        Signed dbm2 = dbm1.add(new Signed(b2)).shiftLeft(1).subtract(db0);
+
+        // pointwise products
+        Signed v0 = da0.multiply(db0);
+        Signed v1 = da1.multiply(db1);
+        Signed vm1 = dam1.multiply(dbm1);
+        Signed vm2 = dam2.multiply(dbm2);
+        Signed vinf = new Signed(multiply(a2, b2));
+
+        // interpolate
+        Signed t2 = vm2.subtract(v1).divideBy3();
+        Signed tm1 = v1.subtract(vm1).shiftRight(1);
+        Signed t1 = vm1.subtract(v0);
+        t2 = t1.subtract(t2).shiftRight(1).add(vinf.shiftLeft(1));
+        t1 = t1.add(tm1).subtract(vinf);
+        tm1 = tm1.subtract(t2);
+
+        int[] ret = new int[a.length+b.length+1];
+        addInto(ret, v0.magnitude, 0);
+        addInto(ret, tm1.magnitude, third);
+        addInto(ret, t1.magnitude, third*2);
+        addInto(ret, t2.magnitude, third*3);
+        addInto(ret, vinf.magnitude, third*4);
+        return Limbs.trim(ret, ret.length);
+    }
+
+    // helpers
+
+    /**
+     * Gets the trimmed limbs of a magnitude between two indexes.
+     * @param a The magnitude.
+     * @param from The index to start at (inclusive).
+     * @param to The index to end at (exclusive).
+     * @return The limbs from {@code from} to {@code to}, as a magnitude.
+     */
+    static int[] slice(int[] a, int from, int to) {
+        to = Math.min(to, a.length);
+        if (from >= to) {
+            return Limbs.ZERO;
+        }
+        int[] ret = new int[to-from];
+        System.arraycopy(a, from, ret, 0, ret.length);
+        return Limbs.trim(ret, ret.length);
+    }
+
+    /**
+     * Adds a magnitude into a working array, starting at a limb offset.
+     * @param target The array to add into, must be big enough to hold the sum.
+     * @param value The magnitude to add.
+     * @param offset The limb to start adding at.
+     */
+    static void addInto(int[] target, int[] value, int offset) {
+        long carry = 0;
+        int i = 0;
+        for (; i < value.length; i++) {
+            long sum = (target[i+offset] & Limbs.MASK) + (value[i] & Limbs.MASK) + carry;
+            target[i+offset] = (int) sum;
+            carry = sum >>> 32;
+        }
+        for (i += offset; carry != 0; i++) {
+            long sum = (target[i] & Limbs.MASK) + carry;
+            target[i] = (int) sum;
+            carry = sum >>> 32;
+        }
+    }
+
+    /**
+     * A signed magnitude, used by Toom-Cook where the evaluation
+     * at negative points gives negative values.
+     */
+    private static final class Signed {
+        private final int sign;
+        private final int[] magnitude;
+
+        private Signed(int[] magnitude) {
+            this(magnitude.length == 0 ? 0 : 1, magnitude);
+        }
+
+        private Signed(int sign, int[] magnitude) {
+            this.sign = magnitude.length == 0 ? 0 : sign;
+            this.magnitude = magnitude;
+        }
+
+        private Signed add(Signed other) {
+            if (other.sign == 0) {
+                return this;
+            } else if (sign == 0) {
+                return other;
+            } else if (sign == other.sign) {
+                return new Signed(sign, Limbs.add(magnitude, other.magnitude));
+            }
+            int compare = Limbs.compare(magnitude, other.magnitude);
+            if (compare == 0) {
+                return new Signed(Limbs.ZERO);
+            } else if (compare > 0) {
+                return new Signed(sign, Limbs.subtract(magnitude, other.magnitude));
+            }
+            return new Signed(other.sign, Limbs.subtract(other.magnitude, magnitude));
+        }
+
+        private Signed subtract(Signed other) {
+            return add(new Signed(-other.sign, other.magnitude));
+        }
+
+        private Signed multiply(Signed other) {
+            return new Signed(sign * other.sign, Multiplication.multiply(magnitude, other.magnitude));
+        }
+
+        private Signed shiftLeft(int bits) {
+            return new Signed(sign, Limbs.shiftLeft(magnitude, bits));
+        }
+
+        /**
+         * Divides by a power of two, the division must be exact.
+         */
+        private Signed shiftRight(int bits) {
+            return new Signed(sign, Limbs.shiftRight(magnitude, bits));
+        }
+
+        /**
+         * Divides by three, the division must be exact.
+         */
+        private Signed divideBy3() {
+            int[] q = new int[magnitude.length];
+            Limbs.divide(magnitude, 3, q);
+            return new Signed(sign, Limbs.trim(q, q.length));
+        }
+    }
+}
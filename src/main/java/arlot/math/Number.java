@@ -1,24 +1,61 @@
 package arlot.math;
 
-import arlot.data.Copyable;
+import arlot.error.BadNumberValueException;
 
 import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 
 /**
  * The reference of a {@link Numeric} value as a fully processed number.
+ * <br>
+ * A {@code Number} is held as a sign, an unsigned magnitude and a scale,
+ * where the value is the magnitude divided by ten to the power of the scale.
+ * The magnitude is stored in binary as limbs (see {@link Limbs}),
+ * so the decimal {@link String} form is only built when it is asked for.
+ * <br>
+ * Whole numbers that fit into a {@code long} are held inline as a {@code long} instead.
  */
 public final class Number extends Numeric implements Cloneable, Serializable {
     @java.io.Serial
     private static final long serialVersionUID = 431331266L;
 
     /**
-     * Holds this {@code Number}'s String value.
+     * The sign of this {@code Number}, being -1, 0 or 1.
      */
-    private final NumericString numberHold;
+    private int signum;
     /**
-     * Holds this {@code Number}'s original String value.
+     * The unsigned magnitude of this {@code Number},
+     * as little-endian base 2<sup>32</sup> limbs.
+     * <br>
+     * This is {@code null} while the value is held in {@link #compact}.
+     * <br>
+     * The array is never changed once it is set, a new one is set instead,
+     * so copies of this {@code Number} share it.
+     */
+    private int[] magnitude;
+    /**
+     * The value of this {@code Number} when it is a whole number that fits into a {@code long}
+     * (other than {@link Long#MIN_VALUE}), otherwise unused.
+     * <br>
+     * Arithmetic between two such values is done directly on the {@code long}s,
+     * and is only moved into limbs when it overflows or gets decimal places.
      */
-    private final NumericString original;
+    private long compact;
+    /**
+     * The count of decimal places that the {@link #magnitude} is shifted by.
+     * <br>
+     * This is never negative and the value never has trailing zeros in its decimal places.
+     */
+    private int scale;
+    /**
+     * Holds this {@code Number}'s original value.
+     */
+    private Snapshot original;
+    /**
+     * Holds the {@link String} form of this {@code Number} once it has been built.
+     */
+    private transient String string;
     /**
      * The count of decimal places in a number,
      * given that the calculation ends up having decimal places.
@@ -30,7 +67,7 @@ public final class Number extends Numeric implements Cloneable, Serializable {
      * @return true if the {@code Number} is negative.
      */
     public boolean isNegative() {
-        return toString().startsWith("-");
+        return signum < 0;
     }
 
     /**
@@ -38,7 +75,135 @@ public final class Number extends Numeric implements Cloneable, Serializable {
      * @return true if this {@code Number} has decimal places.
      */
     public boolean isDecimal() {
-        return toString().contains(".");
+        return scale > 0;
+    }
+
+    // compare
+
+    /**
+     * The value returned by {@link #smallValue(CharSequence)}
+     * when a string isn't a small whole number.
+     */
+    static final long NOT_SMALL = Long.MIN_VALUE;
+    /**
+     * log<sub>2</sub>(10), used to estimate how big a magnitude is once it has been scaled.
+     */
+    private static final double LOG2_10 = Math.log(10) / Math.log(2);
+
+    /**
+     * Gets the sign of this {@code Number}.
+     * @return {@code -1}, {@code 0} or {@code 1} as this {@code Number}
+     * is negative, zero or positive.
+     */
+    @Override
+    public int signum() {
+        return signum;
+    }
+
+    /**
+     * Compares the absolute value of this {@code Number} with the absolute value of {@code num}.
+     * <br>
+     * Nothing is allocated when both values have the same count of decimal places,
+     * or when their sizes are far enough apart to tell them apart from their bit lengths.
+     * @param num The {@code Number} to compare against.
+     * @return a negative integer, zero, or a positive integer as |this| is
+     * less than, equal to, or greater than |num|.
+     */
+    public int compareMagnitude(Number num) {
+        if (magnitude == null && num.magnitude == null) {
+            return Long.compare(Math.abs(compact), Math.abs(num.compact));
+        } else if (signum == 0 || num.signum == 0) {
+            return Integer.compare(Math.abs(signum), Math.abs(num.signum));
+        }
+        int[] mine = magnitude();
+        int[] other = num.magnitude();
+        if (scale == num.scale) {
+            return Limbs.compare(mine, other);
+        }
+        // each value is in [2^(bits-1), 2^bits) / 10^scale
+        double high = Limbs.bitLength(mine) - scale * LOG2_10;
+        double numHigh = Limbs.bitLength(other) - num.scale * LOG2_10;
+        if (high + 0.001 < numHigh - 1) {
+            return -1;
+        } else if (numHigh + 0.001 < high - 1) {
+            return 1;
+        } else if (scale < num.scale) {
+            return Limbs.compare(scaleUp(mine, num.scale - scale), other);
+        }
+        return Limbs.compare(mine, scaleUp(other, scale - num.scale));
+    }
+
+    /**
+     * Compares this {@code Number} with the specified {@code Numeric} for order.
+     * <br>
+     * The signs are compared first, then the magnitudes with {@link #compareMagnitude(Number)}.
+     * @param num the {@code Numeric} to be compared.
+     * @return a negative integer, zero, or a positive integer as this {@code Number}
+     * is less than, equal to, or greater than the specified {@code Numeric}.
+     */
+    @Override
+    public int compareTo(Numeric num) {
+        Number other = num.toNumber();
+        if (signum != other.signum) {
+            return signum < other.signum ? -1 : 1;
+        }
+        return signum * compareMagnitude(other);
+    }
+
+    /**
+     * Compares this {@code Number} with a {@code long} value for order,
+     * without allocating when this {@code Number} fits into two limbs.
+     * @param value The value to compare against.
+     * @return a negative integer, zero, or a positive integer as this {@code Number}
+     * is less than, equal to, or greater than {@code value}.
+     */
+    int compareTo(long value) {
+        int valueSignum = Long.signum(value);
+        if (signum != valueSignum) {
+            return signum < valueSignum ? -1 : 1;
+        } else if (magnitude == null) {
+            return Long.compare(compact, value);
+        } else if (magnitude.length > 2 || scale >= Limbs.LONG_POW10.length) {
+            return compareTo(new Number(value));
+        }
+        long abs = Math.abs(value); // Long.MIN_VALUE is still right when read as unsigned
+        long mag = magnitude[0] & Limbs.MASK;
+        if (magnitude.length == 2) {
+            mag |= (magnitude[1] & Limbs.MASK) << 32;
+        }
+        int ret;
+        if (scale == 0) {
+            ret = Long.compareUnsigned(mag, abs);
+        } else {
+            // the decimal places are never all zeros, so equal whole parts mean this is bigger
+            ret = Long.compareUnsigned(Long.divideUnsigned(mag, Limbs.LONG_POW10[scale]), abs);
+            if (ret == 0) {
+                ret = 1;
+            }
+        }
+        return signum * ret;
+    }
+
+    /**
+     * Reads a whole number of at most 18 digits, with an optional minus sign, without allocating.
+     * @param num The string to read.
+     * @return The value of {@code num}, or {@link #NOT_SMALL} if it isn't such a number.
+     */
+    static long smallValue(CharSequence num) {
+        int length = num.length();
+        int start = length > 0 && num.charAt(0) == '-' ? 1 : 0;
+        if (length == start || length - start > 18) {
+            return NOT_SMALL;
+        }
+        long ret = 0;
+        for (int i = start; i < length; i++) {
+            char c = num.charAt(i);
+            if (c < '0' || c > '9') {
+                return NOT_SMALL;
+            }
+            ret = ret * 10 + (c - '0');
+        }
+        return num.charAt(0) == '-' ? -ret : ret;
     }
 
     // Constructors
@@ -47,28 +212,84 @@ public final class Number extends Numeric implements Cloneable, Serializable {
      * Creates a new {@code Number} with the value of zero.
      */
     public Number() {
-        this.numberHold = new NumericString();
-        this.original = new NumericString();
+        set(0, Limbs.ZERO, 0);
+        this.original = snapshot();
     }
 
     /**
      * Creates a new {@code Number} using an instance of a {@code Number}.
      * <br>
      * Will do the same as the {@link #copy()} method.
+     * <br>
+     * This takes constant time, since the magnitude is never changed
+     * once it is set, it is shared with {@code num}.
      * @param num The {@code Number} to copy.
      */
     public Number(Number num) {
-        this.numberHold = new NumericString(num);
-        this.original = new NumericString(num.original);
+        this.signum = num.signum;
+        this.magnitude = num.magnitude;
+        this.compact = num.compact;
+        this.scale = num.scale;
+        this.string = num.string;
+        this.original = num.original;
         this.decCount = num.decCount;
     }
+    /**
+     * Creates a {@code Number} from a {@link String} that is already valid and reorganized,
+     * such as the {@link #toString()} of another {@code Number} or a {@link NumericString},
+     * without checking or reorganizing it again.
+     * @param valid The valid and reorganized number string.
+     * @return The new {@code Number}.
+     * @throws BadNumberValueException if {@code valid} holds something other than digits.
+     */
+    static Number trusted(String valid) {
+        Number ret = new Number();
+        ret.parse(valid, "String");
+        ret.original = ret.snapshot();
+        return ret;
+    }
+
+    /**
+     * Creates a {@code Number} from a sign, magnitude and scale that are already canonical,
+     * meaning that the magnitude is normalized and has no trailing zeros in its decimal places.
+     * <br>
+     * The magnitude is kept as it is, so it must not be changed afterward.
+     * @param signum The sign of the value.
+     * @param magnitude The magnitude of the value.
+     * @param scale The count of decimal places in {@code magnitude}.
+     * @return The new {@code Number}.
+     */
+    static Number trusted(int signum, int[] magnitude, int scale) {
+        Number ret = new Number();
+        ret.setCanonical(signum, magnitude, scale);
+        ret.original = ret.snapshot();
+        return ret;
+    }
+
+    /**
+     * Creates a {@code Number} from a sign, magnitude and scale,
+     * removing any trailing zeros from its decimal places.
+     * <br>
+     * The magnitude is kept when it is already canonical, so it must not be changed afterward.
+     * @param signum The sign of the value.
+     * @param magnitude The normalized magnitude of the value.
+     * @param scale The count of decimal places in {@code magnitude}.
+     * @return The new {@code Number}.
+     */
+    static Number valueOf(int signum, int[] magnitude, int scale) {
+        Number ret = new Number();
+        ret.set(signum, magnitude, scale);
+        ret.original = ret.snapshot();
+        return ret;
+    }
+
     /**
      * Creates a new Number using a char.
      * @param num The char to use.
      */
     public Number(char num) {
-        this.numberHold = new NumericString(num);
-        this.original = new NumericString(this.numberHold.toString());
+        parse(String.valueOf(num), "Character");
+        this.original = snapshot();
     }
     /**
      * Creates a new Number using a String.
@@ -78,8 +299,8 @@ public final class Number extends Numeric implements Cloneable, Serializable {
         if (num.isBlank()) {
             num = "0";
         }
-        this.numberHold = new NumericString(num);
-        this.original = new NumericString(this.numberHold.toString());
+        parse(num, "String");
+        this.original = snapshot();
     }
     /**
      * Creates a new {@code Number} using a StringBuilder.
@@ -89,48 +310,268 @@ public final class Number extends Numeric implements Cloneable, Serializable {
         if (num.isEmpty()) {
             num.append('0');
         }
-        this.numberHold = new NumericString(num);
-        this.original = new NumericString(this.numberHold.toString());
+        parse(num, "StringBuilder");
+        this.original = snapshot();
     }
     /**
      * Creates a new {@code Number} using an integer number.
      * @param num The integer number to use.
      */
     public Number(Integer num) {
-        this.numberHold = new NumericString(num);
-        this.original = new NumericString(this.numberHold.toString());
+        setLong(num);
+        this.original = snapshot();
     }
     /**
      * Creates a new {@code Number} using a long number.
      * @param num The long number to use.
      */
     public Number(Long num) {
-        this.numberHold = new NumericString(num);
-        this.original = new NumericString(this.numberHold.toString());
+        setLong(num);
+        this.original = snapshot();
     }
     /**
      * Creates a new {@code Number} using a short number.
      * @param num The short number to use.
      */
     public Number(Short num) {
-        this.numberHold = new NumericString(num);
-        this.original = new NumericString(this.numberHold.toString());
+        setLong(num);
+        this.original = snapshot();
     }
     /**
      * Creates a new {@code Number} using a double number.
+     * <br>
+     * The value is the shortest decimal that rounds back to {@code num},
+     * the same one that {@link Double#toString(double)} writes.
      * @param num The double number to use.
+     * @throws BadNumberValueException if {@code num} is infinite or NaN.
      */
     public Number(Double num) {
-        this.numberHold = new NumericString(num);
-        this.original = new NumericString(this.numberHold.toString());
+        setBinary(num, FloatingPoint.DOUBLE, "Double");
+        this.original = snapshot();
     }
     /**
      * Creates a new {@code Number} using a float number.
+     * <br>
+     * The value is the shortest decimal that rounds back to {@code num},
+     * the same one that {@link Float#toString(float)} writes.
      * @param num The float number to use.
+     * @throws BadNumberValueException if {@code num} is infinite or NaN.
      */
     public Number(Float num) {
-        this.numberHold = new NumericString(num);
-        this.original = new NumericString(this.numberHold.toString());
+        setBinary(num, FloatingPoint.FLOAT, "Float");
+        this.original = snapshot();
+    }
+    /**
+     * Creates a new {@code Number} using a {@link BigInteger}.
+     * <br>
+     * The magnitude is read from the bits of {@code num}.
+     * @param num The {@link BigInteger} to use.
+     */
+    public Number(BigInteger num) {
+        if (num.bitLength() < Long.SIZE) {
+            setLong(num.longValue());
+        } else {
+            set(num.signum(), Limbs.valueOf(num), 0);
+        }
+        this.original = snapshot();
+    }
+    /**
+     * Creates a new {@code Number} using a {@link BigDecimal}.
+     * <br>
+     * The value is exact, a negative scale is moved into the magnitude.
+     * @param num The {@link BigDecimal} to use.
+     */
+    public Number(BigDecimal num) {
+        int[] magnitude = Limbs.valueOf(num.unscaledValue());
+        int scale = num.scale();
+        if (scale < 0) {
+            magnitude = scaleUp(magnitude, -scale);
+            scale = 0;
+        }
+        set(num.signum(), magnitude, scale);
+        this.original = snapshot();
+    }
+
+    // internal value handling
+
+    /**
+     * A frozen sign, magnitude and scale, used to remember the original value.
+     * @param signum The sign.
+     * @param magnitude The magnitude, which is never changed after it is stored,
+     *                  or {@code null} when the value is in {@code compact}.
+     * @param compact The value when it is held inline as a {@code long}.
+     * @param scale The scale.
+     */
+    private record Snapshot(int signum, int[] magnitude, long compact, int scale) implements Serializable {}
+
+    /**
+     * Takes a {@link Snapshot} of the current value.
+     * @return The current value as a {@link Snapshot}.
+     */
+    private Snapshot snapshot() {
+        return new Snapshot(signum, magnitude, compact, scale);
+    }
+
+    /**
+     * Gets the magnitude of this {@code Number} as limbs,
+     * building them when the value is held inline as a {@code long}.
+     * @return The magnitude, which must not be changed.
+     */
+    int[] magnitude() {
+        return magnitude != null ? magnitude : Limbs.valueOf(Math.abs(compact));
+    }
+
+    /**
+     * Gets the count of decimal places in the {@link #magnitude()}.
+     * @return The scale, which is never negative.
+     */
+    int scale() {
+        return scale;
+    }
+
+    /**
+     * Checks if this {@code Number} is held inline as a {@code long}.
+     * @return {@code true} if the value is a whole number in {@link #compactValue()}.
+     */
+    boolean isCompact() {
+        return magnitude == null;
+    }
+
+    /**
+     * Gets the value of this {@code Number} when it {@link #isCompact() is held inline}.
+     * @return The value as a {@code long}.
+     */
+    long compactValue() {
+        return compact;
+    }
+
+    /**
+     * Sets the value of this {@code Number} to a {@code long}, held inline.
+     * @param num The value, which must not be {@link Long#MIN_VALUE}.
+     */
+    private void setCompact(long num) {
+        this.signum = Long.signum(num);
+        this.magnitude = null;
+        this.compact = num;
+        this.scale = 0;
+        this.string = null;
+    }
+
+    /**
+     * Sets the value of this {@code Number}.
+     * <br>
+     * The value is normalized so that zero is never signed and
+     * no trailing zeros are kept in the decimal places.
+     * @param signum The sign of the value.
+     * @param magnitude The magnitude of the value.
+     * @param scale The count of decimal places in {@code magnitude}.
+     */
+    void set(int signum, int[] magnitude, int scale) {
+        if (magnitude.length == 0) {
+            signum = 0;
+            scale = 0;
+        }
+        while (scale >= Limbs.DECIMAL_DIGITS
+                && Limbs.divide(magnitude, Limbs.DECIMAL_BASE, null) == 0) {
+            int[] q = new int[magnitude.length];
+            Limbs.divide(magnitude, Limbs.DECIMAL_BASE, q);
+            magnitude = Limbs.trim(q, q.length);
+            scale -= Limbs.DECIMAL_DIGITS;
+        }
+        while (scale > 0 && Limbs.divide(magnitude, 10, null) == 0) {
+            int[] q = new int[magnitude.length];
+            Limbs.divide(magnitude, 10, q);
+            magnitude = Limbs.trim(q, q.length);
+            scale--;
+        }
+        setCanonical(signum, magnitude, scale);
+    }
+
+    /**
+     * Sets the value of this {@code Number} to a value that is already canonical,
+     * only choosing if it is held inline as a {@code long}.
+     * @param signum The sign of the value.
+     * @param magnitude The normalized magnitude of the value.
+     * @param scale The count of decimal places in {@code magnitude},
+     *              which has no trailing zeros in them.
+     */
+    private void setCanonical(int signum, int[] magnitude, int scale) {
+        if (magnitude.length == 0) {
+            signum = 0;
+            scale = 0;
+        }
+        if (scale == 0 && (magnitude.length < 2 || magnitude.length == 2 && magnitude[1] >= 0)) {
+            // a whole number below 2^63 is held inline
+            long value = magnitude.length == 0 ? 0 : magnitude[0] & Limbs.MASK;
+            if (magnitude.length == 2) {
+                value |= (long) magnitude[1] << 32;
+            }
+            setCompact(signum < 0 ? -value : value);
+            return;
+        }
+        this.signum = signum;
+        this.magnitude = magnitude;
+        this.compact = 0;
+        this.scale = scale;
+        this.string = null;
+    }
+
+    /**
+     * Sets the value of this {@code Number} to a {@code long}.
+     * @param num The value.
+     */
+    void setLong(long num) {
+        if (num == Long.MIN_VALUE) {
+            // the negation of Long.MIN_VALUE is still correct when read as unsigned
+            set(-1, Limbs.valueOf(num), 0);
+        } else {
+            setCompact(num);
+        }
+    }
+
+    /**
+     * Sets the value of this {@code Number} from a {@link NumericString Numeric value},
+     * reading it with the {@link NumberScanner}.
+     * @param num The characters of the value.
+     * @param starttype The type that the value was given as, for the message of the exception.
+     * @throws BadNumberValueException if {@code num} isn't a {@link NumericString Numeric value}.
+     */
+    private void parse(CharSequence num, String starttype) {
+        if (NumberScanner.scan(num, 0, num.length(), this)) {
+            return;
+        }
+        String text = num.toString();
+        if (text.indexOf('/') >= 0 && NumberScanner.isNumber(text)) {
+            Number value = new Fraction(text).toNumber();
+            set(value.signum, value.magnitude(), value.scale);
+            return;
+        }
+        throw Basic.illegalNumber(starttype, "num");
+    }
+
+    /**
+     * Sets the value of this {@code Number} to the shortest decimal that rounds back to a binary value.
+     * @param num The binary value.
+     * @param format The type of {@code num}.
+     * @param starttype The type that the value was given as, for the message of the exception.
+     * @throws BadNumberValueException if {@code num} is infinite or NaN.
+     */
+    private void setBinary(double num, FloatingPoint.Format format, String starttype) {
+        if (!Double.isFinite(num)) {
+            throw Basic.illegalNumber(starttype, "num");
+        }
+        Number value = FloatingPoint.shortest(num, format);
+        setCanonical(value.signum, value.magnitude(), value.scale);
+    }
+
+    /**
+     * Multiplies a magnitude by {@code 10}<sup>{@code n}</sup>.
+     * @param magnitude The magnitude.
+     * @param n The amount of decimal places to move by.
+     * @return The moved magnitude.
+     */
+    private static int[] scaleUp(int[] magnitude, int n) {
+        return n == 0 ? magnitude : Limbs.multiply(magnitude, Limbs.pow10(n));
     }
 
     /**
@@ -144,8 +585,8 @@ public final class Number extends Numeric implements Cloneable, Serializable {
      */
     public Number update(Number num) {
         Number ret = copy();
-        this.numberHold.update(num);
-        this.original.update(this.numberHold.toString());
+        set(num.signum, num.magnitude(), num.scale);
+        this.original = snapshot();
         return ret;
     }
 
@@ -193,10 +634,35 @@ public final class Number extends Numeric implements Cloneable, Serializable {
         return old;
     }
 
-    private Number mathSet(Number num) {
-        num = num.copy();
-        Basic.numberError(num, "Number");
-        return num;
+    /**
+     * Adds a signed magnitude to this {@code Number}.
+     * @param sign The sign of the value to add.
+     * @param mag The magnitude of the value to add.
+     * @param sc The scale of the value to add.
+     */
+    private void addSigned(int sign, int[] mag, int sc) {
+        if (sign == 0) {
+            return;
+        } else if (signum == 0) {
+            set(sign, mag, sc);
+            return;
+        }
+        int[] mine = magnitude();
+        int sharedScale = Math.max(scale, sc);
+        mine = scaleUp(mine, sharedScale-scale);
+        mag = scaleUp(mag, sharedScale-sc);
+        if (signum == sign) {
+            set(signum, Limbs.add(mine, mag), sharedScale);
+        } else {
+            int compare = Limbs.compare(mine, mag);
+            if (compare == 0) {
+                set(0, Limbs.ZERO, 0);
+            } else if (compare > 0) {
+                set(signum, Limbs.subtract(mine, mag), sharedScale);
+            } else {
+                set(sign, Limbs.subtract(mag, mine), sharedScale);
+            }
+        }
     }
 
     /**
@@ -215,58 +681,16 @@ public final class Number extends Numeric implements Cloneable, Serializable {
      * @return Itself.
      */
     public Number add(Number num) {
-        num = mathSet(num);
-        if (isNegative() && num.isNegative()) {
-            this.numberHold.update(this.numberHold.toString().replaceFirst("-", ""));
-            num = new Number(
-                    num.toString().replaceFirst("-","")
-            );
-            add(num);
-            this.numberHold.update(this.numberHold.toStringBuilder().insert(0, "-"));
-        } else if (isNegative()) {
-            num = num.subtract(new Number(toString().replaceFirst("-","")));
-            this.numberHold.update(num.toString());
-        } else if (num.isNegative()) {
-            return subtract(new Number(num.toString().replaceFirst("-","")));
-        } else {
-            String num2 = this.numberHold.toString();
-            String num3 = num.toString();
-            StringBuilder newnum = new StringBuilder();
-            String[] holder = Basic.addZeroPaddingToDec(num2, num3);
-            num2 = holder[0];
-            num3 = holder[1];
-            if (num2.length() < num3.length()) {
-                newnum = new StringBuilder(num2);
-                num2 = num3;
-                num3 = newnum.toString();
-                newnum = new StringBuilder();
-            }
-            int carry = 0, nndif=num2.length()-num3.length();
-            for (int i=num2.length()-1; i>=0; i--) {
-                if (num2.charAt(i) == '.') {
-                    newnum.insert(0, ".");
-                    continue;
-                }
-                char c1 = num2.charAt(i);
-                char c2 = (i-nndif>=0?num3.charAt(i-nndif):'0');
-                int n = carry+Integer.parseInt(String.valueOf(c1))+Integer.parseInt(String.valueOf(c2));
-                carry = 0;
-                while (n > 9) {
-                    carry += 1;
-                    n -= 10;
-                }
-                newnum.insert(0, n);
-                if (i-nndif < 0 && carry == 0) {
-                    newnum.insert(0, num2.substring(0, i));
-                    break;
-                }
-            }
-            if (carry != 0) {
-                newnum.insert(0, carry);
+        if (magnitude == null && num.magnitude == null) {
+            try {
+                setLong(Math.addExact(compact, num.compact));
+                return this;
+            } catch (ArithmeticException e) {
+                // overflowed, so it's done in limbs
             }
-            this.numberHold.update(new Number(newnum.toString()).toString());
         }
-        return this;//new Number(toString());
+        addSigned(num.signum, num.magnitude(), num.scale);
+        return this;
     } // end of add
     /**
      * Adds a String to this Number.
@@ -333,65 +757,16 @@ public final class Number extends Numeric implements Cloneable, Serializable {
      * @return Itself.
      */
     public Number subtract(Number num) {
-        num = mathSet(num);
-        if (isNegative() && num.isNegative()) {
-            this.numberHold.update("-"+
-                    new Number(
-                            num.toString().replaceFirst("-","")
-                    ).subtract(
-                            new Number(
-                                    toString().replaceFirst("-","")
-                            )
-                    ).toString());
-        } else if (isNegative()) {
-            this.numberHold.update(this.numberHold.toString().replaceFirst("-", ""));
-            this.numberHold.update("-"+add(num).toString());
-        } else if (num.isNegative()) {
-            return add(new Number(num.toString().replaceFirst("-","")));
-        } else {
-            StringBuilder num2 = new StringBuilder(this.numberHold.toString());
-            StringBuilder num3 = new StringBuilder(num.toString());
-            StringBuilder newnum = new StringBuilder();
-            String[] holder = Basic.addZeroPaddingToDec(num2.toString(), num3.toString());
-            num2 = new StringBuilder(holder[0]);
-            num3 = new StringBuilder(holder[1]);
-            if (num2.length() < num3.length()) {
-                for (int i=num2.length(); i<num3.length(); i++) {
-                    num2.insert(0, "0");
-                }
-                //newnum = new StringBuilder(num2.toString());
-                //num2 = new StringBuilder(num3);
-                //num3 = newnum.toString();
-                //newnum = new StringBuilder();
-            } else if (num3.length() < num2.length()) {
-                for (int i=num3.length(); i<num2.length(); i++) {
-                    num3.insert(0, "0");
-                }
+        if (magnitude == null && num.magnitude == null) {
+            try {
+                setLong(Math.subtractExact(compact, num.compact));
+                return this;
+            } catch (ArithmeticException e) {
+                // overflowed, so it's done in limbs
             }
-            int carry = 0;
-            for (int i=num2.length()-1; i>=0; i--) {
-                if (num2.charAt(i) == '.') {
-                    newnum.insert(0, ".");
-                    continue;
-                }
-                int n1 = Integer.parseInt(String.valueOf(num2.charAt(i)))-carry;
-                int n2 = Integer.parseInt(String.valueOf(num3.charAt(i)));
-                int n = 0;
-                if (n1 < n2) {
-                    n = n1+(10-n2);
-                    carry = 1;
-                } else {
-                    n = n1-n2;
-                    carry = 0;
-                }
-                newnum.insert(0, n);
-            }
-            if (carry != 0) {
-                newnum.insert(0, "-");
-            }
-            this.numberHold.update(new Number(newnum.toString()).toString());
         }
-        return this;//new Number(toString());
+        addSigned(-num.signum, num.magnitude(), num.scale);
+        return this;
     } // end of subtract
     /**
      * Subtracts a number string to this Number.
@@ -458,82 +833,16 @@ public final class Number extends Numeric implements Cloneable, Serializable {
      * @return Itself.
      */
     public Number multiply(Number num) {
-        num = mathSet(num);
-        boolean isNeg = false;
-        if (num.equals(new Number(-1))) {
-            if (isNegative()) {
-                this.numberHold.update(this.numberHold.toString().replaceFirst("-", ""));
-            } else {
-                this.numberHold.update(this.numberHold.toStringBuilder().insert(0, '-'));
-            }
-            return this;
-        }
-        if (isNegative() && num.isNegative()) {
-            num = new Number(num.toString().replaceFirst("-",""));
-            this.numberHold.update(this.numberHold.toString().replaceFirst("-", ""));
-        } else if (isNegative()) {
-            isNeg = true;
-            this.numberHold.update(this.numberHold.toString().replaceFirst("-", ""));
-        } else if (num.isNegative()) {
-            isNeg = true;
-            num = new Number(num.toString().replaceFirst("-",""));
-        }
-
-        String num2 = this.numberHold.toString();
-        String num3 = num.toString();
-        StringBuilder newnum = new StringBuilder();
-        String[] holder = Basic.addZeroPaddingToDec(num2, num3);
-        num2 = holder[0];
-        num3 = holder[1];
-        int carry, decamount, decdif=0;
-        try {
-            decamount = num2.split("\\.")[1].length()+1;
-        } catch (ArrayIndexOutOfBoundsException e) {
-            decamount = 0;
-        }
-        for (int i=num2.length()-1; i>=0; i--) {
-            if (num2.charAt(i) == '.') {
-                decdif = 1;
-                continue;
-            }
-            for (int a=decdif; a < (num2.length()-1)-i; a++) {
-                newnum.insert(0, "0");
-            }
-            carry = 0;
-            int n1;
-            n1 = Integer.parseInt(String.valueOf(num2.charAt(i)));
-            for (int ii=num3.length()-1; ii>=0; ii--) {
-                if (num3.charAt(ii) == '.') {
-                    continue;
-                }
-                int n2 = Integer.parseInt(String.valueOf(num3.charAt(ii)));
-                int n = (n1*n2)+carry;
-                carry = 0;
-                while (n > 9 && ii != 0) {
-                    carry += 1;
-                    n -= 10;
-                }
-                newnum.insert(0, n);
+        if (magnitude == null && num.magnitude == null) {
+            try {
+                setLong(Math.multiplyExact(compact, num.compact));
+                return this;
+            } catch (ArithmeticException e) {
+                // overflowed, so it's done in limbs
             }
-            if (i != 0) {
-                newnum.insert(0, "+");
-            }
-        }
-        holder = newnum.toString().split("\\+");
-        num = new Number();
-        for (String s : holder) {
-            num.add(new Number(s));
         }
-        newnum = new StringBuilder(num.toString());
-        if (decamount > 0) {
-            newnum.insert((newnum.length())-decamount, ".");
-        }
-
-        this.numberHold.update(new Number(newnum.toString()).toString());
-        if (isNeg) {
-            this.numberHold.update(this.numberHold.toStringBuilder().insert(0, "-"));
-        }
-        return this;//new Number(toString());
+        set(signum * num.signum, Limbs.multiply(magnitude(), num.magnitude()), scale + num.scale);
+        return this;
     } // end ot multiply
     /**
      * Multiplies a number string to this Number.
@@ -596,92 +905,34 @@ public final class Number extends Numeric implements Cloneable, Serializable {
     }
     /**
      * divides a Number to this Number.
+     * <br>
+     * When the result doesn't end, it is cut off (not rounded)
+     * after {@link #getDecCount() decCount} decimal places.
      * @param num The Number to divide.
      * @return Itself.
      */
     public Number divide(Number num) {
-        if (num.equals(new Number())) {
+        if (num.signum == 0) {
             throw new ArithmeticException(" / by zero");
-        } else if (num.equals(new Number(1))) {
+        } else if (signum == 0) {
+            return this;
+        } else if (magnitude == null && num.magnitude == null && compact % num.compact == 0) {
+            // an exact whole quotient, neither value can be Long.MIN_VALUE
+            setCompact(compact / num.compact);
             return this;
         }
-        num = mathSet(num);
-        boolean isNeg = false;
-        if (isNegative() && num.isNegative()) {
-            num = new Number(num.toString().replaceFirst("-",""));
-            this.numberHold.update(this.numberHold.toString().replaceFirst("-", ""));
-        } else if (isNegative()) {
-            isNeg = true;
-            this.numberHold.update(this.numberHold.toString().replaceFirst("-", ""));
-        } else if (num.isNegative()) {
-            isNeg = true;
-            num = new Number(num.toString().replaceFirst("-",""));
-        }
-
-        String num2 = this.numberHold.toString();
-        String num3 = num.toString().replace(".", "");
-        StringBuilder num4 = new StringBuilder();
-        StringBuilder newnum = new StringBuilder();
-        num = new Number(num3);
-        Number num5 = new Number();
-        int carry, count = 0, cazcount = 0, counting = 0;
-        int wholeamount = num2.split("\\.")[0].length();
-        num2 = num2.replace(".", "");
-        int i = 0;
-        char cnum;
-        do {
-            cnum = (i>=num2.length()?'0':num2.charAt(i));
-            if (cnum == '.') {
-                i++;
-                continue;
-            }
-            carry = 0;
-            if (i<=num2.length()) {
-                num4.append(cnum);
-                num5 = new Number(num4);
-            }
-            if (wholeamount <= 0 && !newnum.toString().contains(".")) {
-                if (newnum.isEmpty()) {
-                    newnum.append("0.");
-                } else {
-                    newnum.append(".");
-                }
-            }
-            while (num5.symbols("greater than or equals", num)) {
-                num5.subtract(num);
-                carry += 1;
-                if (carry == 9) {
-                    break;
-                }
-            }
-            num4 = new StringBuilder(num5.toString().replace(".", ""));
-            //System.out.println(num4);
-            if (num4.toString().equals("0")) {
-                num4 = new StringBuilder();
-            }
-            if (carry == 0 && i>num2.length()) {
-                counting += 1;
-                cazcount += 1;
-                num4.append(cnum);
-                num5 = new Number(num4);
-            }
-            if ((i<=num2.length() && !newnum.isEmpty())|| carry != 0 || counting == 2) {
-                newnum.append(carry);
-                counting = 0;
-            }
-            if (count >= decCount+num2.length()) {
-                break;
-            }
-            count += 1;
-            wholeamount -= 1;
-            i++;
-        } while (num5.symbols("not equals", "0") || wholeamount > 0);
-
-        this.numberHold.update(new Number(newnum.toString()).toString());
-        if (isNeg) {
-            this.numberHold.update(this.numberHold.toStringBuilder().insert(0, "-"));
+        int places = Math.max(decCount, 0);
+        // (a / 10^as) / (b / 10^bs) = (a * 10^(places + bs - as) / b) / 10^places
+        int shift = places + num.scale - scale;
+        int[] dividend = magnitude();
+        int[] divisor = num.magnitude();
+        if (shift >= 0) {
+            dividend = scaleUp(dividend, shift);
+        } else {
+            divisor = scaleUp(divisor, -shift);
         }
-        return this;//new Number(toString());
+        set(signum * num.signum, Division.divide(dividend, divisor)[0], places);
+        return this;
     } // end of divide
     /**
      * divides a number string to this Number.
@@ -742,6 +993,32 @@ public final class Number extends Numeric implements Cloneable, Serializable {
     public Number mod(Number num) {
         return Basic.modulo(this, num);
     } // end of modulo
+    /**
+     * Finds the exact remainder of this Number over {@code num}.
+     * <br>
+     * The quotient is truncated toward zero, so the remainder has the sign of this Number.
+     * Both values are lined up to the same scale and their magnitudes are divided once,
+     * without finding the decimal places of the quotient.
+     * @param num The Number to divide by.
+     * @return The remainder as a new Number.
+     * @throws ArithmeticException if {@code num} is zero.
+     */
+    Number remainder(Number num) {
+        if (num.signum == 0) {
+            throw new ArithmeticException(" / by zero");
+        }
+        Number ret = new Number();
+        ret.decCount = decCount;
+        if (magnitude == null && num.magnitude == null) {
+            ret.setCompact(compact % num.compact);
+            return ret;
+        }
+        int common = Math.max(scale, num.scale);
+        int[] dividend = scaleUp(magnitude(), common - scale);
+        int[] divisor = scaleUp(num.magnitude(), common - num.scale);
+        ret.set(signum, Division.divide(dividend, divisor)[1], common);
+        return ret;
+    }
     public Number mod(String num) {
         return mod(new Number(num));
     }
@@ -839,8 +1116,10 @@ public final class Number extends Numeric implements Cloneable, Serializable {
      * @return Itself
      */
     public Number abs() {
-        if (isNegative()) {
-            this.numberHold.update(this.numberHold.toString().replaceFirst("-", ""));
+        if (magnitude == null) {
+            setCompact(Math.abs(compact));
+        } else if (isNegative()) {
+            set(1, magnitude, scale);
         }
         return this;
     } // end of abs
@@ -854,36 +1133,20 @@ public final class Number extends Numeric implements Cloneable, Serializable {
      * @return Itself
      */
     public Number round(int len) {
-        StringBuilder num = new StringBuilder();
+        int drop = scale - len;
+        if (drop <= 0) {
+            return this;
+        }
+        int[][] qr = Limbs.divide(magnitude(), Limbs.pow10(drop));
+        int[] kept = qr[0];
+        // the dropped part rounds up once it is at least half of 10^drop
+        if (Limbs.compare(Limbs.multiply(qr[1], 2), Limbs.pow10(drop)) >= 0) {
+            kept = Limbs.add(kept, Limbs.ONE);
+        }
         if (len < 0) {
-            len = Math.abs(len);
-            if (new Number(this.numberHold.toString().split("\\.")[0].charAt(len)).symbols("ge", "5")) {
-                num.append("0".repeat(len));
-                num.append("1");
-                add(num.toString());
-            }
-            this.numberHold.update(this.numberHold.toString().split("\\.")[0]);
-            num = new StringBuilder();
-            for (int i = 0; i<this.numberHold.length(); i++) {
-                if (i>len) {
-                    num.append(this.numberHold.charAt(i));
-                } else {
-                    num.append("0");
-                }
-            }
-            this.numberHold.update(num.toString());
+            set(signum, scaleUp(kept, -len), 0);
         } else {
-            if (this.numberHold.toString().split("\\.").length > 1) {
-                if (new Number(this.numberHold.toString().split("\\.")[1].charAt(len)).symbols("ge", "5")) {
-                    if (len != 0) {
-                        num.append("0.");
-                        num.append("0".repeat(Math.max(0, len - 1)));
-                    }
-                    num.append("1");
-                    add(num.toString());
-                }
-                this.numberHold.update(this.numberHold.toString().substring(0, this.numberHold.length()-(this.numberHold.toString().split("\\.")[1].length()-len)));
-            }
+            set(signum, kept, len);
         }
         return this;
     } // end of round
@@ -895,8 +1158,8 @@ public final class Number extends Numeric implements Cloneable, Serializable {
      * @return Itself
      */
     public Number floor() {
-        if (this.numberHold.toString().split("\\.").length > 1) {
-            this.numberHold.update(this.numberHold.toString().split("\\.")[0]);
+        if (scale > 0) {
+            set(signum, Limbs.divide(magnitude(), Limbs.pow10(scale))[0], 0);
         }
         return this;
     } // end of floor
@@ -906,9 +1169,9 @@ public final class Number extends Numeric implements Cloneable, Serializable {
      * @return Itself
      */
     public Number ceiling() {
-        if (this.numberHold.toString().split("\\.").length > 1) {
-            this.numberHold.update(this.numberHold.toString().split("\\.")[0]);
-            add("1");
+        if (scale > 0) {
+            floor();
+            add(1);
         }
         return this;
     } // end of ceiling
@@ -919,9 +1182,141 @@ public final class Number extends Numeric implements Cloneable, Serializable {
      */
     @Override
     public String toString() {
-        return this.numberHold.toString();
+        if (string == null && magnitude == null) {
+            string = Long.toString(compact);
+        } else if (string == null) {
+            String digits = Limbs.toDecimalString(magnitude);
+            StringBuilder ret = new StringBuilder(digits.length()+scale+2);
+            if (signum < 0) {
+                ret.append('-');
+            }
+            if (scale == 0) {
+                ret.append(digits);
+            } else {
+                int whole = digits.length()-scale;
+                if (whole <= 0) {
+                    ret.append("0.");
+                    ret.repeat('0', -whole);
+                    ret.append(digits);
+                } else {
+                    ret.append(digits, 0, whole).append('.').append(digits, whole, digits.length());
+                }
+            }
+            string = ret.toString();
+        }
+        return string;
     } // end of toString
 
+    /**
+     * Gets the whole part of this {@code Number} as a {@code long}.
+     * <br>
+     * Like {@link BigDecimal#longValue()}, the decimal places are cut off,
+     * and only the low 64 bits are kept when the whole part is too big for a {@code long}.
+     * @return The whole part of this {@code Number}, cut down to a {@code long}.
+     * @see #longValueExact()
+     */
+    @Override
+    public long longValue() {
+        if (magnitude == null) {
+            return compact;
+        }
+        int[] whole = wholeMagnitude();
+        long low = 0;
+        for (int i = Math.min(whole.length, 2) - 1; i >= 0; i--) {
+            low = low << 32 | (whole[i] & Limbs.MASK);
+        }
+        return signum < 0 ? -low : low;
+    }
+
+    /**
+     * Gets this {@code Number} as a {@code long}, checking that nothing is lost.
+     * @return The value of this {@code Number}.
+     * @throws ArithmeticException if this {@code Number} has decimal places
+     * or doesn't fit into a {@code long}.
+     */
+    public long longValueExact() {
+        if (magnitude == null) {
+            return compact;
+        }
+        // the only whole number held in limbs that fits is Long.MIN_VALUE
+        if (scale != 0 || signum > 0 || Limbs.compare(magnitude, Limbs.valueOf(Long.MIN_VALUE)) != 0) {
+            throw new ArithmeticException("Out of long range: "+this);
+        }
+        return Long.MIN_VALUE;
+    }
+
+    /**
+     * Gets this {@code Number} as an {@code int}, checking that nothing is lost.
+     * @return The value of this {@code Number}.
+     * @throws ArithmeticException if this {@code Number} has decimal places
+     * or doesn't fit into an {@code int}.
+     */
+    public int intValueExact() {
+        if (magnitude != null || (int) compact != compact) {
+            throw new ArithmeticException("Out of int range: "+this);
+        }
+        return (int) compact;
+    }
+
+    /**
+     * Gets this {@code Number} as the nearest {@code double}, with ties going to the even one.
+     * <br>
+     * This is worked out from the magnitude with a single rounding,
+     * so it is the same {@code double} that {@link Double#parseDouble(String)} would read from {@link #toString()}.
+     * @return The nearest {@code double}, which is infinite if this {@code Number} is too big for one.
+     */
+    @Override
+    public double doubleValue() {
+        if (magnitude == null) {
+            return compact;
+        }
+        return FloatingPoint.toDouble(signum, magnitude, scale, FloatingPoint.DOUBLE);
+    }
+
+    /**
+     * Gets this {@code Number} as the nearest {@code float}, with ties going to the even one.
+     * <br>
+     * This is rounded from the magnitude once, never through a {@code double}.
+     * @return The nearest {@code float}, which is infinite if this {@code Number} is too big for one.
+     */
+    @Override
+    public float floatValue() {
+        if (magnitude == null) {
+            return compact;
+        }
+        return (float) FloatingPoint.toDouble(signum, magnitude, scale, FloatingPoint.FLOAT);
+    }
+
+    /**
+     * Gets the whole part of this {@code Number} as a {@link BigInteger}, cutting off the decimal places.
+     * @return The whole part of this {@code Number}.
+     */
+    public BigInteger toBigInteger() {
+        if (magnitude == null) {
+            return BigInteger.valueOf(compact);
+        }
+        return Limbs.toBigInteger(signum, wholeMagnitude());
+    }
+
+    /**
+     * Gets this {@code Number} as a {@link BigDecimal}, exactly.
+     * @return The {@link BigDecimal} with the same value and scale as this {@code Number}.
+     */
+    public BigDecimal toBigDecimal() {
+        if (magnitude == null) {
+            return BigDecimal.valueOf(compact);
+        }
+        return new BigDecimal(Limbs.toBigInteger(signum, magnitude), scale);
+    }
+
+    /**
+     * Gets the magnitude of the whole part of this {@code Number}, when it is held in limbs.
+     * @return The magnitude without its decimal places.
+     */
+    private int[] wholeMagnitude() {
+        return scale == 0 ? magnitude : Division.divide(magnitude, Limbs.pow10(scale))[0];
+    }
+
     /**
      * This is redundant.
      * @return Itself
@@ -942,10 +1337,7 @@ public final class Number extends Numeric implements Cloneable, Serializable {
      */
     @Override
     public Number copy() {
-        Number ret = new Number(this.numberHold.toString());
-        ret.original.update(this.original.toString());
-        ret.decCount = this.decCount;
-        return ret;
+        return new Number(this);
     }
 
     /**
@@ -956,8 +1348,6 @@ public final class Number extends Numeric implements Cloneable, Serializable {
     @Override
     public Number clone() {
         Number clone = (Number) super.clone();
-        clone.numberHold.update(toString());
-        clone.original.update(original.toString());
         return clone;
     }
 
@@ -968,7 +1358,14 @@ public final class Number extends Numeric implements Cloneable, Serializable {
      * @return A Number instance of the original number provided.
      */
     public Number getOriginal() {
-        return new Number(original.toString());
+        Number ret = new Number();
+        if (original.magnitude() == null) {
+            ret.setCompact(original.compact());
+        } else {
+            ret.set(original.signum(), original.magnitude(), original.scale());
+        }
+        ret.original = original;
+        return ret;
     }
 
     /**
@@ -0,0 +1,494 @@
+package arlot.math;
+
+import java.util.Arrays;
+
+/**
+ * A mutable {@link Number} for loops that build up a value one step at a time.
+ * <br><br>
+ * The value is held the same way as a {@link Number}, as a sign, a magnitude of limbs
+ * and a scale, but the limbs are kept in a buffer that grows as needed and is reused.
+ * Adding, or multiplying by a value that fits into a {@code long},
+ * is done in place, so a loop that does those things leaves close to no garbage behind.
+ * <br>
+ * When the value is done, {@link #freeze()} gives it as a {@link Number}.
+ * The accumulator can then keep being used.
+ * <br><br>
+ * For example:
+ * <pre>
+ * NumberAccumulator product = new NumberAccumulator(1);
+ * for (long i = 2; i &lt;= 100; i++) {
+ *     product.multiply(i);
+ * }
+ * Number factorial = product.freeze(); // 100!
+ * </pre>
+ * A {@code NumberAccumulator} isn't thread safe.
+ */
+public final class NumberAccumulator {
+    /**
+     * The limbs of the magnitude, from least to most significant,
+     * where only the first {@link #length} are used.
+     */
+    private int[] limbs;
+    /**
+     * The count of limbs in use, the limb below it is never zero.
+     */
+    private int length;
+    /**
+     * The sign of the value, being -1, 0 or 1.
+     */
+    private int signum;
+    /**
+     * The count of decimal places that the magnitude is shifted by.
+     */
+    private int scale;
+    /**
+     * Holds a {@code long} as limbs, so that it can be added without allocating.
+     */
+    private final int[] scratch = new int[2];
+
+    /**
+     * Creates a new {@code NumberAccumulator} with the value of zero.
+     */
+    public NumberAccumulator() {
+        this.limbs = new int[4];
+    }
+
+    /**
+     * Creates a new {@code NumberAccumulator} with the value of a {@code long}.
+     * @param value The starting value.
+     */
+    public NumberAccumulator(long value) {
+        this();
+        set(value);
+    }
+
+    /**
+     * Creates a new {@code NumberAccumulator} with the value of a {@link Number}.
+     * @param value The starting value.
+     */
+    public NumberAccumulator(Number value) {
+        this();
+        set(value);
+    }
+
+    // setting
+
+    /**
+     * Sets the value of this {@code NumberAccumulator}.
+     * @param value The new value.
+     * @return Itself.
+     */
+    public NumberAccumulator set(long value) {
+        signum = Long.signum(value);
+        scale = 0;
+        length = 0;
+        if (signum != 0) {
+            // the negation of Long.MIN_VALUE is still correct when read as unsigned
+            long abs = value < 0 ? -value : value;
+            limbs[0] = (int) abs;
+            limbs[1] = (int) (abs >>> 32);
+            length = limbs[1] == 0 ? 1 : 2;
+        }
+        return this;
+    }
+
+    /**
+     * Sets the value of this {@code NumberAccumulator}.
+     * @param value The new value.
+     * @return Itself.
+     */
+    public NumberAccumulator set(Number value) {
+        if (value.isCompact()) {
+            return set(value.compactValue());
+        }
+        int[] magnitude = value.magnitude();
+        ensureCapacity(magnitude.length);
+        System.arraycopy(magnitude, 0, limbs, 0, magnitude.length);
+        length = magnitude.length;
+        signum = value.signum();
+        scale = value.scale();
+        return this;
+    }
+
+    // math
+
+    /**
+     * Adds a {@code long} to this {@code NumberAccumulator}.
+     * @param value The value to add.
+     * @return Itself.
+     */
+    public NumberAccumulator add(long value) {
+        // the negation of Long.MIN_VALUE is still correct when read as unsigned
+        long abs = value < 0 ? -value : value;
+        if (scale > 0 && signum != 0) {
+            int[] magnitude = Limbs.multiply(Limbs.valueOf(abs), Limbs.pow10(scale));
+            addSigned(Long.signum(value), magnitude, magnitude.length);
+            return this;
+        }
+        scratch[0] = (int) abs;
+        scratch[1] = (int) (abs >>> 32);
+        addSigned(Long.signum(value), scratch, scratch[1] != 0 ? 2 : 1);
+        return this;
+    }
+
+    /**
+     * Adds a {@link Number} to this {@code NumberAccumulator}.
+     * @param value The value to add.
+     * @return Itself.
+     */
+    public NumberAccumulator add(Number value) {
+        if (value.isCompact()) {
+            return add(value.compactValue());
+        }
+        int[] magnitude = alignScale(value);
+        addSigned(value.signum(), magnitude, magnitude.length);
+        return this;
+    }
+
+    /**
+     * Subtracts a {@code long} from this {@code NumberAccumulator}.
+     * @param value The value to subtract.
+     * @return Itself.
+     */
+    public NumberAccumulator subtract(long value) {
+        if (value == Long.MIN_VALUE) {
+            return subtract(new Number(value));
+        }
+        return add(-value);
+    }
+
+    /**
+     * Subtracts a {@link Number} from this {@code NumberAccumulator}.
+     * @param value The value to subtract.
+     * @return Itself.
+     */
+    public NumberAccumulator subtract(Number value) {
+        if (value.isCompact()) {
+            return subtract(value.compactValue());
+        }
+        int[] magnitude = alignScale(value);
+        addSigned(-value.signum(), magnitude, magnitude.length);
+        return this;
+    }
+
+    /**
+     * Multiplies this {@code NumberAccumulator} by a {@code long}, in place.
+     * @param value The value to multiply by.
+     * @return Itself.
+     */
+    public NumberAccumulator multiply(long value) {
+        if (value == 0 || signum == 0) {
+            return set(0);
+        }
+        signum *= Long.signum(value);
+        // the negation of Long.MIN_VALUE is still correct when read as unsigned
+        long abs = value < 0 ? -value : value;
+        if ((abs >>> 32) == 0) {
+            multiplySmall((int) abs);
+        } else {
+            multiplyLong(abs);
+        }
+        return this;
+    }
+
+    /**
+     * Multiplies this {@code NumberAccumulator} by a {@link Number}.
+     * <br>
+     * This is done in place when {@code value} is a whole number that fits into a {@code long}.
+     * @param value The value to multiply by.
+     * @return Itself.
+     */
+    public NumberAccumulator multiply(Number value) {
+        if (value.isCompact()) {
+            return multiply(value.compactValue());
+        } else if (signum == 0) {
+            return this;
+        }
+        int[] magnitude = value.magnitude();
+        int[] product = Limbs.multiply(Arrays.copyOf(limbs, length), magnitude);
+        limbs = product.length >= 4 ? product : Arrays.copyOf(product, 4);
+        length = product.length;
+        signum *= value.signum();
+        scale += value.scale();
+        return this;
+    }
+
+    /**
+     * Multiplies this {@code NumberAccumulator} by 2<sup>{@code bits}</sup>, in place.
+     * @param bits The count of bits to shift by, when negative this will {@link #shiftRight(int) shift right}.
+     * @return Itself.
+     */
+    public NumberAccumulator shiftLeft(int bits) {
+        if (bits < 0) {
+            return shiftRight(-bits);
+        } else if (bits == 0 || signum == 0) {
+            return this;
+        }
+        int words = bits >>> 5;
+        int shift = bits & 31;
+        ensureCapacity(length + words + 1);
+        if (shift == 0) {
+            System.arraycopy(limbs, 0, limbs, words, length);
+            limbs[length + words] = 0;
+        } else {
+            limbs[length + words] = limbs[length-1] >>> (32 - shift);
+            for (int i = length-1; i > 0; i--) {
+                limbs[i + words] = (limbs[i] << shift) | (limbs[i-1] >>> (32 - shift));
+            }
+            limbs[words] = limbs[0] << shift;
+        }
+        Arrays.fill(limbs, 0, words, 0);
+        length += words + 1;
+        trim();
+        return this;
+    }
+
+    /**
+     * Divides this {@code NumberAccumulator} by 2<sup>{@code bits}</sup>, in place.
+     * <br>
+     * This is always exact, since it's the same as multiplying by
+     * 5<sup>{@code bits}</sup> and moving the decimal point {@code bits} places to the left.
+     * @param bits The count of bits to shift by, when negative this will {@link #shiftLeft(int) shift left}.
+     * @return Itself.
+     */
+    public NumberAccumulator shiftRight(int bits) {
+        if (bits < 0) {
+            return shiftLeft(-bits);
+        } else if (signum == 0) {
+            return this;
+        }
+        // 5^13 is the largest power of five that fits into an int
+        int remaining = bits;
+        for (; remaining >= 13; remaining -= 13) {
+            multiplySmall(1_220_703_125);
+        }
+        int power = 1;
+        for (int i = 0; i < remaining; i++) {
+            power *= 5;
+        }
+        multiplySmall(power);
+        scale += bits;
+        return this;
+    }
+
+    /**
+     * Moves the decimal point of this {@code NumberAccumulator}, which multiplies it by
+     * 10<sup>{@code places}</sup>.
+     * @param places The count of places to move the point to the right,
+     *               when negative it is moved to the left.
+     * @return Itself.
+     */
+    public NumberAccumulator movePoint(int places) {
+        if (signum == 0) {
+            return this;
+        } else if (places <= scale) {
+            scale -= places;
+        } else {
+            scaleUp(places - scale);
+            scale = 0;
+        }
+        return this;
+    }
+
+    // getters
+
+    /**
+     * Gets the sign of this {@code NumberAccumulator}.
+     * @return {@code -1}, {@code 0} or {@code 1} as the value is negative, zero or positive.
+     */
+    public int signum() {
+        return signum;
+    }
+
+    /**
+     * Gives the current value as a {@link Number}.
+     * <br>
+     * The {@link Number} doesn't share anything with this {@code NumberAccumulator},
+     * so this {@code NumberAccumulator} can keep being used.
+     * @return The current value.
+     */
+    public Number freeze() {
+        return Number.valueOf(signum, Arrays.copyOf(limbs, length), scale);
+    }
+
+    /**
+     * Gives the current value as a {@link String}.
+     * @return The same as the {@link Number#toString()} of {@link #freeze()}.
+     */
+    @Override
+    public String toString() {
+        return freeze().toString();
+    }
+
+    // internal limb handling
+
+    /**
+     * Makes sure that the buffer can hold a count of limbs.
+     * @param capacity The count of limbs needed.
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity > limbs.length) {
+            limbs = Arrays.copyOf(limbs, Math.max(capacity, limbs.length + (limbs.length >> 1)));
+        }
+    }
+
+    /**
+     * Drops the most significant limbs that are zero.
+     */
+    private void trim() {
+        while (length > 0 && limbs[length-1] == 0) {
+            length--;
+        }
+        if (length == 0) {
+            signum = 0;
+            scale = 0;
+        }
+    }
+
+    /**
+     * Lines up the scale of this {@code NumberAccumulator} with the scale of a value.
+     * @param value The value that will be added.
+     * @return The magnitude of {@code value} at the scale of this {@code NumberAccumulator}.
+     */
+    private int[] alignScale(Number value) {
+        int[] magnitude = value.magnitude();
+        if (signum == 0) {
+            scale = value.scale();
+        } else if (value.scale() > scale) {
+            scaleUp(value.scale() - scale);
+            scale = value.scale();
+        } else if (value.scale() < scale) {
+            magnitude = Limbs.multiply(magnitude, Limbs.pow10(scale - value.scale()));
+        }
+        return magnitude;
+    }
+
+    /**
+     * Multiplies the magnitude by 10<sup>{@code n}</sup>, in place.
+     * @param n The power of ten.
+     */
+    private void scaleUp(int n) {
+        for (; n >= Limbs.DECIMAL_DIGITS; n -= Limbs.DECIMAL_DIGITS) {
+            multiplySmall(Limbs.DECIMAL_BASE);
+        }
+        multiplySmall(Limbs.INT_POW10[n]);
+    }
+
+    /**
+     * Adds a signed magnitude to this {@code NumberAccumulator}, in place.
+     * @param sign The sign of the value.
+     * @param b The limbs of the value.
+     * @param bLength The count of limbs used in {@code b}.
+     */
+    private void addSigned(int sign, int[] b, int bLength) {
+        if (sign == 0 || bLength == 0) {
+            return;
+        } else if (signum == 0) {
+            ensureCapacity(bLength);
+            System.arraycopy(b, 0, limbs, 0, bLength);
+            length = bLength;
+            signum = sign;
+            return;
+        }
+        if (signum == sign) {
+            int size = Math.max(length, bLength);
+            ensureCapacity(size + 1);
+            long carry = 0;
+            for (int i = 0; i < size; i++) {
+                long sum = (i < length ? limbs[i] & Limbs.MASK : 0) + (i < bLength ? b[i] & Limbs.MASK : 0) + carry;
+                limbs[i] = (int) sum;
+                carry = sum >>> 32;
+            }
+            limbs[size] = (int) carry;
+            length = size + 1;
+        } else {
+            int compare = compareMagnitude(b, bLength);
+            if (compare == 0) {
+                set(0);
+                return;
+            }
+            ensureCapacity(bLength);
+            long borrow = 0;
+            if (compare > 0) {
+                // this - b, where this is the bigger one
+                for (int i = 0; i < length; i++) {
+                    long diff = (limbs[i] & Limbs.MASK) - (i < bLength ? b[i] & Limbs.MASK : 0) - borrow;
+                    limbs[i] = (int) diff;
+                    borrow = diff < 0 ? 1 : 0;
+                }
+            } else {
+                // b - this, where b is the bigger one
+                for (int i = 0; i < bLength; i++) {
+                    long diff = (b[i] & Limbs.MASK) - (i < length ? limbs[i] & Limbs.MASK : 0) - borrow;
+                    limbs[i] = (int) diff;
+                    borrow = diff < 0 ? 1 : 0;
+                }
+                length = bLength;
+                signum = sign;
+            }
+        }
+        trim();
+    }
+
+    /**
+     * Compares the magnitude with the magnitude of a value.
+     * @param b The limbs of the value.
+     * @param bLength The count of limbs used in {@code b}.
+     * @return a negative integer, zero, or a positive integer as the magnitude is
+     * less than, equal to, or greater than {@code b}.
+     */
+    private int compareMagnitude(int[] b, int bLength) {
+        if (length != bLength) {
+            return length < bLength ? -1 : 1;
+        }
+        for (int i = length-1; i >= 0; i--) {
+            if (limbs[i] != b[i]) {
+                return Integer.compareUnsigned(limbs[i], b[i]);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Multiplies the magnitude by an unsigned {@code int}, in place.
+     * @param value The value, read as unsigned.
+     */
+    private void multiplySmall(int value) {
+        long m = value & Limbs.MASK;
+        long carry = 0;
+        for (int i = 0; i < length; i++) {
+            long product = (limbs[i] & Limbs.MASK) * m + carry;
+            limbs[i] = (int) product;
+            carry = product >>> 32;
+        }
+        if (carry != 0) {
+            ensureCapacity(length + 1);
+            limbs[length++] = (int) carry;
+        }
+        trim();
+    }
+
+    /**
+     * Multiplies the magnitude by an unsigned {@code long}, in place.
+     * @param value The value, read as unsigned.
+     */
+    private void multiplyLong(long value) {
+        // the carry always stays below value, so it fits into a long
+        long carry = 0;
+        for (int i = 0; i < length; i++) {
+            long limb = limbs[i] & Limbs.MASK;
+            long low = limb * value;
+            long high = Math.unsignedMultiplyHigh(limb, value);
+            low += carry;
+            if (Long.compareUnsigned(low, carry) < 0) {
+                high++;
+            }
+            limbs[i] = (int) low;
+            carry = (low >>> 32) | (high << 32);
+        }
+        ensureCapacity(length + 2);
+        limbs[length++] = (int) carry;
+        limbs[length++] = (int) (carry >>> 32);
+        trim();
+    }
+}
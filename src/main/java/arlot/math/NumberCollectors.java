@@ -0,0 +1,233 @@
+package arlot.math;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * {@link Collector}s that sum, multiply, average and find the smallest and biggest of
+ * streams of {@link Numeric} values, exactly.
+ * <br><br>
+ * The arithmetic of a {@link Number} is done in place, so
+ * {@code stream.reduce(new Number(), Number::add)} changes the one identity value from every thread,
+ * and copying a {@link Number} for every step leaves a lot of garbage behind.
+ * These collectors give each thread of a stream its own container instead,
+ * and join the containers once each thread is done, so they are safe for parallel streams.
+ * <ul>
+ *     <li>Sums are added up in place in a {@link NumberAccumulator}.</li>
+ *     <li>Products are multiplied as a balanced tree: each new value is multiplied
+ *     with the last partial product only when both hold the same count of values,
+ *     so most multiplications are between values of about the same size,
+ *     which is where fast multiplication wins (see {@link Multiplication}).</li>
+ * </ul>
+ * For example:
+ * <pre>
+ * Number total = values.parallelStream().collect(NumberCollectors.sum());
+ * Number factorial = LongStream.rangeClosed(1, 10_000).mapToObj(Number::new)
+ *         .collect(NumberCollectors.product());
+ * </pre>
+ */
+public final class NumberCollectors {
+    private NumberCollectors() {}
+
+    /**
+     * Gets a {@link Collector} that adds up {@code Numeric} values.
+     * @param <T> The type of the values.
+     * @return The {@link Collector}, which gives zero when there are no values.
+     */
+    public static <T extends Numeric> Collector<T, ?, Number> sum() {
+        return Collector.of(
+                NumberAccumulator::new,
+                (sum, value) -> sum.add(value.toNumber()),
+                (left, right) -> left.add(right.freeze()),
+                NumberAccumulator::freeze,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Gets a {@link Collector} that multiplies {@code Numeric} values together as a balanced tree.
+     * @param <T> The type of the values.
+     * @return The {@link Collector}, which gives one when there are no values.
+     */
+    public static <T extends Numeric> Collector<T, ?, Number> product() {
+        return Collector.of(
+                Product::new,
+                (product, value) -> product.multiply(value.toNumber()),
+                Product::join,
+                Product::toNumber,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Gets a {@link Collector} that averages {@code Numeric} values.
+     * <br>
+     * The values are added up exactly, and the sum is divided by the count of values once at the end,
+     * cut off after the default {@link Number#getDecCount() decCount} of decimal places.
+     * @param <T> The type of the values.
+     * @return The {@link Collector}, which gives zero when there are no values.
+     */
+    public static <T extends Numeric> Collector<T, ?, Number> mean() {
+        return mean(new Number().getDecCount());
+    }
+
+    /**
+     * Gets a {@link Collector} that averages {@code Numeric} values.
+     * <br>
+     * The values are added up exactly, and the sum is divided by the count of values once at the end.
+     * @param places The count of decimal places that the mean is cut off after.
+     * @param <T> The type of the values.
+     * @return The {@link Collector}, which gives zero when there are no values.
+     * @throws IllegalArgumentException if {@code places} is negative.
+     */
+    public static <T extends Numeric> Collector<T, ?, Number> mean(int places) {
+        if (places < 0) {
+            throw new IllegalArgumentException("The count of decimal places can't be negative: "+places);
+        }
+        return Collector.of(
+                Mean::new,
+                (mean, value) -> mean.add(value.toNumber()),
+                Mean::join,
+                mean -> mean.toNumber(places),
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Gets a {@link Collector} that finds the smallest {@code Numeric} value.
+     * @param <T> The type of the values.
+     * @return The {@link Collector}, which gives the first of the smallest values,
+     * or an empty {@link Optional} when there are no values.
+     */
+    public static <T extends Numeric> Collector<T, ?, Optional<T>> min() {
+        return Collectors.minBy(Comparator.naturalOrder());
+    }
+
+    /**
+     * Gets a {@link Collector} that finds the biggest {@code Numeric} value.
+     * @param <T> The type of the values.
+     * @return The {@link Collector}, which gives the first of the biggest values,
+     * or an empty {@link Optional} when there are no values.
+     */
+    public static <T extends Numeric> Collector<T, ?, Optional<T>> max() {
+        return Collectors.maxBy(Comparator.naturalOrder());
+    }
+
+    /**
+     * A product that is multiplied as a balanced tree.
+     * <br>
+     * The partial products are kept on a stack, each with the count of values in it as a power of two,
+     * like the digits of a binary counter.
+     * A new value is pushed, and the top two partial products are multiplied
+     * for as long as they hold the same count of values.
+     */
+    private static final class Product {
+        private int signum = 1;
+        /**
+         * The sum of the scales of every value.
+         */
+        private long scale;
+        private int[][] parts = new int[8][];
+        /**
+         * The count of values in each partial product, as a power of two.
+         */
+        private int[] levels = new int[8];
+        private int size;
+
+        private void multiply(Number value) {
+            if (signum == 0) {
+                return;
+            } else if (value.signum() == 0) {
+                signum = 0;
+                parts = null;
+                return;
+            }
+            signum *= value.signum();
+            scale += value.scale();
+            push(value.magnitude(), 0);
+        }
+
+        private void push(int[] part, int level) {
+            while (size > 0 && levels[size - 1] == level) {
+                part = Limbs.multiply(parts[--size], part);
+                level++;
+            }
+            if (size == parts.length) {
+                parts = Arrays.copyOf(parts, size * 2);
+                levels = Arrays.copyOf(levels, size * 2);
+            }
+            parts[size] = part;
+            levels[size++] = level;
+        }
+
+        /**
+         * Multiplies the partial products together, from the smallest up.
+         */
+        private int[] magnitude() {
+            int[] ret = Limbs.ONE;
+            for (int i = size - 1; i >= 0; i--) {
+                ret = Limbs.multiply(parts[i], ret);
+            }
+            return ret;
+        }
+
+        private Product join(Product other) {
+            if (signum == 0 || other.signum == 0) {
+                signum = 0;
+                parts = null;
+                return this;
+            } else if (other.size == 0) {
+                return this;
+            } else if (size == 0) {
+                return other;
+            }
+            // the halves of a split stream hold about as many values, so their products are about the same size
+            int level = Math.max(levels[0], other.levels[0]) + 1;
+            parts[0] = Limbs.multiply(magnitude(), other.magnitude());
+            levels[0] = level;
+            size = 1;
+            signum *= other.signum;
+            scale += other.scale;
+            return this;
+        }
+
+        private Number toNumber() {
+            if (signum == 0) {
+                return new Number();
+            } else if (scale > Integer.MAX_VALUE) {
+                throw new ArithmeticException("The product has too many decimal places: "+scale);
+            }
+            return Number.valueOf(signum, magnitude(), (int) scale);
+        }
+    }
+
+    /**
+     * An exact sum and a count of values.
+     */
+    private static final class Mean {
+        private final NumberAccumulator sum = new NumberAccumulator();
+        private long count;
+
+        private void add(Number value) {
+            sum.add(value);
+            count++;
+        }
+
+        private Mean join(Mean other) {
+            sum.add(other.sum.freeze());
+            count += other.count;
+            return this;
+        }
+
+        private Number toNumber(int places) {
+            Number ret = sum.freeze();
+            if (count == 0) {
+                return ret;
+            }
+            int old = ret.setDecCount(places);
+            ret.divide(new Number(count));
+            ret.setDecCount(old);
+            return ret;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package arlot.math;
+
+import java.util.Arrays;
+
+/**
+ * The scanner that reads {@link NumericString Numeric values} into {@link Number}s.
+ * <br><br>
+ * Each character is read once. Its class (a digit, a dot, a sign, an exponent mark and so on)
+ * is looked up in a table, and the state that the scanner moves to is looked up in a second table,
+ * so checking a value is two array reads per character.
+ * While the characters are checked, the sign and the exponent are read,
+ * the leading zeros are skipped, and the place of the last digit that isn't zero is kept,
+ * so the trailing zeros of the decimal places are never read into the value.
+ * <br>
+ * Values of up to 18 digits are summed into a {@code long} as they are read.
+ * Longer values are read from the range of their digits that matters by {@link Radix}.
+ * <br><br>
+ * The values that are read are:
+ * <pre>
+ * [+|-] digits [. [digits]] [exponent]
+ * [+|-] . digits [exponent]
+ * </pre>
+ * where the exponent is {@code e} or {@code E}, or {@code x10^}, {@code X10^} or {@code *10^},
+ * followed by an optionally signed whole number.
+ */
+final class NumberScanner {
+    // character classes
+    private static final int ZERO = 0;
+    private static final int ONE = 1;
+    private static final int DIGIT = 2;
+    private static final int DOT = 3;
+    private static final int SIGN = 4;
+    private static final int EXPONENT = 5;
+    private static final int TIMES = 6;
+    private static final int CARET = 7;
+    private static final int OTHER = 8;
+
+    // states
+    private static final int START = 0;
+    private static final int SIGNED = 1;
+    private static final int WHOLE = 2;
+    private static final int LEADING_DOT = 3;
+    private static final int POINT = 4;
+    private static final int FRACTION = 5;
+    private static final int EXPONENT_MARK = 6;
+    private static final int EXPONENT_SIGNED = 7;
+    private static final int EXPONENT_DIGITS = 8;
+    private static final int TIMES_MARK = 9;
+    private static final int TIMES_ONE = 10;
+    private static final int TIMES_TEN = 11;
+    private static final int ERROR = 12;
+
+    /**
+     * The class of each ASCII character, anything else is {@link #OTHER}.
+     */
+    private static final byte[] CLASSES = new byte[128];
+    /**
+     * The state that each state moves to on each class of character.
+     */
+    private static final byte[][] NEXT = new byte[ERROR + 1][OTHER + 1];
+    /**
+     * Whether a value may end in each state.
+     */
+    private static final boolean[] ACCEPTING = new boolean[ERROR + 1];
+    static {
+        Arrays.fill(CLASSES, (byte) OTHER);
+        CLASSES['0'] = ZERO;
+        CLASSES['1'] = ONE;
+        for (char c = '2'; c <= '9'; c++) {
+            CLASSES[c] = DIGIT;
+        }
+        CLASSES['.'] = DOT;
+        CLASSES['+'] = SIGN;
+        CLASSES['-'] = SIGN;
+        CLASSES['e'] = EXPONENT;
+        CLASSES['E'] = EXPONENT;
+        CLASSES['x'] = TIMES;
+        CLASSES['X'] = TIMES;
+        CLASSES['*'] = TIMES;
+        CLASSES['^'] = CARET;
+
+        for (byte[] row : NEXT) {
+            Arrays.fill(row, (byte) ERROR);
+        }
+        digits(START, WHOLE);
+        NEXT[START][SIGN] = SIGNED;
+        NEXT[START][DOT] = LEADING_DOT;
+        digits(SIGNED, WHOLE);
+        NEXT[SIGNED][DOT] = LEADING_DOT;
+        digits(WHOLE, WHOLE);
+        NEXT[WHOLE][DOT] = POINT;
+        exponents(WHOLE);
+        digits(LEADING_DOT, FRACTION);
+        digits(POINT, FRACTION);
+        exponents(POINT);
+        digits(FRACTION, FRACTION);
+        exponents(FRACTION);
+        digits(EXPONENT_MARK, EXPONENT_DIGITS);
+        NEXT[EXPONENT_MARK][SIGN] = EXPONENT_SIGNED;
+        digits(EXPONENT_SIGNED, EXPONENT_DIGITS);
+        digits(EXPONENT_DIGITS, EXPONENT_DIGITS);
+        // x10^ is read one character at a time
+        NEXT[TIMES_MARK][ONE] = TIMES_ONE;
+        NEXT[TIMES_ONE][ZERO] = TIMES_TEN;
+        NEXT[TIMES_TEN][CARET] = EXPONENT_MARK;
+
+        ACCEPTING[WHOLE] = true;
+        ACCEPTING[POINT] = true;
+        ACCEPTING[FRACTION] = true;
+        ACCEPTING[EXPONENT_DIGITS] = true;
+    }
+    /**
+     * The most digits that are summed into a {@code long}.
+     */
+    private static final int LONG_DIGITS = 18;
+    /**
+     * The biggest exponent that is read.
+     */
+    private static final int MAX_EXPONENT = 999_999_999;
+
+    private NumberScanner() {}
+
+    private static void digits(int state, int next) {
+        NEXT[state][ZERO] = (byte) next;
+        NEXT[state][ONE] = (byte) next;
+        NEXT[state][DIGIT] = (byte) next;
+    }
+
+    private static void exponents(int state) {
+        NEXT[state][EXPONENT] = EXPONENT_MARK;
+        NEXT[state][TIMES] = TIMES_MARK;
+    }
+
+    private static int classOf(char c) {
+        return c < CLASSES.length ? CLASSES[c] : OTHER;
+    }
+
+    /**
+     * Reads a value that isn't a fraction into a {@code Number}.
+     * @param text The characters to read.
+     * @param start The index to start at (inclusive).
+     * @param end The index to end at (exclusive).
+     * @param into The {@code Number} to set, which is only changed if the value is valid.
+     * @return {@code true} if the range held a valid value.
+     */
+    static boolean scan(CharSequence text, int start, int end, Number into) {
+        int state = START;
+        int signum = 1;
+        int exponentSign = 1;
+        long exponent = 0;
+        // the significant digits run from first up to last, skipping the dot
+        int first = -1;
+        int last = -1;
+        int dot = -1;
+        int wholeEnd = start;
+        int digits = 0;
+        int fractionDigits = 0;
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            state = NEXT[state][classOf(c)];
+            switch (state) {
+                case SIGNED -> signum = c == '-' ? -1 : 1;
+                case WHOLE, FRACTION -> {
+                    if (state == FRACTION) {
+                        fractionDigits++;
+                    } else {
+                        wholeEnd = i + 1;
+                    }
+                    if (c != '0') {
+                        if (first < 0) {
+                            first = i;
+                        }
+                        last = i;
+                    }
+                    if (first >= 0 && ++digits <= LONG_DIGITS) {
+                        value = value * 10 + (c - '0');
+                    }
+                }
+                case LEADING_DOT, POINT -> dot = i;
+                case EXPONENT_SIGNED -> exponentSign = c == '-' ? -1 : 1;
+                case EXPONENT_DIGITS -> exponent = Math.min(exponent * 10 + (c - '0'), MAX_EXPONENT + 1L);
+                case ERROR -> {
+                    return false;
+                }
+                default -> {}
+            }
+        }
+        if (!ACCEPTING[state] || exponent > MAX_EXPONENT) {
+            return false;
+        }
+        if (first < 0) {
+            into.setLong(0);
+            return true;
+        }
+        long scale = fractionDigits - exponentSign * exponent;
+        int[] magnitude;
+        if (digits <= LONG_DIGITS) {
+            if (scale == 0) {
+                into.setLong(signum * value);
+                return true;
+            }
+            magnitude = Limbs.valueOf(value);
+        } else {
+            // the zeros after the last significant digit are left out of the magnitude
+            magnitude = Limbs.parse(text, first, last + 1);
+            int places = dot >= 0 && last > dot ? last - dot : last + 1 - wholeEnd;
+            scale = places - exponentSign * exponent;
+        }
+        if (scale < 0) {
+            if (-scale > MAX_EXPONENT) {
+                return false;
+            }
+            magnitude = Limbs.multiply(magnitude, Limbs.pow10((int) -scale));
+            scale = 0;
+        } else if (scale > MAX_EXPONENT) {
+            return false;
+        }
+        into.set(signum, magnitude, (int) scale);
+        return true;
+    }
+
+    /**
+     * Checks if a value is valid, as a decimal or as a fraction of two decimals.
+     * @param text The characters to check.
+     * @return {@code true} if {@code text} is valid.
+     */
+    static boolean isNumber(CharSequence text) {
+        int slash = slash(text);
+        if (slash == -2) {
+            return false;
+        } else if (slash >= 0) {
+            return check(text, 0, slash) && check(text, slash + 1, text.length());
+        }
+        return check(text, 0, text.length());
+    }
+
+    /**
+     * Writes a value the way that a {@link Number} writes it,
+     * with no leading zeros, no trailing zeros in the decimal places and no exponent.
+     * <br>
+     * Each side of a fraction is written on its own.
+     * @param text The characters to read.
+     * @return The value, or {@code null} if {@code text} isn't valid.
+     */
+    static String canonical(CharSequence text) {
+        int slash = slash(text);
+        if (slash == -2) {
+            return null;
+        } else if (slash >= 0) {
+            Number top = new Number();
+            Number bottom = new Number();
+            if (!scan(text, 0, slash, top) || !scan(text, slash + 1, text.length(), bottom)) {
+                return null;
+            }
+            return top+"/"+bottom;
+        }
+        Number value = new Number();
+        return scan(text, 0, text.length(), value) ? value.toString() : null;
+    }
+
+    /**
+     * Checks that a range is a valid value without reading it.
+     */
+    private static boolean check(CharSequence text, int start, int end) {
+        int state = START;
+        for (int i = start; i < end && state != ERROR; i++) {
+            state = NEXT[state][classOf(text.charAt(i))];
+        }
+        return ACCEPTING[state];
+    }
+
+    /**
+     * Finds the slash of a fraction.
+     * @return The index of the slash, {@code -1} if there is none, or {@code -2} if there is more than one.
+     */
+    private static int slash(CharSequence text) {
+        int ret = -1;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '/') {
+                if (ret >= 0) {
+                    return -2;
+                }
+                ret = i;
+            }
+        }
+        return ret;
+    }
+}
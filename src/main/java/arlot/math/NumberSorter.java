@@ -0,0 +1,366 @@
+package arlot.math;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/**
+ * Sorts arrays of {@link Numeric} values from the smallest to the biggest.
+ * <br><br>
+ * Each value is turned into a key once: a row of {@code int}s that are compared as unsigned,
+ * so that the keys are in the same order as the values.
+ * <ul>
+ *     <li>The first {@code int} is the sign, being 0, 1 or 2 for a negative value, zero and a positive value.</li>
+ *     <li>The second {@code int} is the decimal exponent, the count of digits before the decimal point,
+ *     which is negative for a value below {@code 0.1}.</li>
+ *     <li>The rest are the leading digits of the magnitude, nine to an {@code int},
+ *     with the first digit that isn't zero at the start and zeros filling in the end.</li>
+ * </ul>
+ * For negative values every {@code int} after the sign is flipped, since a bigger magnitude is a smaller value.
+ * Every key has the same count of digit {@code int}s, enough for the longest value up to {@value #MAX_CHUNKS} of them.
+ * <br>
+ * The keys are sorted with a most significant digit first radix sort, one byte at a time,
+ * so sorting takes a few passes over the keys instead of <code>n log n</code> comparisons.
+ * Small buckets are finished with an insertion sort,
+ * and values whose digits run past the key are told apart with {@link Numeric#compareTo(Numeric)}.
+ * <br>
+ * The sort is stable, equal values keep their order.
+ * <br><br>
+ * For example:
+ * <pre>
+ * Number[] values = {new Number("2.5"), new Number(-3), new Number("0.001")};
+ * NumberSorter.sort(values); // -3, 0.001, 2.5
+ * </pre>
+ */
+public final class NumberSorter {
+    /**
+     * The most {@code int}s of digits that a key holds, past which values are compared.
+     */
+    static final int MAX_CHUNKS = 4;
+    /**
+     * The count of values in an array or a bucket before it is sorted across threads.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 14;
+    /**
+     * The count of values in a bucket up to which it is sorted with an insertion sort.
+     */
+    private static final int INSERTION_SIZE = 32;
+    /**
+     * The count of {@code int}s before the digits, the sign and the exponent.
+     */
+    private static final int HEADER = 2;
+
+    private NumberSorter() {}
+
+    /**
+     * Sorts an array of {@code Numeric} values.
+     * @param values The values to sort.
+     * @param <T> The type of the values.
+     */
+    public static <T extends Numeric> void sort(T[] values) {
+        sort(values, 0, values.length, false);
+    }
+
+    /**
+     * Sorts a range of an array of {@code Numeric} values.
+     * @param values The values to sort.
+     * @param from The index of the first value to sort (inclusive).
+     * @param to The index after the last value to sort (exclusive).
+     * @param <T> The type of the values.
+     * @throws ArrayIndexOutOfBoundsException if the range is outside of the array.
+     * @throws IllegalArgumentException if {@code from} is bigger than {@code to}.
+     */
+    public static <T extends Numeric> void sort(T[] values, int from, int to) {
+        sort(values, from, to, false);
+    }
+
+    /**
+     * Sorts an array of {@code Numeric} values, building the keys and sorting big buckets across threads.
+     * <br>
+     * Arrays of fewer than {@value #PARALLEL_THRESHOLD} values are sorted the same as {@link #sort(Numeric[])}.
+     * @param values The values to sort.
+     * @param <T> The type of the values.
+     */
+    public static <T extends Numeric> void parallelSort(T[] values) {
+        sort(values, 0, values.length, values.length >= PARALLEL_THRESHOLD);
+    }
+
+    private static <T extends Numeric> void sort(T[] values, int from, int to, boolean parallel) {
+        if (from > to) {
+            throw new IllegalArgumentException("from("+from+") > to("+to+")");
+        } else if (from < 0 || to > values.length) {
+            throw new ArrayIndexOutOfBoundsException(from < 0 ? from : to);
+        }
+        int size = to - from;
+        if (size < 2) {
+            return;
+        }
+        Number[] numbers = new Number[size];
+        IntStream indexes = IntStream.range(0, size);
+        if (parallel) {
+            indexes = indexes.parallel();
+        }
+        int chunks = indexes.map(i -> {
+            numbers[i] = values[from + i].toNumber();
+            return chunks(numbers[i]);
+        }).max().orElse(0);
+        Keys keys = new Keys(numbers, Math.min(chunks, MAX_CHUNKS), chunks > MAX_CHUNKS);
+        indexes = IntStream.range(0, size);
+        if (parallel) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(keys::build);
+
+        int[] order = new int[size];
+        Arrays.setAll(order, i -> i);
+        new Bucket(keys, order, new int[size], 0, size, 0, parallel).invoke();
+
+        T[] sorted = Arrays.copyOfRange(values, from, to);
+        for (int i = 0; i < size; i++) {
+            values[from + i] = sorted[order[i]];
+        }
+    }
+
+    /**
+     * Gets the count of {@code int}s that the digits of a value fill.
+     */
+    private static int chunks(Number value) {
+        if (value.signum() == 0) {
+            return 0;
+        } else if (value.isCompact()) {
+            return (digits(Math.abs(value.compactValue())) + Limbs.DECIMAL_DIGITS - 1) / Limbs.DECIMAL_DIGITS;
+        }
+        // every 32 bits hold fewer than 9.64 digits, which is enough to tell if the key is too short
+        long digits = (long) Limbs.bitLength(value.magnitude()) * 30103 / 100000 + 1;
+        return (int) Math.min((digits + Limbs.DECIMAL_DIGITS - 1) / Limbs.DECIMAL_DIGITS, MAX_CHUNKS + 1);
+    }
+
+    /**
+     * Gets the count of decimal digits in a positive {@code long}.
+     */
+    private static int digits(long value) {
+        int ret = 1;
+        while (ret < Limbs.LONG_POW10.length && value >= Limbs.LONG_POW10[ret]) {
+            ret++;
+        }
+        return ret;
+    }
+
+    /**
+     * The keys of the values being sorted, in one array with a row for each value.
+     */
+    private static final class Keys {
+        private final Number[] values;
+        private final int[] words;
+        private final int width;
+        private final int chunks;
+        /**
+         * {@code true} if some value has more digits than its key holds.
+         */
+        private final boolean truncated;
+
+        private Keys(Number[] values, int chunks, boolean truncated) {
+            this.values = values;
+            this.chunks = chunks;
+            this.width = HEADER + chunks;
+            this.words = new int[values.length * width];
+            this.truncated = truncated;
+        }
+
+        /**
+         * Gets the count of bytes in a key.
+         */
+        private int bytes() {
+            return width << 2;
+        }
+
+        /**
+         * Gets a byte of a key, the most significant first.
+         */
+        private int byteAt(int index, int position) {
+            return words[index * width + (position >>> 2)] >>> (24 - ((position & 3) << 3)) & 0xFF;
+        }
+
+        /**
+         * Builds the key of a value.
+         */
+        private void build(int index) {
+            Number value = values[index];
+            int at = index * width;
+            int signum = value.signum();
+            words[at] = signum + 1;
+            if (signum == 0) {
+                return;
+            }
+            int span = chunks * Limbs.DECIMAL_DIGITS;
+            long count;
+            if (value.isCompact() && span <= 18) {
+                // the digits are moved to the top of the key within a long
+                long abs = Math.abs(value.compactValue());
+                count = digits(abs);
+                long aligned = abs * Limbs.LONG_POW10[span - (int) count];
+                for (int c = chunks - 1; c >= 0; c--) {
+                    words[at + HEADER + c] = (int) (aligned % Limbs.DECIMAL_BASE);
+                    aligned /= Limbs.DECIMAL_BASE;
+                }
+            } else {
+                int[] magnitude = value.magnitude();
+                // 0.30102 is below log10(2), so the count starts at or below the real one and is only moved up
+                count = (long) (Limbs.bitLength(magnitude) - 1) * 30102 / 100000 + 1;
+                while (Limbs.compare(magnitude, Limbs.pow10((int) count)) >= 0) {
+                    count++;
+                }
+                // the digits that fit into the key are moved to its top, the rest are cut off
+                if (count > span) {
+                    magnitude = Division.divide(magnitude, Limbs.pow10((int) (count - span)))[0];
+                } else {
+                    magnitude = Limbs.multiply(magnitude, Limbs.pow10((int) (span - count)));
+                }
+                // the magnitude may be shared, so it is divided down in a copy
+                int[] work = magnitude.clone();
+                for (int c = chunks - 1; c >= 0; c--) {
+                    words[at + HEADER + c] = (int) Limbs.divide(work, Limbs.DECIMAL_BASE, work);
+                }
+            }
+            // the value is 0.digits * 10^exponent
+            long exponent = count - value.scale();
+            words[at + 1] = (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, exponent)) ^ Integer.MIN_VALUE;
+            if (signum < 0) {
+                for (int i = at + 1; i < at + width; i++) {
+                    words[i] = ~words[i];
+                }
+            }
+        }
+
+        /**
+         * Compares the values at two indexes, by their keys and then, when needed, by their values.
+         */
+        private int compare(int a, int b) {
+            int aAt = a * width;
+            int bAt = b * width;
+            for (int i = 0; i < width; i++) {
+                if (words[aAt + i] != words[bAt + i]) {
+                    return Integer.compareUnsigned(words[aAt + i], words[bAt + i]);
+                }
+            }
+            return truncated ? values[a].compareTo(values[b]) : 0;
+        }
+    }
+
+    /**
+     * Sorts a bucket of indexes whose keys share their first bytes.
+     */
+    private static final class Bucket extends RecursiveAction {
+        @java.io.Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient Keys keys;
+        private final int[] order;
+        private final int[] buffer;
+        private final int from;
+        private final int to;
+        private final int position;
+        private final boolean parallel;
+
+        private Bucket(Keys keys, int[] order, int[] buffer, int from, int to, int position, boolean parallel) {
+            this.keys = keys;
+            this.order = order;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.position = position;
+            this.parallel = parallel;
+        }
+
+        @Override
+        protected void compute() {
+            int position = this.position;
+            int[] counts = new int[257];
+            while (true) {
+                if (to - from <= INSERTION_SIZE) {
+                    insertionSort();
+                    return;
+                } else if (position == keys.bytes()) {
+                    if (keys.truncated) {
+                        finish();
+                    }
+                    return;
+                }
+                for (int i = from; i < to; i++) {
+                    counts[keys.byteAt(order[i], position) + 1]++;
+                }
+                int same = -1;
+                for (int b = 1; b <= 256 && same < 0; b++) {
+                    if (counts[b] == to - from) {
+                        same = b;
+                    }
+                }
+                if (same < 0) {
+                    break;
+                }
+                // every key has the same byte here, so there is nothing to move
+                counts[same] = 0;
+                position++;
+            }
+            for (int b = 1; b <= 256; b++) {
+                counts[b] += counts[b - 1];
+            }
+            // counts[b] is now where the keys with byte b start, and the scatter is stable
+            int[] starts = counts.clone();
+            for (int i = from; i < to; i++) {
+                int index = order[i];
+                buffer[from + counts[keys.byteAt(index, position)]++] = index;
+            }
+            System.arraycopy(buffer, from, order, from, to - from);
+
+            Bucket[] forks = new Bucket[256];
+            int forked = 0;
+            for (int b = 0; b < 256; b++) {
+                int start = from + starts[b];
+                int end = from + starts[b + 1];
+                if (end - start < 2) {
+                    continue;
+                }
+                Bucket bucket = new Bucket(keys, order, buffer, start, end, position + 1, parallel);
+                if (parallel && end - start >= PARALLEL_THRESHOLD) {
+                    forks[forked++] = bucket;
+                    bucket.fork();
+                } else {
+                    bucket.compute();
+                }
+            }
+            for (int i = 0; i < forked; i++) {
+                forks[i].join();
+            }
+        }
+
+        /**
+         * Sorts the bucket by comparing the keys, keeping equal values in order.
+         */
+        private void insertionSort() {
+            for (int i = from + 1; i < to; i++) {
+                int index = order[i];
+                int j = i - 1;
+                while (j >= from && keys.compare(order[j], index) > 0) {
+                    order[j + 1] = order[j];
+                    j--;
+                }
+                order[j + 1] = index;
+            }
+        }
+
+        /**
+         * Sorts a bucket of keys that are all the same by the values themselves.
+         */
+        private void finish() {
+            Integer[] boxed = new Integer[to - from];
+            for (int i = 0; i < boxed.length; i++) {
+                boxed[i] = order[from + i];
+            }
+            Arrays.sort(boxed, (a, b) -> keys.values[a].compareTo(keys.values[b]));
+            for (int i = 0; i < boxed.length; i++) {
+                order[from + i] = boxed[i];
+            }
+        }
+    }
+}
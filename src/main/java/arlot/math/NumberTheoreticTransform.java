@@ -0,0 +1,267 @@
+package arlot.math;
+
+/**
+ * Multiplies very large magnitudes with number-theoretic transforms.
+ * <br><br>
+ * Each operand is cut into 16-bit pieces that are used as the coefficients
+ * of a polynomial. The polynomials are multiplied as a cyclic convolution
+ * modulo three primes of the form {@code c*2^k+1}, and every coefficient
+ * of the product is then rebuilt exactly with the Chinese remainder theorem.
+ * <br>
+ * A coefficient of the product is at most {@code n*(2^16-1)^2},
+ * which stays below the product of the three primes (about 2<sup>86</sup>)
+ * for every transform length that the primes support.
+ * <br>
+ * Everything is done in plain Java, there is no native code.
+ */
+final class NumberTheoreticTransform {
+    /**
+     * The primes that the convolutions are done modulo.
+     */
+    private static final long[] PRIMES = {
+            998_244_353L, // 119 * 2^23 + 1
+            167_772_161L, // 5 * 2^25 + 1
+            469_762_049L  // 7 * 2^26 + 1
+    };
+    /**
+     * A primitive root of each of the {@link #PRIMES}.
+     */
+    private static final long GENERATOR = 3;
+    /**
+     * The log<sub>2</sub> of the longest transform that all {@link #PRIMES} support.
+     */
+    private static final int MAX_LOG_LENGTH = 23;
+    /**
+     * The bits in each coefficient.
+     */
+    private static final int PIECE_BITS = 16;
+
+    // constants for the Chinese remainder theorem (Garner's algorithm)
+    private static final long P0 = PRIMES[0];
+    private static final long P1 = PRIMES[1];
+    private static final long P2 = PRIMES[2];
+    private static final long P0_INV_MOD_P1 = modPow(P0 % P1, P1 - 2, P1);
+    private static final long P0P1_INV_MOD_P2 = modPow((P0 % P2) * (P1 % P2) % P2, P2 - 2, P2);
+    private static final long P0P1 = P0 * P1;
+
+    private NumberTheoreticTransform() {}
+
+    /**
+     * Checks if two magnitudes can be multiplied with this transform.
+     * @param a The first magnitude.
+     * @param b The second magnitude.
+     * @return {@code true} if the product fits into the longest supported transform.
+     */
+    static boolean supports(int[] a, int[] b) {
+        long pieces = ((long) a.length + b.length) * (32 / PIECE_BITS);
+        return pieces <= (1L << MAX_LOG_LENGTH);
+    }
+
+    /**
+     * Multiplies two magnitudes.
+     * @param a The first magnitude.
+     * @param b The second magnitude.
+     * @return The product of {@code a} and {@code b}.
+     * @throws ArithmeticException if the operands are too big, see {@link #supports(int[], int[])}.
+     */
+    static int[] multiply(int[] a, int[] b) {
+        if (a.length == 0 || b.length == 0) {
+            return Limbs.ZERO;
+        }
+        if (!supports(a, b)) {
+            throw new ArithmeticException("The operands are too large for the number-theoretic transform.");
+        }
+        boolean square = a == b;
+        int pieces = (a.length + b.length) * 2;
+        int logLength = 32 - Integer.numberOfLeadingZeros(pieces - 1);
+        int length = 1 << logLength;
+
+        long[][] residues = new long[PRIMES.length][];
+        for (int p = 0; p < PRIMES.length; p++) {
+            Field field = new Field(PRIMES[p]);
+            long[] fa = split(a, length);
+            field.transform(fa, false);
+            long[] fb;
+            if (square) {
+                fb = fa;
+            } else {
+                fb = split(b, length);
+                field.transform(fb, false);
+            }
+            for (int i = 0; i < length; i++) {
+                fa[i] = field.reduce(fa[i] * fb[i]);
+            }
+            field.transform(fa, true);
+            // the pointwise products each lost a factor of R, which is put back with the 1/length scaling
+            long scale = modPow(length, field.prime - 2, field.prime) * field.r2 % field.prime;
+            for (int i = 0; i < length; i++) {
+                fa[i] = field.reduce(fa[i] * scale);
+            }
+            residues[p] = fa;
+        }
+        return combine(residues, a.length + b.length);
+    }
+
+    /**
+     * Cuts a magnitude into 16-bit coefficients.
+     * @param a The magnitude.
+     * @param length The length of the transform.
+     * @return The coefficients, padded with zeros up to {@code length}.
+     */
+    private static long[] split(int[] a, int length) {
+        long[] ret = new long[length];
+        for (int i = 0; i < a.length; i++) {
+            ret[2*i] = a[i] & 0xFFFF;
+            ret[2*i+1] = a[i] >>> 16;
+        }
+        return ret;
+    }
+
+    /**
+     * Rebuilds every coefficient from its residues and carries them into limbs.
+     * @param residues The coefficients of the product, modulo each of the {@link #PRIMES}.
+     * @param limbs The most limbs that the product can use.
+     * @return The product as a magnitude.
+     */
+    private static int[] combine(long[][] residues, int limbs) {
+        int[] ret = new int[limbs];
+        // the running carry is an unsigned 128-bit value, held as a high and a low long
+        long carryHigh = 0;
+        long carryLow = 0;
+        int pieces = limbs * 2;
+        for (int i = 0; i < pieces; i++) {
+            long r0 = residues[0][i];
+            long r1 = residues[1][i];
+            long r2 = residues[2][i];
+            // x = r0 + P0*t1 + P0*P1*t2, with 0 <= t1 < P1 and 0 <= t2 < P2
+            long t1 = Math.floorMod(r1 - r0, P1) * P0_INV_MOD_P1 % P1;
+            long low = r0 + P0 * t1;
+            long t2 = Math.floorMod(r2 - low % P2, P2) * P0P1_INV_MOD_P2 % P2;
+            long high = Math.multiplyHigh(P0P1, t2);
+            long product = P0P1 * t2;
+            long sum = product + low;
+            if (Long.compareUnsigned(sum, product) < 0) {
+                high++;
+            }
+            // add the coefficient to the carry
+            long newLow = carryLow + sum;
+            carryHigh += high + (Long.compareUnsigned(newLow, carryLow) < 0 ? 1 : 0);
+            carryLow = newLow;
+            int piece = (int) (carryLow & 0xFFFF);
+            carryLow = (carryLow >>> PIECE_BITS) | (carryHigh << (64 - PIECE_BITS));
+            carryHigh >>>= PIECE_BITS;
+            if ((i & 1) == 0) {
+                ret[i >> 1] = piece;
+            } else {
+                ret[i >> 1] |= piece << 16;
+            }
+        }
+        return Limbs.trim(ret, ret.length);
+    }
+
+    /**
+     * The arithmetic modulo one of the {@link #PRIMES}.
+     * <br>
+     * Products are reduced with Montgomery reduction (where R is 2<sup>32</sup>)
+     * instead of a division. The roots of unity are kept in Montgomery form,
+     * so that multiplying a plain value by a root and reducing gives a plain value.
+     */
+    private static final class Field {
+        private final long prime;
+        /**
+         * -prime<sup>-1</sup> modulo R.
+         */
+        private final long negativeInverse;
+        /**
+         * R<sup>2</sup> modulo prime.
+         */
+        private final long r2;
+
+        private Field(long prime) {
+            this.prime = prime;
+            long inverse = prime; // Newton's iteration for prime^-1 modulo 2^32
+            for (int i = 0; i < 5; i++) {
+                inverse *= 2 - prime * inverse;
+            }
+            this.negativeInverse = -inverse & Limbs.MASK;
+            long r = (1L << 32) % prime;
+            this.r2 = r * r % prime;
+        }
+
+        /**
+         * Montgomery reduction of a product of two values below {@link #prime}.
+         * @param t The product.
+         * @return {@code t/R} modulo {@link #prime}.
+         */
+        private long reduce(long t) {
+            long m = (t & Limbs.MASK) * negativeInverse & Limbs.MASK;
+            long ret = (t + m * prime) >>> 32;
+            return ret >= prime ? ret - prime : ret;
+        }
+
+        /**
+         * Runs an in-place iterative radix-2 transform.
+         * <br>
+         * The inverse transform isn't divided by the length.
+         * @param values The values to transform, with a power of two length.
+         * @param inverse {@code true} to run the inverse transform.
+         */
+        private void transform(long[] values, boolean inverse) {
+            int length = values.length;
+            for (int i = 1, j = 0; i < length; i++) {
+                int bit = length >> 1;
+                for (; (j & bit) != 0; bit >>= 1) {
+                    j ^= bit;
+                }
+                j ^= bit;
+                if (i < j) {
+                    long t = values[i];
+                    values[i] = values[j];
+                    values[j] = t;
+                }
+            }
+            // roots[half + k] holds the k-th power of the root for the stage of that half size
+            long[] roots = new long[Math.max(length, 2)];
+            for (int half = 1; half < length; half <<= 1) {
+                long root = modPow(GENERATOR, (prime - 1) / (half * 2L), prime);
+                if (inverse) {
+                    root = modPow(root, prime - 2, prime);
+                }
+                long rootM = reduce(root * r2);
+                long current = reduce(r2); // one, in Montgomery form
+                for (int k = 0; k < half; k++) {
+                    roots[half+k] = current;
+                    current = reduce(current * rootM);
+                }
+            }
+            for (int half = 1; half < length; half <<= 1) {
+                for (int start = 0; start < length; start += half * 2) {
+                    for (int k = 0; k < half; k++) {
+                        long u = values[start+k];
+                        long v = reduce(values[start+k+half] * roots[half+k]);
+                        long s = u + v;
+                        values[start+k] = s >= prime ? s - prime : s;
+                        long d = u - v;
+                        values[start+k+half] = d < 0 ? d + prime : d;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Raises a value to a power, modulo a prime that is below 2<sup>31</sup>.
+     */
+    private static long modPow(long base, long exponent, long mod) {
+        long ret = 1;
+        base %= mod;
+        while (exponent > 0) {
+            if ((exponent & 1) == 1) {
+                ret = ret * base % mod;
+            }
+            base = base * base % mod;
+            exponent >>= 1;
+        }
+        return ret;
+    }
+}
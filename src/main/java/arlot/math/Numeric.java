@@ -112,110 +112,12 @@ public abstract class Numeric extends java.lang.Number
      * @return An Array of boolean values.
      */
     public boolean[] symbols(Numeric num) {
-        Objects.requireNonNull(num);
-        boolean eq = false; // equals
-        boolean ne = false; // not equals
-        boolean lt = false; // less than
-        boolean le = false; // less than or equals
-        boolean gt = false; // greater than
-        boolean ge = false; // greater than or equals
-        boolean[] nubool = new boolean[] {isNegative(), num.isNegative()};
-        String num2 = toNumber().toString().replaceFirst("-", "");
-        String num3 = num.toNumber().toString().replaceFirst("-", "");
-        if (nubool[1] && !nubool[0]) {
-            ne = true;
-            gt = true;
-            ge = true;
-        } else if (nubool[0] && !nubool[1]) {
-            ne = true;
-            lt = true;
-            le = true;
-        } else {
-            if (num2.split("\\.")[0].length() > num3.split("\\.")[0].length()) {
-                ne = true;
-                if (nubool[0]) {
-                    lt = true;
-                    le = true;
-                } else {
-                    gt = true;
-                    ge = true;
-                }
-            } else if (num2.split("\\.")[0].length() < num3.split("\\.")[0].length()) {
-                ne = true;
-                if (nubool[0]) {
-                    gt = true;
-                    ge = true;
-                } else {
-                    lt = true;
-                    le = true;
-                }
-            } else {
-                String longer;
-                if (num2.length()<num3.length()) {
-                    longer = num3;
-                } else {
-                    longer = num2;
-                }
-                for (int i=0; i<longer.length(); i++) {
-                    if (i == num3.length()) {
-                        ne = true;
-                        if (nubool[0]) {
-                            lt = true;
-                            le = true;
-                        } else {
-                            gt = true;
-                            ge = true;
-                        }
-                        break;
-                    } else if (i == num2.length()) {
-                        ne = true;
-                        if (nubool[0]) {
-                            gt = true;
-                            ge = true;
-                        } else {
-                            lt = true;
-                            le = true;
-                        }
-                        break;
-                    }
-                    if (num2.charAt(i) != num3.charAt(i)) {
-                        ne = true;
-                        if (num2.charAt(i) == '.') {
-                            lt = true;
-                            le = true;
-                        } else if (num3.charAt(i) == '.') {
-                            gt = true;
-                            ge = true;
-                        } else {
-                            if (Integer.parseInt(String.valueOf(num2.charAt(i))) > Integer.parseInt(String.valueOf(num3.charAt(i)))) {
-                                if (nubool[0]) {
-                                    lt = true;
-                                    le = true;
-                                } else {
-                                    gt = true;
-                                    ge = true;
-                                }
-                            } else {
-                                if (nubool[0]) {
-                                    gt = true;
-                                    ge = true;
-                                } else {
-                                    lt = true;
-                                    le = true;
-                                }
-                            }
-                        }
-                        break;
-                    }
-                }
-            }
-        }
-        if (!ne) {
-            eq = true;
-            le = true;
-            ge = true;
-        }
-        return new boolean[]{eq, ne, lt, le, gt, ge};
+        int comparison = compareTo(num);
+        return new boolean[] {
+                comparison == 0, comparison != 0,
+                comparison < 0, comparison <= 0,
+                comparison > 0, comparison >= 0
+        };
     }
     /**
      * Checks this {@code Numeric} value against a {@link Number} String.
@@ -224,7 +126,12 @@ public abstract class Numeric extends java.lang.Number
      * @see #symbols(Numeric)
      */
     public boolean[] symbols(String num) {
-        return symbols(new Number(num));
+        int comparison = compareTo(num);
+        return new boolean[] {
+                comparison == 0, comparison != 0,
+                comparison < 0, comparison <= 0,
+                comparison > 0, comparison >= 0
+        };
     }
     /**
      * Checks this {@code Numeric} value against another {@code Numeric} value.
@@ -245,18 +152,7 @@ public abstract class Numeric extends java.lang.Number
      * @return A boolean value.
      */
     public boolean symbols(String type, Numeric num) {
-        type = type.toLowerCase();
-        boolean[] base = symbols(num);
-        boolean ret = false;
-        switch (type) {
-            case "equals", "equal", "eq" -> ret = base[0];
-            case "not equals", "not equal", "ne" -> ret = base[1];
-            case "less than", "lt" -> ret = base[2];
-            case "less than or equals", "less than or equal", "le" -> ret = base[3];
-            case "greater than", "gt" -> ret = base[4];
-            case "greater than or equals", "greater than or equal", "ge" -> ret = base[5];
-        }
-        return ret;
+        return symbols(type, compareTo(num));
     } // end of typed symbols
     /**
      * Checks this {@code Numeric} value against a {@link Number} String.
@@ -268,7 +164,51 @@ public abstract class Numeric extends java.lang.Number
      * @see #symbols(String, Numeric)
      */
     public boolean symbols(String type, String num) {
-        return symbols(type, new Number(num));
+        return symbols(type, compareTo(num));
+    }
+
+    /**
+     * Checks the result of a comparison against the {@code type} of check.
+     * @param type The method type of the check, see {@link #symbols(String, Numeric)}.
+     * @param comparison The result of {@link #compareTo(Numeric)}.
+     * @return A boolean value.
+     */
+    private static boolean symbols(String type, int comparison) {
+        return switch (type.toLowerCase()) {
+            case "equals", "equal", "eq" -> comparison == 0;
+            case "not equals", "not equal", "ne" -> comparison != 0;
+            case "less than", "lt" -> comparison < 0;
+            case "less than or equals", "less than or equal", "le" -> comparison <= 0;
+            case "greater than", "gt" -> comparison > 0;
+            case "greater than or equals", "greater than or equal", "ge" -> comparison >= 0;
+            default -> false;
+        };
+    }
+
+    /**
+     * Compares this {@code Numeric} value with a {@link Number} String.
+     * <br>
+     * Small whole numbers, like {@code "0"} or {@code "1"},
+     * are compared without creating a {@link Number} for them.
+     * @param num The {@link Number} String to compare against.
+     * @return a negative integer, zero, or a positive integer as this {@code Numeric}
+     * is less than, equal to, or greater than {@code num}.
+     */
+    private int compareTo(String num) {
+        long small = Number.smallValue(num);
+        if (small != Number.NOT_SMALL) {
+            return toNumber().compareTo(small);
+        }
+        return compareTo(new Number(num));
+    }
+
+    /**
+     * Gets the sign of this {@code Numeric} value.
+     * @return {@code -1}, {@code 0} or {@code 1} as this {@code Numeric} value
+     * is negative, zero or positive.
+     */
+    public int signum() {
+        return toNumber().signum();
     }
 
     /**
@@ -304,15 +244,8 @@ public abstract class Numeric extends java.lang.Number
      */
     @Override
     public int compareTo(Numeric num) {
-        boolean[] symbols = symbols(num);
-        if (symbols[0]) {
-            return 0;
-        } else if (symbols[2]) {
-            return -1;
-        } else if (symbols[4]) {
-            return 1;
-        }
-        throw new RuntimeException("A problem occurred.");
+        Objects.requireNonNull(num);
+        return toNumber().compareTo(num);
     }
 
 
@@ -320,73 +253,74 @@ public abstract class Numeric extends java.lang.Number
     /**
      * Returns the value of the specified {@code Numeric} value as a {@code byte}.
      * <br>
-     * This method uses {@link #toString()} directly.
+     * This is the low 8 bits of {@link #longValue()}.
      * @return the numeric value represented by this {@code Numeric} value after conversion
      * to type {@code byte}.
      */
     @Override
     public byte byteValue() {
-        return Byte.parseByte(toString());
+        return (byte) longValue();
     }
 
     /**
      * Returns the value of the specified {@code Numeric} value as an {@code int}.
      * <br>
-     * This method uses {@link #asString()}.
+     * This is the low 32 bits of {@link #longValue()}.
      * @return the numeric value represented by this {@code Numeric} value after conversion
      * to type {@code int}.
      */
     @Override
     public int intValue() {
-        return Integer.parseInt(asString());
+        return (int) longValue();
     }
 
     /**
      * Returns the value of the specified {@code Numeric} value as a {@code long}.
      * <br>
-     * This method uses {@link #asString()}.
+     * This uses {@link Number#longValue()} on {@link #toNumber()},
+     * which cuts off the decimal places.
      * @return the numeric value represented by this {@code Numeric} value after conversion
      * to type {@code long}.
      */
     @Override
     public long longValue() {
-        return Long.parseLong(asString());
+        return toNumber().longValue();
     }
 
     /**
      * Returns the value of the specified {@code Numeric} value as a {@code short}.
      * <br>
-     * This method uses {@link #asString()}.
+     * This is the low 16 bits of {@link #longValue()}.
      * @return the numeric value represented by this {@code Numeric} value after conversion
      * to type {@code short}.
      */
     @Override
     public short shortValue() {
-        return Short.parseShort(asString());
+        return (short) longValue();
     }
 
     /**
      * Returns the value of the specified {@code Numeric} value as a {@code float}.
      * <br>
-     * This method uses {@link #asString()}.
+     * This uses {@link Number#floatValue()} on {@link #toNumber()}.
      * @return the numeric value represented by this {@code Numeric} value after conversion
      * to type {@code float}.
      */
     @Override
     public float floatValue() {
-        return Float.parseFloat(asString());
+        return toNumber().floatValue();
     }
 
     /**
      * Returns the value of the specified {@code Numeric} value as a {@code double}.
      * <br>
-     * This method uses {@link #asString()}.
+     * This uses {@link Number#doubleValue()} on {@link #toNumber()}.
      * @return the numeric value represented by this {@code Numeric} value after conversion
      * to type {@code double}.
      */
     @Override
     public double doubleValue() {
-        return Double.parseDouble(asString());
+        return toNumber().doubleValue();
     }
 
     /**
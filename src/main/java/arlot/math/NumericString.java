@@ -1,7 +1,5 @@
 package arlot.math;
 
-import arlot.error.BadNumberValueException;
-
 import java.io.Serializable;
 import java.util.stream.IntStream;
 
@@ -74,9 +72,11 @@ import java.util.stream.IntStream;
  * {@code isNumber} methods in {@link Basic}, a {@code Numeric} is defined as follows:
  * <br>
  * The {@code Numeric} only is allowed one slash (the definition for a fraction),
- * if the slash is present, then there may be two dots and two scientific notation marks.
- * However, if the slash isn't present, then there may only be one dot and one
- * scientific notation mark. If the char is not stated in any of the three categories,
+ * if the slash is present, then each side of it is checked as its own {@code Numeric}.
+ * Without the slash, the {@code Numeric} is an optional sign, then digits with at most one dot,
+ * then an optional scientific notation mark followed by an optionally signed whole number,
+ * where {@code x}, {@code X} and {@code *} are written as {@code x10^}.
+ * If the char is not stated in any of the three categories,
  * then the {@code Numeric} is not a number.
  */
 public final class NumericString
@@ -86,11 +86,13 @@ public final class NumericString
 
     /**
      * Holds the String value to this {@code Numeric} value.
+     * <br>
+     * This is immutable, so copies share it.
      */
-    private StringBuilder numberHold;
+    private String numberHold;
 
     public NumericString() {
-        this.numberHold = new StringBuilder("0");
+        this.numberHold = "0";
     }
 
     public NumericString(Object object) {
@@ -98,16 +100,20 @@ public final class NumericString
     }
 
     public void update(Object object) {
-        this.numberHold = new StringBuilder(String.valueOf(object));
-        if (this.numberHold.toString().isBlank()) {
-            this.numberHold = new StringBuilder("0");
+        this.numberHold = String.valueOf(object);
+        if (this.numberHold.isBlank()) {
+            this.numberHold = "0";
         } else {
             String starttype = object.getClass().getSimpleName();
             if (starttype.isBlank()) {
                 starttype = "Object";
             }
-            numberError(starttype);
-            removeUnnecessaries();
+            // checked and reorganized in one pass
+            String canonical = NumberScanner.canonical(this.numberHold);
+            if (canonical == null) {
+                throw Basic.illegalNumber(starttype, "num");
+            }
+            this.numberHold = canonical;
         }
     }
 
@@ -153,27 +159,6 @@ public final class NumericString
         return new NumericString(this.numberHold.substring(start, end));
     }
 
-    /**
-     * Checks if the stored numberHold is a valid number. If not, throws a BadNumberValueException.
-     *
-     * @param starttype the type of the initial argument
-     * @throws BadNumberValueException if the stored numberHold is not a valid number
-     */
-    private void numberError(String starttype) {
-        Basic.numberError(this.numberHold.toString(), starttype);
-    }
-
-    /**
-     * This function removes the things that are not needed,
-     * like zeros at the front of the number,
-     * and other things like that.
-     */
-    private void removeUnnecessaries() {
-        this.numberHold = new StringBuilder(
-                Basic.reorganize(this.numberHold)
-        );
-    }
-
     /**
      * Checks to see if itself is a number.
      * @return {@code true} if itself is a number.
@@ -230,7 +215,8 @@ public final class NumericString
         if (isFraction()) {
             return toFraction().toNumber();
         } else {
-            return new Number(toString());
+            // this was already checked and reorganized, so it isn't checked again
+            return Number.trusted(this.numberHold);
         }
     }
 
@@ -240,7 +226,7 @@ public final class NumericString
      */
     @Override
     public String toString() {
-        return this.numberHold.toString();
+        return this.numberHold;
     } // end of toString
 
     /**
@@ -290,23 +276,36 @@ public final class NumericString
      * the character sequence represented by this {@code NumericString}.
      */
     public char[] toCharArray() {
-        return this.numberHold.toString().toCharArray();
+        return this.numberHold.toCharArray();
     }
 
     public StringBuilder toStringBuilder() {
         return new StringBuilder(toString());
     }
 
+    /**
+     * Creates a {@code NumericString} from a value that is already valid and reorganized,
+     * such as the {@link Number#toString()} of a {@link Number}, without checking it again.
+     * @param canonical The valid and reorganized value.
+     * @return The new {@code NumericString}.
+     */
+    static NumericString trusted(String canonical) {
+        NumericString ret = new NumericString();
+        ret.numberHold = canonical;
+        return ret;
+    }
+
     /**
      * Makes a copy of this {@code NumericString}.
+     * <br>
+     * The copy shares the immutable value of this {@code NumericString},
+     * so nothing is checked or copied again.
      * @return the clone of this {@code NumericString}.
      */
     @Override
     protected NumericString clone() {
         try {
-            NumericString clone = (NumericString) super.clone();
-            clone.update(toString());
-            return clone;
+            return (NumericString) super.clone();
         } catch (CloneNotSupportedException e) {
             throw new RuntimeException(e);
         }
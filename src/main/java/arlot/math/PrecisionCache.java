@@ -0,0 +1,60 @@
+package arlot.math;
+
+/**
+ * A value kept at the most decimal places that it was found at,
+ * which lower counts of decimal places are cut off from (not rounded).
+ * <br>
+ * Cutting off places takes a division,
+ * so the last lower count of places that was asked for is kept next to the value,
+ * and asking for the same count again is only a lookup.
+ * <br>
+ * Every {@link Number} handed out is a {@link Number#copy() copy},
+ * so the kept values can't be changed by the callers.
+ */
+final class PrecisionCache {
+    /**
+     * The count of decimal places that the value was found at.
+     */
+    final int places;
+    /**
+     * The value, cut off after {@link #places} decimal places.
+     */
+    private final Number value;
+    /**
+     * The value at the last lower count of decimal places asked for.
+     */
+    private volatile Cut last;
+
+    /**
+     * @param places The count of decimal places that {@code value} was found at.
+     * @param value The value, which must not be changed after this.
+     */
+    PrecisionCache(int places, Number value) {
+        this.places = places;
+        this.value = value;
+    }
+
+    /**
+     * Cuts the value down to a count of decimal places.
+     * @param places The count of decimal places to keep, at most {@link #places}.
+     * @return A copy of the value.
+     */
+    Number toNumber(int places) {
+        if (value.scale() <= places) {
+            return value.copy();
+        }
+        Cut cut = last;
+        if (cut == null || cut.places != places) {
+            int[] magnitude = Division.divide(value.magnitude(), Limbs.pow10(value.scale() - places))[0];
+            last = cut = new Cut(places, Number.valueOf(value.signum(), magnitude, places));
+        }
+        return cut.value.copy();
+    }
+
+    /**
+     * The value cut off after a count of decimal places.
+     * @param places The count of decimal places.
+     * @param value The value.
+     */
+    private record Cut(int places, Number value) {}
+}
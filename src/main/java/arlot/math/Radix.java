@@ -0,0 +1,308 @@
+package arlot.math;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The engine that turns the magnitudes of {@link Number}s into digits of a base and back.
+ * <br><br>
+ * Digits are worked on in chunks, as many digits as fit into one limb at a time.
+ * <ul>
+ *     <li>A base that is a power of two only moves bits,
+ *     so each digit is read from or written to its own bits.</li>
+ *     <li>Short values use Horner's scheme: the value is multiplied by a chunk and added to,
+ *     or divided by a chunk, one chunk at a time, which is quadratic.</li>
+ *     <li>Long values are split in half at a power of the base,
+ *     <code>value = high*base<sup>n</sup> + low</code>, and each half is converted the same way.
+ *     The split is a multiplication when reading and a division when writing,
+ *     so converting is as fast as multiplying (see {@link Multiplication} and {@link Division}).</li>
+ * </ul>
+ * The powers that values are split at are <code>base<sup>chunk*2<sup>k</sup></sup></code>,
+ * which are kept once they are found, so converting many values only finds them once.
+ */
+final class Radix {
+    /**
+     * The smallest base.
+     */
+    static final int MIN_BASE = Character.MIN_RADIX;
+    /**
+     * The biggest base, which uses the digits {@code 0-9} and then the letters {@code a-z}.
+     */
+    static final int MAX_BASE = Character.MAX_RADIX;
+    /**
+     * The count of chunks, or of limbs when writing, up to which a value is converted with Horner's scheme.
+     */
+    static final int HORNER_CHUNKS = 32;
+    /**
+     * The count of digits that fit into one chunk, for each base.
+     */
+    private static final int[] CHUNK_DIGITS = new int[MAX_BASE + 1];
+    /**
+     * The value of a whole chunk, <code>base<sup>chunk digits</sup></code>, as an unsigned {@code int}, for each base.
+     */
+    private static final int[] CHUNK_BASE = new int[MAX_BASE + 1];
+    static {
+        for (int base = MIN_BASE; base <= MAX_BASE; base++) {
+            long value = base;
+            int digits = 1;
+            while (value * base <= Limbs.MASK) {
+                value *= base;
+                digits++;
+            }
+            CHUNK_DIGITS[base] = digits;
+            CHUNK_BASE[base] = (int) value;
+        }
+    }
+    /**
+     * The powers that values are split at, for each base,
+     * where <code>POWERS[base][k] = base<sup>chunk*2<sup>k</sup></sup></code>.
+     * <br>
+     * The powers of a base are copied on write, so a published array is never changed
+     * and can be read without a lock.
+     */
+    private static final AtomicReferenceArray<int[][]> POWERS = new AtomicReferenceArray<>(MAX_BASE + 1);
+
+    private Radix() {}
+
+    /**
+     * Reads a magnitude from its digits in a base.
+     * <br>
+     * The digits are {@code 0-9} and then the letters {@code a-z}, in either case.
+     * @param digits The digits, the most significant first.
+     * @param start The index of the first digit.
+     * @param end The index after the last digit.
+     * @param base The base, from {@value #MIN_BASE} to {@value #MAX_BASE}.
+     * @return The magnitude.
+     * @throws NumberFormatException if a character isn't a digit of {@code base}.
+     */
+    static int[] parse(CharSequence digits, int start, int end, int base) {
+        if (Integer.bitCount(base) == 1) {
+            return parseBits(digits, start, end, base);
+        }
+        int chunk = CHUNK_DIGITS[base];
+        int chunks = (end - start + chunk - 1) / chunk;
+        if (chunks <= HORNER_CHUNKS) {
+            return parseHorner(digits, start, end, base);
+        }
+        // the low half holds chunk*2^k digits, the most that still leaves the high half some digits
+        int level = 31 - Integer.numberOfLeadingZeros(chunks - 1);
+        int split = end - (chunk << level);
+        int[] high = parse(digits, start, split, base);
+        int[] low = parse(digits, split, end, base);
+        return Limbs.add(Limbs.multiply(high, power(base, level)), low);
+    }
+
+    /**
+     * Writes a magnitude as its digits in a base.
+     * @param value The magnitude.
+     * @param base The base, from {@value #MIN_BASE} to {@value #MAX_BASE}.
+     * @return The digits, the most significant first, using lowercase letters,
+     * and {@code "0"} for zero.
+     */
+    static String toString(int[] value, int base) {
+        if (Limbs.isZero(value)) {
+            return "0";
+        }
+        if (Integer.bitCount(base) == 1) {
+            return toStringBits(value, base);
+        }
+        StringBuilder ret = new StringBuilder();
+        write(value, base, 0, ret);
+        return ret.toString();
+    }
+
+    /**
+     * Writes the digits of a magnitude, padded with leading zeros.
+     * @param value The magnitude.
+     * @param base The base.
+     * @param width The count of digits to write, or zero to write no leading zeros.
+     * @param out Where the digits are written.
+     */
+    private static void write(int[] value, int base, int width, StringBuilder out) {
+        int chunk = CHUNK_DIGITS[base];
+        if (value.length <= HORNER_CHUNKS) {
+            writeHorner(value, base, width, out);
+            return;
+        }
+        int level = 0;
+        int[][] powers = powers(base, 0);
+        while (true) {
+            if (level + 1 >= powers.length) {
+                powers = powers(base, level + 1);
+            }
+            // the split is where the low half is about as long as the high half
+            if (2 * powers[level + 1].length - 1 > value.length) {
+                break;
+            }
+            level++;
+        }
+        int[][] qr = Division.divide(value, powers[level]);
+        int lowWidth = chunk << level;
+        write(qr[0], base, width == 0 ? 0 : width - lowWidth, out);
+        write(qr[1], base, lowWidth, out);
+    }
+
+    /**
+     * Reads the digits of a short magnitude one chunk at a time.
+     */
+    private static int[] parseHorner(CharSequence digits, int start, int end, int base) {
+        int chunk = CHUNK_DIGITS[base];
+        int[] work = new int[(end - start) / chunk + 2];
+        int length = 0;
+        int target = (end - start) % chunk == 0 ? chunk : (end - start) % chunk;
+        int value = 0;
+        int scale = 1;
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            value = value * base + digit(digits.charAt(i), base);
+            scale *= base;
+            if (++count == target) {
+                length = multiplyAdd(work, length, scale, value);
+                value = 0;
+                scale = 1;
+                count = 0;
+                target = chunk;
+            }
+        }
+        return Limbs.trim(work, length);
+    }
+
+    /**
+     * Writes the digits of a short magnitude one chunk at a time.
+     */
+    private static void writeHorner(int[] value, int base, int width, StringBuilder out) {
+        int chunk = CHUNK_DIGITS[base];
+        int[] work = value.clone();
+        int length = work.length;
+        // every digit holds at least one bit
+        char[] digits = new char[Math.max(width, 32 * length)];
+        int at = digits.length;
+        while (length > 0) {
+            long rem = Limbs.divide(work, CHUNK_BASE[base], work);
+            while (length > 0 && work[length - 1] == 0) {
+                length--;
+            }
+            // every chunk but the first is written whole, leading zeros and all
+            for (int i = 0; i < chunk && (length > 0 || rem != 0); i++) {
+                digits[--at] = Character.forDigit((int) (rem % base), base);
+                rem /= base;
+            }
+        }
+        for (int written = digits.length - at; written < width; written++) {
+            digits[--at] = '0';
+        }
+        out.append(digits, at, digits.length - at);
+    }
+
+    /**
+     * Reads the digits of a base that is a power of two straight into the bits.
+     */
+    private static int[] parseBits(CharSequence digits, int start, int end, int base) {
+        int bits = Integer.numberOfTrailingZeros(base);
+        int[] ret = new int[(int) (((long) (end - start) * bits + 31) >>> 5)];
+        long at = 0;
+        for (int i = end - 1; i >= start; i--, at += bits) {
+            long d = digit(digits.charAt(i), base);
+            int limb = (int) (at >>> 5);
+            int shift = (int) (at & 31);
+            ret[limb] |= (int) (d << shift);
+            if (shift + bits > 32) {
+                ret[limb + 1] |= (int) (d >>> (32 - shift));
+            }
+        }
+        return Limbs.trim(ret, ret.length);
+    }
+
+    /**
+     * Writes the digits of a base that is a power of two straight from the bits.
+     */
+    private static String toStringBits(int[] value, int base) {
+        int bits = Integer.numberOfTrailingZeros(base);
+        int count = (Limbs.bitLength(value) + bits - 1) / bits;
+        char[] digits = new char[count];
+        long at = 0;
+        for (int i = count - 1; i >= 0; i--, at += bits) {
+            int limb = (int) (at >>> 5);
+            int shift = (int) (at & 31);
+            long window = value[limb] & Limbs.MASK;
+            if (limb + 1 < value.length) {
+                window |= (value[limb + 1] & Limbs.MASK) << 32;
+            }
+            digits[i] = Character.forDigit((int) (window >>> shift) & (base - 1), base);
+        }
+        return new String(digits);
+    }
+
+    /**
+     * Gets the value of a digit.
+     * @param c The digit.
+     * @param base The base that the digit is in.
+     * @return The value of the digit.
+     * @throws NumberFormatException if {@code c} isn't a digit of {@code base}.
+     */
+    private static int digit(char c, int base) {
+        int d = Character.digit(c, base);
+        if (d < 0) {
+            throw new NumberFormatException("Not a base "+base+" digit: '"+c+"'");
+        }
+        return d;
+    }
+
+    /**
+     * Gets <code>base<sup>chunk*2<sup>level</sup></sup></code>.
+     */
+    private static int[] power(int base, int level) {
+        return powers(base, level)[level];
+    }
+
+    /**
+     * Gets the powers that values in a base are split at, finding them up to {@code level} if they haven't been.
+     * <br>
+     * Only finding new powers takes a lock, reading the ones that were found doesn't.
+     * @param base The base.
+     * @param level The highest power that is needed.
+     * @return The powers, which hold at least {@code level + 1} of them.
+     */
+    private static int[][] powers(int base, int level) {
+        int[][] powers = POWERS.get(base);
+        if (powers != null && powers.length > level) {
+            return powers;
+        }
+        synchronized (POWERS) {
+            powers = POWERS.get(base);
+            if (powers == null || powers.length <= level) {
+                int[][] grown = new int[level + 1][];
+                int have = 0;
+                if (powers != null) {
+                    have = powers.length;
+                    System.arraycopy(powers, 0, grown, 0, have);
+                } else {
+                    grown[0] = Limbs.valueOf(CHUNK_BASE[base] & Limbs.MASK);
+                    have = 1;
+                }
+                for (int i = have; i <= level; i++) {
+                    grown[i] = Limbs.multiply(grown[i - 1], grown[i - 1]);
+                }
+                POWERS.set(base, powers = grown);
+            }
+            return powers;
+        }
+    }
+
+    /**
+     * Multiplies the used part of {@code work} by {@code mul} and adds {@code add}, in place.
+     * @return The new count of used limbs.
+     */
+    private static int multiplyAdd(int[] work, int length, int mul, int add) {
+        long m = mul & Limbs.MASK;
+        long carry = add & Limbs.MASK;
+        for (int i = 0; i < length; i++) {
+            long product = (work[i] & Limbs.MASK) * m + carry;
+            work[i] = (int) product;
+            carry = product >>> 32;
+        }
+        if (carry != 0) {
+            work[length++] = (int) carry;
+        }
+        return length;
+    }
+}
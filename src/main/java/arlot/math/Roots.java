@@ -0,0 +1,99 @@
+package arlot.math;
+
+/**
+ * The engine that finds the roots of the magnitudes of {@link Number}s.
+ * <br><br>
+ * The whole part of the {@code n}<sup>th</sup> root is found with Newton's iteration,
+ * <code>r = ((n-1)*r + y/r<sup>n-1</sup>) / n</code>,
+ * which only ever goes down once it starts at or above the root,
+ * and stops on the root once it can't go down any more.
+ * <br>
+ * The start is found from the top half of the bits of the value,
+ * whose root is found the same way,
+ * so only the last couple of steps are done at full size.
+ * The smallest values are started from their root as a {@code double}.
+ */
+final class Roots {
+    private Roots() {}
+
+    /**
+     * Finds the whole part of a root of a magnitude.
+     * @param y The magnitude.
+     * @param n The degree of the root, must be positive.
+     * @return <code>floor(y<sup>1/n</sup>)</code>.
+     */
+    static int[] root(int[] y, int n) {
+        if (n == 1 || Limbs.isZero(y)) {
+            return y;
+        }
+        int bits = Limbs.bitLength(y);
+        if (bits <= n) {
+            // 1 <= y < 2^n, so the root is 1
+            return Limbs.ONE;
+        }
+        int[] r = estimate(y, bits, n);
+        while (true) {
+            int[] t = Division.divide(y, pow(r, n - 1))[0];
+            int[] next = divide(Limbs.add(Limbs.multiply(r, n - 1), t), n);
+            if (Limbs.compare(next, r) >= 0) {
+                return r;
+            }
+            r = next;
+        }
+    }
+
+    /**
+     * Finds a value at or a little above the root of a magnitude.
+     * @param y The magnitude.
+     * @param bits The bit length of {@code y}.
+     * @param n The degree of the root.
+     * @return A start for Newton's iteration that is not below the root.
+     */
+    private static int[] estimate(int[] y, int bits, int n) {
+        if (bits < 63) {
+            long value = y[0] & 0xFFFFFFFFL;
+            if (y.length > 1) {
+                value |= (long) y[1] << 32;
+            }
+            // the double root is off by far less than one at this size
+            return Limbs.valueOf((long) Math.pow(value, 1.0 / n) + 1);
+        }
+        if (bits < 2 * n) {
+            // y is below 2^bits, so the root is below 2^ceil(bits/n), which is only a few bits
+            return Limbs.shiftLeft(Limbs.ONE, (bits + n - 1) / n);
+        }
+        // root(y) is below (root(y >> n*k) + 1) << k
+        int k = bits / n / 2;
+        int[] top = root(Limbs.shiftRight(y, n * k), n);
+        return Limbs.shiftLeft(Limbs.add(top, Limbs.ONE), k);
+    }
+
+    /**
+     * Raises a magnitude to a power by squaring.
+     * @param base The magnitude.
+     * @param exponent The power, must not be negative.
+     * @return <code>base<sup>exponent</sup></code>.
+     */
+    static int[] pow(int[] base, int exponent) {
+        int[] ret = Limbs.ONE;
+        for (int bit = 31 - Integer.numberOfLeadingZeros(exponent); bit >= 0; bit--) {
+            ret = Limbs.multiply(ret, ret);
+            if ((exponent >>> bit & 1) != 0) {
+                ret = Limbs.multiply(ret, base);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Divides a magnitude by a positive {@code int}.
+     * @param a The magnitude.
+     * @param d The divisor.
+     * @return The quotient.
+     */
+    private static int[] divide(int[] a, int d) {
+        int[] q = new int[a.length];
+        Limbs.divide(a, d, q);
+        return Limbs.trim(q, q.length);
+    }
+}
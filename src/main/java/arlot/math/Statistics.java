@@ -0,0 +1,509 @@
+package arlot.math;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+
+/**
+ * Statistics over {@link Numeric} values that are read in one pass:
+ * the count, sum, mean, variance, standard deviation, smallest and biggest value, quantiles and histograms.
+ * <br><br>
+ * The sum and the sum of the squares are added up exactly in {@link NumberAccumulator}s,
+ * so the mean and the variance are worked out from exact sums with one division,
+ * and are only cut off at the count of decimal places that is asked for.
+ * <br>
+ * The quantiles and histograms come from a sketch that holds a bounded count of the values:
+ * values are kept in levels, where each value of level {@code h} stands for 2<sup>{@code h}</sup> values.
+ * When a level fills up it is sorted and every other value, starting at random with the first or the second,
+ * is moved up a level,
+ * and the lower levels are kept smaller than the higher ones, which holds the sketch
+ * to about three times its size, however many values are read (this is the KLL sketch).
+ * Until a level first fills up, the quantiles and histograms are exact;
+ * after that, the rank of a value is off by about {@code 1.7/size} of the count.
+ * <br><br>
+ * {@code Statistics} from separate threads can be joined with {@link #combine(Statistics)},
+ * which is what {@link #collector()} does for parallel streams.
+ * For example:
+ * <pre>
+ * Statistics stats = values.parallelStream().collect(Statistics.collector());
+ * Number mean = stats.mean(20);
+ * Number median = stats.median();
+ * </pre>
+ * A {@code Statistics} isn't thread safe.
+ */
+public final class Statistics implements Consumer<Numeric> {
+    /**
+     * The size of the sketch when none is given.
+     */
+    public static final int DEFAULT_SKETCH_SIZE = 200;
+
+    private final NumberAccumulator sum = new NumberAccumulator();
+    private final NumberAccumulator squares = new NumberAccumulator();
+    private long count;
+    private Number min;
+    private Number max;
+    private final Sketch sketch;
+
+    /**
+     * Creates a new {@code Statistics} with no values, with a sketch of {@value #DEFAULT_SKETCH_SIZE}.
+     */
+    public Statistics() {
+        this(DEFAULT_SKETCH_SIZE);
+    }
+
+    /**
+     * Creates a new {@code Statistics} with no values.
+     * @param sketchSize The size of the sketch of the quantiles,
+     *                   where a bigger sketch holds more values and is more accurate.
+     * @throws IllegalArgumentException if {@code sketchSize} is less than {@code 8}.
+     */
+    public Statistics(int sketchSize) {
+        this.sketch = new Sketch(checkSize(sketchSize));
+    }
+
+    /**
+     * Reads every value of an {@link Iterable}.
+     * @param values The values to read.
+     * @return The {@code Statistics} of {@code values}.
+     */
+    public static Statistics of(Iterable<? extends Numeric> values) {
+        Statistics ret = new Statistics();
+        for (Numeric value : values) {
+            ret.accept(value);
+        }
+        return ret;
+    }
+
+    /**
+     * Gets a {@link Collector} that reads a stream into {@code Statistics}, which is safe for parallel streams.
+     * @param <T> The type of the values.
+     * @return The {@link Collector}.
+     */
+    public static <T extends Numeric> Collector<T, ?, Statistics> collector() {
+        return collector(DEFAULT_SKETCH_SIZE);
+    }
+
+    /**
+     * Gets a {@link Collector} that reads a stream into {@code Statistics}, which is safe for parallel streams.
+     * @param sketchSize The size of the sketch of the quantiles.
+     * @param <T> The type of the values.
+     * @return The {@link Collector}.
+     * @throws IllegalArgumentException if {@code sketchSize} is less than {@code 8}.
+     */
+    public static <T extends Numeric> Collector<T, ?, Statistics> collector(int sketchSize) {
+        checkSize(sketchSize);
+        return Collector.of(
+                () -> new Statistics(sketchSize),
+                Statistics::accept,
+                Statistics::combine,
+                Collector.Characteristics.IDENTITY_FINISH,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Checks the size of a sketch.
+     * @param sketchSize The size of the sketch.
+     * @return {@code sketchSize}.
+     * @throws IllegalArgumentException if {@code sketchSize} is less than {@code 8}.
+     */
+    private static int checkSize(int sketchSize) {
+        if (sketchSize < 8) {
+            throw new IllegalArgumentException("The sketch size must be at least 8: "+sketchSize);
+        }
+        return sketchSize;
+    }
+
+    // reading
+
+    /**
+     * Reads a value.
+     * @param num The value to read.
+     */
+    @Override
+    public void accept(Numeric num) {
+        // the value is copied since a Number can be changed in place after it is read
+        Number value = num.toNumber().copy();
+        count++;
+        sum.add(value);
+        int[] magnitude = value.magnitude();
+        squares.add(Number.valueOf(1, Limbs.multiply(magnitude, magnitude), 2 * value.scale()));
+        if (min == null || value.compareTo(min) < 0) {
+            min = value;
+        }
+        if (max == null || value.compareTo(max) > 0) {
+            max = value;
+        }
+        sketch.add(value);
+    }
+
+    /**
+     * Joins the values of another {@code Statistics} into this one.
+     * <br>
+     * The other {@code Statistics} isn't changed.
+     * @param other The {@code Statistics} to join.
+     * @return Itself.
+     */
+    public Statistics combine(Statistics other) {
+        count += other.count;
+        sum.add(other.sum.freeze());
+        squares.add(other.squares.freeze());
+        if (other.min != null && (min == null || other.min.compareTo(min) < 0)) {
+            min = other.min;
+        }
+        if (other.max != null && (max == null || other.max.compareTo(max) > 0)) {
+            max = other.max;
+        }
+        sketch.merge(other.sketch);
+        return this;
+    }
+
+    // getters
+
+    /**
+     * Gets the count of values read.
+     * @return The count of values.
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Gets the sum of the values, exactly.
+     * @return The sum, which is zero when there are no values.
+     */
+    public Number sum() {
+        return sum.freeze();
+    }
+
+    /**
+     * Gets the smallest value.
+     * @return The first of the smallest values, or an empty {@link Optional} when there are no values.
+     */
+    public Optional<Number> min() {
+        return Optional.ofNullable(min).map(Number::copy);
+    }
+
+    /**
+     * Gets the biggest value.
+     * @return The first of the biggest values, or an empty {@link Optional} when there are no values.
+     */
+    public Optional<Number> max() {
+        return Optional.ofNullable(max).map(Number::copy);
+    }
+
+    /**
+     * Gets the mean of the values, cut off after the default {@link Number#getDecCount() decCount} of decimal places.
+     * @return The mean, which is zero when there are no values.
+     */
+    public Number mean() {
+        return mean(new Number().getDecCount());
+    }
+
+    /**
+     * Gets the mean of the values.
+     * @param places The count of decimal places that the mean is cut off after.
+     * @return The mean, which is zero when there are no values.
+     */
+    public Number mean(int places) {
+        Number ret = sum.freeze();
+        if (count == 0) {
+            return ret;
+        }
+        int old = ret.setDecCount(places);
+        ret.divide(new Number(count));
+        ret.setDecCount(old);
+        return ret;
+    }
+
+    /**
+     * Gets the population variance of the values,
+     * cut off after the default {@link Number#getDecCount() decCount} of decimal places.
+     * @return The variance, which is zero when there are no values.
+     */
+    public Number variance() {
+        return variance(new Number().getDecCount());
+    }
+
+    /**
+     * Gets the population variance of the values, the mean of the squared distances from the mean.
+     * @param places The count of decimal places that the variance is cut off after.
+     * @return The variance, which is zero when there are no values.
+     */
+    public Number variance(int places) {
+        return count == 0 ? new Number() : variance(places, false);
+    }
+
+    /**
+     * Gets the sample variance of the values, which divides by one less than the count.
+     * @param places The count of decimal places that the variance is cut off after.
+     * @return The sample variance.
+     * @throws ArithmeticException if fewer than two values were read.
+     */
+    public Number sampleVariance(int places) {
+        return variance(places, true);
+    }
+
+    /**
+     * Gets the population standard deviation of the values,
+     * cut off after the default {@link Number#getDecCount() decCount} of decimal places.
+     * @return The standard deviation, which is zero when there are no values.
+     */
+    public Number stddev() {
+        return stddev(new Number().getDecCount());
+    }
+
+    /**
+     * Gets the population standard deviation of the values, the square root of the {@link #variance(int) variance}.
+     * <br>
+     * The square root is taken of the exact variance, so every place that is given is right.
+     * @param places The count of decimal places that the standard deviation is cut off after.
+     * @return The standard deviation, which is zero when there are no values.
+     */
+    public Number stddev(int places) {
+        return count == 0 ? new Number() : stddev(places, false);
+    }
+
+    /**
+     * Gets the sample standard deviation of the values, the square root of the {@link #sampleVariance(int) sample variance}.
+     * @param places The count of decimal places that the standard deviation is cut off after.
+     * @return The sample standard deviation.
+     * @throws ArithmeticException if fewer than two values were read.
+     */
+    public Number sampleStddev(int places) {
+        return stddev(places, true);
+    }
+
+    /**
+     * Gets a quantile of the values, the smallest value that at least {@code q} of the values are at or below.
+     * @param q The fraction of the values, from {@code 0} to {@code 1}.
+     * @return The quantile, which is exact until the sketch first fills up.
+     * @throws IllegalArgumentException if {@code q} isn't from {@code 0} to {@code 1}.
+     * @throws java.util.NoSuchElementException if there are no values.
+     */
+    public Number quantile(double q) {
+        if (!(q >= 0 && q <= 1)) {
+            throw new IllegalArgumentException("The quantile must be from 0 to 1: "+q);
+        } else if (count == 0) {
+            throw new java.util.NoSuchElementException("There are no values");
+        }
+        return sketch.quantile(q).copy();
+    }
+
+    /**
+     * Gets the median of the values, the lower one of the middle two when the count is even.
+     * @return The median, which is exact until the sketch first fills up.
+     * @throws java.util.NoSuchElementException if there are no values.
+     */
+    public Number median() {
+        return quantile(0.5);
+    }
+
+    /**
+     * Counts the values between edges.
+     * <br>
+     * The bins are the values below the first edge, the values from each edge up to the next,
+     * and the values from the last edge up.
+     * @param edges The edges of the bins, from the smallest to the biggest.
+     * @return The count of values in each bin, one more than the count of edges,
+     * which are exact until the sketch first fills up and always add up to {@link #count()}.
+     * @throws IllegalArgumentException if the edges aren't in order.
+     */
+    public long[] histogram(Numeric... edges) {
+        Number[] bounds = new Number[edges.length];
+        for (int i = 0; i < edges.length; i++) {
+            bounds[i] = edges[i].toNumber();
+            if (i > 0 && bounds[i].compareTo(bounds[i - 1]) < 0) {
+                throw new IllegalArgumentException("The edges must be in order, "+bounds[i]+" is below "+bounds[i - 1]);
+            }
+        }
+        return sketch.histogram(bounds);
+    }
+
+    /**
+     * Gets the count, sum, mean, smallest and biggest value, like {@link java.util.DoubleSummaryStatistics}.
+     * @return The summary.
+     */
+    @Override
+    public String toString() {
+        return "Statistics{count="+count+", sum="+sum+", mean="+mean(10)
+                +", min="+min+", max="+max+"}";
+    }
+
+    // internal calculation
+
+    /**
+     * Gets the numerator of the variance, <code>n&Sigma;x<sup>2</sup> - (&Sigma;x)<sup>2</sup></code>,
+     * which is exact and never negative.
+     */
+    private Number spread() {
+        Number total = sum.freeze();
+        return squares.freeze().multiply(new Number(count)).subtract(total.multiply(total.copy()));
+    }
+
+    /**
+     * Gets the denominator of the variance, <code>n<sup>2</sup></code> or <code>n(n-1)</code>.
+     */
+    private int[] divisor(boolean sample) {
+        if (sample && count < 2) {
+            throw new ArithmeticException("The sample variance needs at least two values, there are "+count);
+        }
+        return Limbs.multiply(Limbs.valueOf(count), Limbs.valueOf(sample ? count - 1 : count));
+    }
+
+    private Number variance(int places, boolean sample) {
+        int[] divisor = divisor(sample);
+        Number ret = spread();
+        int old = ret.setDecCount(places);
+        ret.divide(Number.valueOf(1, divisor, 0));
+        ret.setDecCount(old);
+        return ret;
+    }
+
+    private Number stddev(int places, boolean sample) {
+        int[] divisor = divisor(sample);
+        Number spread = spread();
+        // floor(sqrt(spread / divisor) * 10^places) = floor(sqrt(floor(spread * 10^(2 places) / divisor)))
+        int shift = 2 * places - spread.scale();
+        int[] top = spread.magnitude();
+        if (shift >= 0) {
+            top = Limbs.multiply(top, Limbs.pow10(shift));
+        } else {
+            divisor = Limbs.multiply(divisor, Limbs.pow10(-shift));
+        }
+        int[] root = Roots.root(Division.divide(top, divisor)[0], 2);
+        return Number.valueOf(1, root, places);
+    }
+
+    /**
+     * The sketch of the values that the quantiles and histograms come from.
+     */
+    private static final class Sketch {
+        /**
+         * The size of the top level, each level below is two thirds of the one above it.
+         */
+        private final int size;
+        /**
+         * The values at each level, where a value of level {@code h} stands for 2<sup>{@code h}</sup> values.
+         */
+        private final List<List<Number>> levels = new ArrayList<>();
+        /**
+         * Picks which half of a sorted level is moved up, at random so that neither end of a level is favoured.
+         */
+        private final SplittableRandom random = new SplittableRandom();
+
+        private Sketch(int size) {
+            this.size = size;
+            levels.add(new ArrayList<>());
+        }
+
+        private void add(Number value) {
+            levels.get(0).add(value);
+            if (levels.get(0).size() >= capacity(0)) {
+                compress();
+            }
+        }
+
+        private void merge(Sketch other) {
+            for (int h = 0; h < other.levels.size(); h++) {
+                if (h == levels.size()) {
+                    levels.add(new ArrayList<>());
+                }
+                levels.get(h).addAll(other.levels.get(h));
+            }
+            compress();
+        }
+
+        /**
+         * Gets the most values that a level holds before it is compacted.
+         */
+        private int capacity(int level) {
+            int depth = levels.size() - 1 - level;
+            return Math.max(2, (int) Math.ceil(size * Math.pow(2.0 / 3, depth)));
+        }
+
+        /**
+         * Compacts every level that is full, from the bottom up.
+         */
+        private void compress() {
+            for (int h = 0; h < levels.size(); h++) {
+                if (levels.get(h).size() >= capacity(h)) {
+                    compact(h);
+                }
+            }
+        }
+
+        /**
+         * Sorts a level and moves every other value of it up a level,
+         * leaving the biggest value behind when there is an odd count of them.
+         */
+        private void compact(int level) {
+            List<Number> values = levels.get(level);
+            values.sort(Comparator.naturalOrder());
+            if (level + 1 == levels.size()) {
+                levels.add(new ArrayList<>());
+            }
+            List<Number> up = levels.get(level + 1);
+            int pairs = values.size() & ~1;
+            for (int i = random.nextInt(2); i < pairs; i += 2) {
+                up.add(values.get(i));
+            }
+            List<Number> left = new ArrayList<>(values.subList(pairs, values.size()));
+            levels.set(level, left);
+        }
+
+        /**
+         * Gets every value with the count of values it stands for, sorted by value.
+         */
+        private Weighted[] weighted() {
+            List<Weighted> ret = new ArrayList<>();
+            for (int h = 0; h < levels.size(); h++) {
+                for (Number value : levels.get(h)) {
+                    ret.add(new Weighted(value, 1L << h));
+                }
+            }
+            Weighted[] sorted = ret.toArray(new Weighted[0]);
+            Arrays.sort(sorted, Comparator.comparing(Weighted::value));
+            return sorted;
+        }
+
+        private Number quantile(double q) {
+            Weighted[] values = weighted();
+            long total = 0;
+            for (Weighted w : values) {
+                total += w.weight;
+            }
+            // the nearest rank, at least one so that q = 0 gives the smallest value
+            double rank = Math.max(1, Math.ceil(q * total));
+            long seen = 0;
+            for (Weighted w : values) {
+                seen += w.weight;
+                if (seen >= rank) {
+                    return w.value;
+                }
+            }
+            return values[values.length - 1].value;
+        }
+
+        private long[] histogram(Number[] edges) {
+            long[] ret = new long[edges.length + 1];
+            int bin = 0;
+            for (Weighted w : weighted()) {
+                while (bin < edges.length && w.value.compareTo(edges[bin]) >= 0) {
+                    bin++;
+                }
+                ret[bin] += w.weight;
+            }
+            return ret;
+        }
+
+        /**
+         * A value of the sketch and the count of values it stands for.
+         */
+        private record Weighted(Number value, long weight) {}
+    }
+}
@@ -1,12 +1,831 @@
+import arlot.math.Advanced;
+import arlot.math.Basic;
+import arlot.math.Binary;
 import arlot.math.Factorial;
+import arlot.math.FactorialCache;
+import arlot.math.FactorialStore;
+import arlot.math.Fraction;
+import arlot.math.Multiplication;
 import arlot.math.Number;
+import arlot.math.NumberCollectors;
+import arlot.math.NumberSorter;
+import arlot.math.Statistics;
 
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.file.Files;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
 
 public class MathTest {
-    public static void main(String[] args) {
+    /**
+     * Checks {@link Number#multiply(Number)} against {@link BigInteger#multiply(BigInteger)}
+     * with the multiplication thresholds lowered, so that every tier gets used.
+     * @return The count of products that didn't match.
+     */
+    public static int checkMultiplication() {
+        int karatsuba = Multiplication.setKaratsubaThreshold(4);
+        int toomCook = Multiplication.setToomCookThreshold(12);
+        int ntt = Multiplication.setNttThreshold(40);
+        Random random = new Random(2024);
+        int failed = 0;
+        try {
+            for (int i = 0; i < 200; i++) {
+                BigInteger a = new BigInteger(1 + random.nextInt(20000), random);
+                BigInteger b = i % 5 == 0 ? a : new BigInteger(1 + random.nextInt(20000), random);
+                if (random.nextBoolean()) {
+                    a = a.negate();
+                }
+                String product = new Number(a.toString()).multiply(new Number(b.toString())).toString();
+                if (!product.equals(a.multiply(b).toString())) {
+                    failed++;
+                    System.out.println("Multiplication mismatch: "+a+" * "+b);
+                }
+            }
+        } finally {
+            Multiplication.setKaratsubaThreshold(karatsuba);
+            Multiplication.setToomCookThreshold(toomCook);
+            Multiplication.setNttThreshold(ntt);
+        }
+        // at the default thresholds, big enough to reach the number-theoretic transform
+        int bits = 32 * (Multiplication.DEFAULT_NTT_THRESHOLD + 100);
+        BigInteger a = new BigInteger(bits, random).setBit(bits - 1);
+        BigInteger b = new BigInteger(bits, random).setBit(bits - 1);
+        if (!new Number(a).multiply(new Number(b)).toBigInteger().equals(a.multiply(b))) {
+            failed++;
+            System.out.println("Multiplication mismatch at "+bits+" bits");
+        }
+        System.out.println("Multiplication mismatches: "+failed);
+        return failed;
+    }
+
+    /**
+     * Checks {@link NumberSorter} against {@link Arrays#sort(Object[])} on {@link BigDecimal}s,
+     * with values of up to about 20000 bits, where the count of digits is hardest to find from the bit length.
+     * @return The count of sorts that didn't match.
+     */
+    public static int checkSorting() {
+        Random random = new Random(2025);
+        int failed = 0;
+        BigInteger big = BigInteger.ONE.shiftLeft(13301);
+        Number[] pair = {new Number(new BigDecimal(big).add(new BigDecimal("0.5"))), new Number(big)};
+        NumberSorter.sort(pair);
+        if (pair[0].compareTo(pair[1]) > 0) {
+            failed++;
+            System.out.println("Sorting mismatch: 2^13301 + 0.5 before 2^13301");
+        }
+        for (int i = 0; i < 50; i++) {
+            BigDecimal[] expected = new BigDecimal[200];
+            for (int j = 0; j < expected.length; j++) {
+                BigInteger unscaled = new BigInteger(1 + random.nextInt(i < 25 ? 100 : 20000), random);
+                if (random.nextBoolean()) {
+                    unscaled = unscaled.negate();
+                }
+                expected[j] = new BigDecimal(unscaled, random.nextInt(40));
+            }
+            Number[] values = new Number[expected.length];
+            for (int j = 0; j < values.length; j++) {
+                values[j] = new Number(expected[j]);
+            }
+            Arrays.sort(expected);
+            NumberSorter.sort(values);
+            for (int j = 0; j < values.length; j++) {
+                if (values[j].toBigDecimal().compareTo(expected[j]) != 0) {
+                    failed++;
+                    System.out.println("Sorting mismatch at "+j+": "+values[j]+" != "+expected[j]);
+                    break;
+                }
+            }
+        }
+        System.out.println("Sorting mismatches: "+failed);
+        return failed;
+    }
+
+    /**
+     * Checks {@link Basic#pow(Number, Number)} with decimal powers against {@link BigDecimal#pow(int)}:
+     * a power <code>x<sup>p/q</sup></code> cut off at {@code d} places is {@code r} only when
+     * <code>r<sup>q</sup> &le; x<sup>p</sup> &lt; (r + 10<sup>-d</sup>)<sup>q</sup></code>.
+     * Powers with long exponents, which can't be checked this way, are checked against {@link Math#pow(double, double)}.
+     * @return The count of powers that didn't match.
+     */
+    public static int checkPower() {
+        Random random = new Random(2026);
+        int failed = 0;
+        for (int i = 0; i < 200; i++) {
+            BigDecimal base = new BigDecimal(BigInteger.valueOf(1 + random.nextInt(100000)), random.nextInt(4));
+            BigDecimal exponent = new BigDecimal(BigInteger.valueOf(1 + random.nextInt(5000)), 1 + random.nextInt(3));
+            if (exponent.stripTrailingZeros().scale() <= 0) {
+                continue;
+            }
+            Number x = new Number(base);
+            x.setDecCount(30);
+            BigDecimal power = Basic.pow(x, new Number(exponent)).toBigDecimal();
+            BigInteger q = BigInteger.TEN.pow(exponent.scale());
+            BigInteger p = exponent.unscaledValue();
+            BigInteger gcd = p.gcd(q);
+            int top = p.divide(gcd).intValueExact();
+            int bottom = q.divide(gcd).intValueExact();
+            BigDecimal target = base.pow(top);
+            BigDecimal next = power.add(BigDecimal.ONE.movePointLeft(30));
+            if (power.scale() > 30 || power.pow(bottom).compareTo(target) > 0 || next.pow(bottom).compareTo(target) <= 0) {
+                failed++;
+                System.out.println("Power mismatch: "+base+"^"+exponent+" = "+power);
+            }
+        }
+        String[][] exact = {{"4", "0.5", "2"}, {"0.25", "1.5", "0.125"}, {"1000000", "1.5", "1000000000"}, {"-32", "0.2", "-2"}};
+        for (String[] pair : exact) {
+            String power = Basic.pow(new Number(pair[0]), new Number(pair[1])).toString();
+            if (!power.equals(pair[2])) {
+                failed++;
+                System.out.println("Power mismatch: "+pair[0]+"^"+pair[1]+" = "+power);
+            }
+        }
+        for (int i = 0; i < 50; i++) {
+            double base = 0.01 + random.nextDouble() * 100;
+            double exponent = random.nextDouble() * 10;
+            Number x = new Number(base);
+            x.setDecCount(30);
+            double power = Basic.pow(x, new Number(exponent)).doubleValue();
+            double expected = Math.pow(new Number(base).doubleValue(), new Number(exponent).doubleValue());
+            if (Math.abs(power - expected) > 1e-12 * expected) {
+                failed++;
+                System.out.println("Power mismatch: "+base+"^"+exponent+" = "+power+" != "+expected);
+            }
+        }
+        System.out.println("Power mismatches: "+failed);
+        return failed;
+    }
+
+    /**
+     * Checks {@link Statistics} against the same sums worked out with {@link BigDecimal}:
+     * the mean, variance and standard deviation are cut off (not rounded) from the exact sums,
+     * and the median is exact while the values fit in the sketch.
+     * @return The count of statistics that didn't match.
+     */
+    public static int checkStatistics() {
+        Random random = new Random(2030);
+        int failed = 0;
+        int places = 30;
+        for (int i = 0; i < 50; i++) {
+            int count = 1 + random.nextInt(150);
+            List<Number> values = new ArrayList<>();
+            BigDecimal[] expected = new BigDecimal[count];
+            BigDecimal sum = BigDecimal.ZERO;
+            BigDecimal squares = BigDecimal.ZERO;
+            for (int j = 0; j < count; j++) {
+                BigInteger unscaled = new BigInteger(1 + random.nextInt(i < 25 ? 40 : 200), random);
+                if (random.nextBoolean()) {
+                    unscaled = unscaled.negate();
+                }
+                expected[j] = new BigDecimal(unscaled, random.nextInt(12));
+                values.add(new Number(expected[j]));
+                sum = sum.add(expected[j]);
+                squares = squares.add(expected[j].multiply(expected[j]));
+            }
+            Statistics stats = i % 2 == 0 ? Statistics.of(values) : values.parallelStream().collect(Statistics.collector());
+            BigDecimal n = BigDecimal.valueOf(count);
+            BigDecimal mean = sum.divide(n, places, RoundingMode.DOWN);
+            // n * sum(x^2) - sum(x)^2, over n^2
+            BigDecimal spread = squares.multiply(n).subtract(sum.multiply(sum));
+            BigDecimal variance = spread.divide(n.multiply(n), places, RoundingMode.DOWN);
+            BigInteger stddev = spread.movePointRight(2 * places).toBigInteger()
+                    .divide(BigInteger.valueOf(count).pow(2)).sqrt();
+            Arrays.sort(expected);
+            BigDecimal median = expected[(count - 1) / 2];
+            if (stats.count() != count
+                    || stats.sum().toBigDecimal().compareTo(sum) != 0
+                    || stats.mean(places).toBigDecimal().compareTo(mean) != 0
+                    || stats.variance(places).toBigDecimal().compareTo(variance) != 0
+                    || stats.stddev(places).toBigDecimal().compareTo(new BigDecimal(stddev, places)) != 0
+                    || stats.median().toBigDecimal().compareTo(median) != 0) {
+                failed++;
+                System.out.println("Statistics mismatch: "+stats+" of "+values);
+            }
+        }
+        System.out.println("Statistics mismatches: "+failed);
+        return failed;
+    }
+
+    /**
+     * Checks {@link Advanced#primeFactor(Number)} against {@link BigInteger} on values
+     * whose cofactors, after the small primes are divided out, are above 2<sup>62</sup>:
+     * the factors must be primes by {@link BigInteger#isProbablePrime(int)}, from the least up,
+     * and must multiply back to the value.
+     * @return The count of factorizations that didn't match.
+     */
+    public static int checkFactorization() {
+        Random random = new Random(2027);
+        int failed = 0;
+        for (int i = 0; i < 40; i++) {
+            BigInteger n = BigInteger.ONE;
+            switch (i % 4) {
+                // a prime cofactor, which must only be checked
+                case 0 -> n = BigInteger.probablePrime(63 + random.nextInt(120), random);
+                // two primes that rho has to split
+                case 1 -> n = BigInteger.probablePrime(32 + random.nextInt(4), random)
+                        .multiply(BigInteger.probablePrime(32 + random.nextInt(4), random));
+                // a square of a prime
+                case 2 -> n = BigInteger.probablePrime(40 + random.nextInt(40), random).pow(2);
+                // small primes, a big prime and a split above 2^62
+                default -> n = BigInteger.valueOf(2 * 3 * 7 * 65537L)
+                        .multiply(BigInteger.probablePrime(70 + random.nextInt(30), random))
+                        .multiply(BigInteger.probablePrime(24, random).multiply(BigInteger.probablePrime(30, random)));
+            }
+            Number[][] factors = Advanced.primeFactor(new Number(n.toString()));
+            BigInteger product = BigInteger.ONE;
+            BigInteger last = BigInteger.ONE;
+            boolean matched = true;
+            for (Number[] factor : factors) {
+                BigInteger prime = factor[0].toBigInteger();
+                matched &= prime.compareTo(last) > 0 && prime.isProbablePrime(50);
+                product = product.multiply(prime.pow(factor[1].intValue()));
+                last = prime;
+            }
+            if (!matched || !product.equals(n)) {
+                failed++;
+                System.out.println("Factorization mismatch: "+n+" = "+Arrays.deepToString(factors));
+            }
+        }
+        System.out.println("Factorization mismatches: "+failed);
+        return failed;
+    }
+
+    /**
+     * Checks that a {@link FactorialStore} reads back what was written to it after it is closed and opened again,
+     * finds the nearest stored factorial below a number, and grows after it is opened again.
+     * @return The count of checks that didn't match.
+     * @throws IOException if the store can't be written in a temporary directory.
+     */
+    public static int checkFactorialStore() throws IOException {
+        File directory = Files.createTempDirectory("factorials").toFile();
+        int failed = 0;
+        long[] first = {0, 1, 7, 100, 1000, 500};
+        long[] second = {2000, 3};
+        try {
+            try (FactorialStore store = new FactorialStore(directory)) {
+                for (long n : first) {
+                    store.put(n, new Number(factorial(n)));
+                }
+                if (store.put(7, new Number(factorial(7)))) {
+                    failed++;
+                    System.out.println("Factorial store stored 7! twice");
+                }
+                try {
+                    store.put(FactorialStore.MAX_N + 1, new Number(1));
+                    failed++;
+                    System.out.println("Factorial store stored past its max");
+                } catch (IllegalArgumentException expected) {
+                    // past the max, which would grow the index too far
+                }
+            }
+            try (FactorialStore store = new FactorialStore(directory)) {
+                failed += checkStored(store, first);
+                if (!Long.valueOf(500).equals(store.floorKey(999)) || !Long.valueOf(7).equals(store.floorKey(99))
+                        || store.floorKey(-1) != null || store.contains(2)) {
+                    failed++;
+                    System.out.println("Factorial store floor mismatch: "+store.floorKey(999)+", "+store.floorKey(99));
+                }
+                for (long n : second) {
+                    store.put(n, new Number(factorial(n)));
+                }
+            }
+            try (FactorialStore store = new FactorialStore(directory)) {
+                failed += checkStored(store, first) + checkStored(store, second);
+                if (!Long.valueOf(2000).equals(store.floorKey(Long.MAX_VALUE))) {
+                    failed++;
+                    System.out.println("Factorial store didn't grow after it was opened again");
+                }
+            }
+        } finally {
+            for (File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+        System.out.println("Factorial store mismatches: "+failed);
+        return failed;
+    }
+
+    private static int checkStored(FactorialStore store, long[] numbers) throws IOException {
+        int failed = 0;
+        for (long n : numbers) {
+            Number stored = store.get(n);
+            if (stored == null || !stored.toBigInteger().equals(factorial(n))) {
+                failed++;
+                System.out.println("Factorial store mismatch at "+n+"!");
+            }
+        }
+        return failed;
+    }
+
+    private static BigInteger factorial(long n) {
+        BigInteger ret = BigInteger.ONE;
+        for (long i = 2; i <= n; i++) {
+            ret = ret.multiply(BigInteger.valueOf(i));
+        }
+        return ret;
+    }
+
+    /**
+     * Checks {@link Number#divide(Number)} against {@link BigInteger#divide(BigInteger)} and {@link BigDecimal},
+     * with divisors and quotients long enough for the Newton reciprocal to be used.
+     * @return The count of quotients that didn't match.
+     */
+    public static int checkDivision() {
+        Random random = new Random(2028);
+        int failed = 0;
+        for (int i = 0; i < 40; i++) {
+            BigInteger b = new BigInteger(13000 + random.nextInt(20000), random).setBit(12900);
+            BigInteger a = new BigInteger(b.bitLength() + 13000 + random.nextInt(20000), random);
+            if (random.nextBoolean()) {
+                a = a.negate();
+            }
+            Number quotient = new Number(a);
+            quotient.setDecCount(0);
+            quotient.divide(new Number(b));
+            if (!quotient.toString().equals(a.divide(b).toString())) {
+                failed++;
+                System.out.println("Division mismatch: "+a.bitLength()+" bits / "+b.bitLength()+" bits");
+            }
+        }
+        for (int i = 0; i < 40; i++) {
+            BigDecimal a = new BigDecimal(new BigInteger(1 + random.nextInt(20000), random), random.nextInt(50));
+            BigDecimal b = new BigDecimal(new BigInteger(1 + random.nextInt(20000), random).add(BigInteger.ONE), random.nextInt(50));
+            int places = random.nextInt(5000);
+            Number quotient = new Number(a);
+            quotient.setDecCount(places);
+            quotient.divide(new Number(b));
+            if (quotient.toBigDecimal().compareTo(a.divide(b, places, RoundingMode.DOWN)) != 0) {
+                failed++;
+                System.out.println("Division mismatch: "+a+" / "+b+" at "+places+" places");
+            }
+        }
+        System.out.println("Division mismatches: "+failed);
+        return failed;
+    }
+
+    /**
+     * Checks that a {@link FactorialCache} evicts the least recently used factorials once it is full,
+     * hands out copies, counts its hits and misses, and stays within its digits when used from many threads.
+     * @return The count of checks that didn't match.
+     */
+    public static int checkFactorialCache() {
+        int failed = 0;
+        // 1000! to 1003! each have about 2570 digits, so three of them fit
+        FactorialCache cache = new FactorialCache(7800);
+        for (long n = 1000; n <= 1002; n++) {
+            cache.put(n, new Number(factorial(n)));
+        }
+        Number touched = cache.get(1000);
+        touched.add(1);
+        cache.put(1003, new Number(factorial(1003)));
+        FactorialCache.CacheStats stats = cache.statistics();
+        if (!cache.contains(1000) || cache.contains(1001) || !cache.contains(1002) || !cache.contains(1003)
+                || cache.get(1001) != null || !cache.get(1000).toBigInteger().equals(factorial(1000))
+                || stats.evictions() != 1 || stats.size() != 3 || stats.hits() != 1 || stats.misses() != 0) {
+            failed++;
+            System.out.println("Factorial cache mismatch: "+cache.entries().stream().map(Map.Entry::getKey).toList()+", "+stats);
+        }
+        FactorialCache shared = new FactorialCache(200_000);
+        IntStream.range(0, 2000).parallel().forEach(i -> {
+            long n = 100 + i % 400;
+            Number value = shared.get(n);
+            if (value == null) {
+                shared.put(n, new Number(factorial(n)));
+            }
+        });
+        stats = shared.statistics();
+        if (stats.digits() > shared.getMaxDigits() || stats.hits() + stats.misses() != 2000
+                || !shared.entries().stream().allMatch(e -> e.getValue().toBigInteger().equals(factorial(e.getKey())))) {
+            failed++;
+            System.out.println("Factorial cache mismatch across threads: "+stats);
+        }
+        for (int n : new int[] {0, 1, 20, 21, 170, 1500, 1499, 3000}) {
+            if (!Factorial.calculateFactorial(new Number(n)).toString().equals(factorial(n).toString())) {
+                failed++;
+                System.out.println("Factorial mismatch: "+n+"!");
+            }
+        }
+        System.out.println("Factorial cache mismatches: "+failed);
+        return failed;
+    }
+
+    /**
+     * Checks {@link Basic#root(Number, Number)} and {@link Number#sqrt()} against {@link BigDecimal#pow(int)}:
+     * a root of {@code x} cut off at {@code d} places is {@code r} only when
+     * <code>|r|<sup>n</sup> &le; |x| &lt; (|r| + 10<sup>-d</sup>)<sup>n</sup></code>,
+     * and a power of a whole number must have it as its exact root.
+     * @return The count of roots that didn't match.
+     */
+    public static int checkRoots() {
+        Random random = new Random(2029);
+        int failed = 0;
+        for (int i = 0; i < 200; i++) {
+            int degree = 2 + random.nextInt(6);
+            BigDecimal x = new BigDecimal(new BigInteger(1 + random.nextInt(i < 100 ? 64 : 3000), random), random.nextInt(30));
+            if (degree % 2 == 1 && random.nextBoolean()) {
+                x = x.negate();
+            }
+            int places = random.nextInt(200);
+            Number value = new Number(x);
+            value.setDecCount(places);
+            BigDecimal root = (degree == 2 ? value.sqrt() : Basic.root(value, new Number(degree))).toBigDecimal();
+            BigDecimal next = root.abs().add(BigDecimal.ONE.movePointLeft(places));
+            if (root.scale() > places || root.signum() * x.signum() < 0
+                    || root.abs().pow(degree).compareTo(x.abs()) > 0 || next.pow(degree).compareTo(x.abs()) <= 0) {
+                failed++;
+                System.out.println("Root mismatch: root("+x+", "+degree+") = "+root);
+            }
+        }
+        for (int i = 0; i < 50; i++) {
+            int degree = 2 + random.nextInt(10);
+            BigInteger y = new BigInteger(1 + random.nextInt(2000), random);
+            String root = Basic.root(new Number(y.pow(degree)), new Number(degree)).toString();
+            if (!root.equals(y.toString())) {
+                failed++;
+                System.out.println("Root mismatch: root("+y+"^"+degree+", "+degree+") = "+root);
+            }
+        }
+        System.out.println("Root mismatches: "+failed);
+        return failed;
+    }
+
+    /**
+     * Checks {@link Advanced#euclidAlgorithm(Number, Number)}, {@link Advanced#gcf(Number...)}
+     * and {@link Advanced#lcm(Number...)} against {@link BigInteger#gcd(BigInteger)},
+     * on values that share big factors, so that Lehmer's steps and the tree reduction are both used.
+     * @return The count of results that didn't match.
+     */
+    public static int checkGcd() {
+        Random random = new Random(2031);
+        int failed = 0;
+        for (int i = 0; i < 100; i++) {
+            BigInteger shared = new BigInteger(1 + random.nextInt(3000), random).add(BigInteger.ONE);
+            BigInteger a = shared.multiply(new BigInteger(1 + random.nextInt(3000), random));
+            BigInteger b = shared.multiply(new BigInteger(1 + random.nextInt(3000), random)).add(BigInteger.ONE);
+            if (random.nextBoolean()) {
+                a = a.negate();
+            }
+            String gcd = Advanced.euclidAlgorithm(new Number(a), new Number(b)).toString();
+            if (!gcd.equals(a.gcd(b).toString())) {
+                failed++;
+                System.out.println("Gcd mismatch: gcd("+a+", "+b+") = "+gcd);
+            }
+        }
+        for (int i = 0; i < 20; i++) {
+            BigInteger shared = new BigInteger(1 + random.nextInt(500), random).add(BigInteger.ONE);
+            Number[] values = new Number[2 + random.nextInt(100)];
+            BigInteger gcd = BigInteger.ZERO;
+            BigInteger lcm = BigInteger.ONE;
+            for (int j = 0; j < values.length; j++) {
+                BigInteger value = shared.multiply(new BigInteger(1 + random.nextInt(100), random).add(BigInteger.ONE));
+                values[j] = new Number(value);
+                gcd = gcd.gcd(value);
+                lcm = lcm.divide(lcm.gcd(value)).multiply(value);
+            }
+            String gcf = Advanced.gcf(values).toString();
+            String multiple = Advanced.lcm(values).toString();
+            if (!gcf.equals(gcd.toString()) || !multiple.equals(lcm.toString())) {
+                failed++;
+                System.out.println("Gcd mismatch over "+values.length+" values: "+gcf+", "+multiple);
+            }
+        }
+        String decimal = Advanced.euclidAlgorithm(new Number("1.5"), new Number("2.25")).toString();
+        if (!decimal.equals("0.75")) {
+            failed++;
+            System.out.println("Gcd mismatch: gcd(1.5, 2.25) = "+decimal);
+        }
+        System.out.println("Gcd mismatches: "+failed);
+        return failed;
+    }
+
+    /**
+     * Checks chains of {@link Fraction} arithmetic against the same chains on pairs of {@link BigInteger}s.
+     * A {@link Fraction#isLazy() lazy} fraction must be in its lowest terms once it is looked at,
+     * and a product of fractions in their lowest terms must be in its lowest terms without simplifying.
+     * @return The count of chains that didn't match.
+     */
+    public static int checkFractions() {
+        Random random = new Random(2032);
+        int failed = 0;
+        for (int i = 0; i < 200; i++) {
+            boolean lazy = i % 2 == 0;
+            // lazy chains add and subtract, the others multiply and divide
+            BigInteger[] expected = {BigInteger.valueOf(random.nextInt(2000) - 1000), BigInteger.valueOf(1 + random.nextInt(1000))};
+            Fraction fraction = new Fraction(new Number(expected[0]), new Number(expected[1])).simplify().setLazy(lazy);
+            expected = reduce(expected[0], expected[1]);
+            for (int j = 0; j < 20; j++) {
+                BigInteger top = BigInteger.valueOf(random.nextInt(2000) - 1000);
+                BigInteger bottom = BigInteger.valueOf(1 + random.nextInt(1000));
+                if (!lazy && top.signum() == 0) {
+                    top = BigInteger.ONE;
+                }
+                Fraction other = new Fraction(new Number(top), new Number(bottom)).simplify();
+                switch (random.nextInt(2) + (lazy ? 0 : 2)) {
+                    case 0 -> {
+                        fraction.add(other);
+                        expected = reduce(expected[0].multiply(bottom).add(top.multiply(expected[1])), expected[1].multiply(bottom));
+                    }
+                    case 1 -> {
+                        fraction.subtract(other);
+                        expected = reduce(expected[0].multiply(bottom).subtract(top.multiply(expected[1])), expected[1].multiply(bottom));
+                    }
+                    case 2 -> {
+                        fraction.multiply(other);
+                        expected = reduce(expected[0].multiply(top), expected[1].multiply(bottom));
+                    }
+                    default -> {
+                        if (expected[0].signum() == 0) {
+                            continue;
+                        }
+                        fraction.divide(other);
+                        expected = reduce(expected[0].multiply(bottom), expected[1].multiply(top));
+                    }
+                }
+            }
+            String text = expected[0].signum() == 0 ? "0/1" : expected[0]+"/"+expected[1];
+            String actual = fraction.toString();
+            if (expected[0].signum() == 0 ? !actual.replace("-", "").equals(text) : !actual.equals(text)) {
+                failed++;
+                System.out.println("Fraction mismatch: "+actual+" != "+text);
+            }
+        }
+        System.out.println("Fraction mismatches: "+failed);
+        return failed;
+    }
+
+    /**
+     * Brings a fraction to its lowest terms with a positive denominator.
+     */
+    private static BigInteger[] reduce(BigInteger top, BigInteger bottom) {
+        BigInteger gcd = top.gcd(bottom);
+        if (bottom.signum() < 0) {
+            gcd = gcd.negate();
+        }
+        return new BigInteger[] {top.divide(gcd), bottom.divide(gcd)};
+    }
+
+    /**
+     * Checks the gates, shifts and sums of {@link Binary} against the same bit operations on {@link BigInteger}.
+     * Every result is compared as a string of '0' and '1' characters padded to the length of the result.
+     * @return The count of operations that didn't match.
+     */
+    public static int checkBinary() {
+        Random random = new Random(2033);
+        int failed = 0;
+        for (int i = 0; i < 500; i++) {
+            BigInteger a = new BigInteger(1 + random.nextInt(300), random);
+            BigInteger b = new BigInteger(1 + random.nextInt(300), random);
+            Binary x = new Binary(a.toString(2));
+            Binary y = new Binary(b.toString(2));
+            int width = Math.max(x.length(), y.length());
+            BigInteger mask = BigInteger.ONE.shiftLeft(width).subtract(BigInteger.ONE);
+            BigInteger sum = a.add(b);
+            int amount = random.nextInt(x.length() + 1);
+            BigInteger xMask = BigInteger.ONE.shiftLeft(x.length()).subtract(BigInteger.ONE);
+            Map<String, String[]> results = Map.of(
+                    "not", new String[] {x.not().toString(), bits(a.xor(xMask), x.length())},
+                    "and", new String[] {x.and(y).toString(), bits(a.and(b), width)},
+                    "or", new String[] {x.or(y).toString(), bits(a.or(b), width)},
+                    "xor", new String[] {x.xor(y).toString(), bits(a.xor(b), width)},
+                    "nand", new String[] {x.nand(y).toString(), bits(a.and(b).xor(mask), width)},
+                    "nor", new String[] {x.nor(y).toString(), bits(a.or(b).xor(mask), width)},
+                    "xnor", new String[] {x.xnor(y).toString(), bits(a.xor(b).xor(mask), width)},
+                    "add", new String[] {x.add(y).toString(), bits(sum, sum.bitLength() > width ? (width + 16) / 16 * 16 : width)},
+                    "leftShift", new String[] {x.leftShift(amount).toString(), bits(a.shiftLeft(amount).and(xMask), x.length())},
+                    "rightShift", new String[] {x.rightShift(amount).toString(), bits(a.shiftRight(amount), x.length())}
+            );
+            for (Map.Entry<String, String[]> result : results.entrySet()) {
+                if (!result.getValue()[0].equals(result.getValue()[1])) {
+                    failed++;
+                    System.out.println("Binary mismatch: "+x+" "+result.getKey()+" "+y+" ("+amount+") = "+result.getValue()[0]+" != "+result.getValue()[1]);
+                }
+            }
+            if (!x.toString().equals(bits(a, (a.toString(2).length() + 15) / 16 * 16)) || x.bitCount() != a.bitCount() || x.charAt(x.length() - 1) != (a.testBit(0) ? '1' : '0')) {
+                failed++;
+                System.out.println("Binary mismatch: "+x+" bits "+x.bitCount()+" != "+a.bitCount());
+            }
+        }
+        System.out.println("Binary mismatches: "+failed);
+        return failed;
+    }
+
+    /**
+     * Writes a non-negative value in base 2 with leading zeros up to a length.
+     */
+    private static String bits(BigInteger value, int length) {
+        String digits = value.toString(2);
+        return "0".repeat(length - digits.length())+digits;
+    }
+
+    /**
+     * Checks the scanner behind {@link Number#Number(String)}, {@link Basic#isNumber(String)} and
+     * {@link Basic#reorganize(String)} against {@link BigDecimal}, on values written with signs,
+     * leading and trailing zeros and each of the exponent marks.
+     * @return The count of values that didn't match.
+     */
+    public static int checkScanner() {
+        Random random = new Random(2034);
+        int failed = 0;
+        String[] marks = {"e", "E", "x10^", "X10^", "*10^"};
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder text = new StringBuilder();
+            StringBuilder plain = new StringBuilder();
+            switch (random.nextInt(3)) {
+                case 0 -> text.append('-');
+                case 1 -> text.append('+');
+                default -> {}
+            }
+            plain.append(text);
+            String whole = "0".repeat(random.nextInt(3))+new BigInteger(random.nextInt(100), random);
+            String fraction = new BigInteger(random.nextInt(100), random)+"0".repeat(random.nextInt(3));
+            text.append(whole);
+            plain.append(whole);
+            if (random.nextBoolean()) {
+                text.append('.').append(fraction);
+                plain.append('.').append(fraction);
+            }
+            if (random.nextInt(3) == 0) {
+                int exponent = random.nextInt(41) - 20;
+                text.append(marks[random.nextInt(marks.length)]).append(exponent);
+                plain.append('e').append(exponent);
+            }
+            BigDecimal expected = new BigDecimal(plain.toString());
+            String reorganized = plain(expected);
+            Number number = new Number(text.toString());
+            if (!Basic.isNumber(text.toString()) || number.toBigDecimal().compareTo(expected) != 0
+                    || !number.toString().equals(reorganized) || !Basic.reorganize(text.toString()).equals(reorganized)) {
+                failed++;
+                System.out.println("Scanner mismatch: "+text+" = "+number+" != "+reorganized);
+            }
+        }
+        for (int i = 0; i < 500; i++) {
+            double value = random.nextGaussian() * Math.pow(10, random.nextInt(31) - 15);
+            BigDecimal expected = new BigDecimal(Double.toString(value));
+            if (new Number(value).toBigDecimal().compareTo(expected) != 0) {
+                failed++;
+                System.out.println("Scanner mismatch: "+value+" = "+new Number(value)+" != "+expected.toPlainString());
+            }
+        }
+        // the strings written before the scanner, and the values that it rejects
+        Map<String, String> written = Map.of(
+                "007.500", "7.5", "-0", "0", "0.00012", "0.00012", "-.5", "-0.5",
+                "1.5e3", "1500", "2x10^-3", "0.002", "12/36", "12/36", "+4.0/-2", "4/-2"
+        );
+        for (Map.Entry<String, String> value : written.entrySet()) {
+            if (!Basic.isNumber(value.getKey()) || !Basic.reorganize(value.getKey()).equals(value.getValue())) {
+                failed++;
+                System.out.println("Scanner mismatch: "+value.getKey()+" != "+value.getValue());
+            }
+        }
+        for (String value : List.of("", "-", ".", "1-2", "1e", "1..2", "1/2/3", "1e+", "x10^2", "1x10", "1a")) {
+            if (Basic.isNumber(value)) {
+                failed++;
+                System.out.println("Scanner mismatch: "+value+" is not a number");
+            }
+        }
+        System.out.println("Scanner mismatches: "+failed);
+        return failed;
+    }
+
+    /**
+     * Checks the conversions between {@link Number} and {@link BigInteger}, {@link BigDecimal},
+     * {@code double}, {@code float} and {@code long} against the same conversions of {@link BigDecimal},
+     * and checks that {@link Number#Number(Double)} and {@link Number#Number(Float)} write
+     * the same digits as {@link Double#toString(double)} and {@link Float#toString(float)}.
+     * <br>
+     * Those are the shortest decimals that round back, closest to the binary value, since Java 19.
+     * @return The count of values that didn't match.
+     */
+    public static int checkConversions() {
+        Random random = new Random(2035);
+        int failed = 0;
+        for (int i = 0; i < 2000; i++) {
+            BigInteger unscaled = new BigInteger(random.nextInt(200), random);
+            BigDecimal value = new BigDecimal(random.nextBoolean() ? unscaled : unscaled.negate(), random.nextInt(60) - 20);
+            Number number = new Number(value);
+            String text = plain(value);
+            boolean exact;
+            try {
+                exact = number.longValueExact() == value.longValueExact();
+            } catch (ArithmeticException e) {
+                exact = !fitsLong(value);
+            }
+            if (number.toBigDecimal().compareTo(value) != 0 || !number.toString().equals(text)
+                    || !number.toBigInteger().equals(value.toBigInteger()) || number.longValue() != value.longValue()
+                    || Double.compare(number.doubleValue(), value.doubleValue()) != 0
+                    || Float.compare(number.floatValue(), value.floatValue()) != 0 || !exact
+                    || !new Number(value.toBigInteger()).toBigInteger().equals(value.toBigInteger())) {
+                failed++;
+                System.out.println("Conversion mismatch: "+value.toPlainString()+" = "+number);
+            }
+        }
+        for (int i = 0; i < 2000; i++) {
+            double d = Double.longBitsToDouble(random.nextLong());
+            float f = Float.intBitsToFloat(random.nextInt());
+            if (!Double.isFinite(d) || !Float.isFinite(f)) {
+                continue;
+            }
+            BigDecimal dText = new BigDecimal(Double.toString(d));
+            BigDecimal fText = new BigDecimal(Float.toString(f));
+            Number dNumber = new Number(d);
+            Number fNumber = new Number(f);
+            if (dNumber.toBigDecimal().compareTo(dText) != 0 || dNumber.doubleValue() != d
+                    || fNumber.toBigDecimal().compareTo(fText) != 0 || fNumber.floatValue() != f
+                    || new Number(new BigDecimal(d)).doubleValue() != d) {
+                failed++;
+                System.out.println("Conversion mismatch: "+d+" = "+dNumber+", "+f+" = "+fNumber);
+            }
+        }
+        System.out.println("Conversion mismatches: "+failed);
+        return failed;
+    }
+
+    /**
+     * Checks if a value is whole and fits in a {@code long}.
+     */
+    private static boolean fitsLong(BigDecimal value) {
+        try {
+            value.longValueExact();
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks the {@link NumberCollectors} on parallel streams against {@link BigDecimal}.
+     * The sums, products and means are compared as strings, so they must be exact and written the same way.
+     * @return The count of collections that didn't match.
+     */
+    public static int checkCollectors() {
+        Random random = new Random(2036);
+        int failed = 0;
+        for (int i = 0; i < 100; i++) {
+            List<BigDecimal> values = new ArrayList<>();
+            int count = i == 0 ? 0 : random.nextInt(400);
+            for (int j = 0; j < count; j++) {
+                BigInteger unscaled = new BigInteger(1 + random.nextInt(80), random);
+                values.add(new BigDecimal(random.nextBoolean() ? unscaled : unscaled.negate(), random.nextInt(12)));
+            }
+            List<Number> numbers = values.stream().map(Number::new).toList();
+            List<BigDecimal> factors = values.subList(0, Math.min(values.size(), 40));
+            BigDecimal sum = values.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal product = factors.stream().reduce(BigDecimal.ONE, BigDecimal::multiply);
+            int places = random.nextInt(30);
+            BigDecimal mean = count == 0 ? BigDecimal.ZERO : sum.divide(BigDecimal.valueOf(count), places, RoundingMode.DOWN);
+            Map<String, String[]> results = Map.of(
+                    "sum", new String[] {numbers.parallelStream().collect(NumberCollectors.sum()).toString(), plain(sum)},
+                    "product", new String[] {numbers.subList(0, factors.size()).parallelStream().collect(NumberCollectors.product()).toString(), plain(product)},
+                    "mean", new String[] {numbers.parallelStream().collect(NumberCollectors.mean(places)).toString(), plain(mean)},
+                    "min", new String[] {numbers.parallelStream().collect(NumberCollectors.min()).map(Number::toString).orElse(""),
+                            values.stream().min(BigDecimal::compareTo).map(MathTest::plain).orElse("")},
+                    "max", new String[] {numbers.parallelStream().collect(NumberCollectors.max()).map(Number::toString).orElse(""),
+                            values.stream().max(BigDecimal::compareTo).map(MathTest::plain).orElse("")}
+            );
+            for (Map.Entry<String, String[]> result : results.entrySet()) {
+                if (!result.getValue()[0].equals(result.getValue()[1])) {
+                    failed++;
+                    System.out.println("Collector mismatch: "+result.getKey()+" of "+count+" values = "+result.getValue()[0]+" != "+result.getValue()[1]);
+                }
+            }
+        }
+        System.out.println("Collector mismatches: "+failed);
+        return failed;
+    }
+
+    /**
+     * Writes a value the way that a {@link Number} writes it.
+     */
+    private static String plain(BigDecimal value) {
+        return value.signum() == 0 ? "0" : value.stripTrailingZeros().toPlainString();
+    }
+
+    public static void main(String[] args) throws IOException {
+        checkMultiplication();
+        checkSorting();
+        checkPower();
+        checkStatistics();
+        checkFactorization();
+        checkFactorialStore();
+        checkDivision();
+        checkFactorialCache();
+        checkRoots();
+        checkGcd();
+        checkFractions();
+        checkBinary();
+        checkScanner();
+        checkConversions();
+        checkCollectors();
         /*double i1 = 1202.4;
         double i2 = 4.2;
         Number n1 = new Number(i1);